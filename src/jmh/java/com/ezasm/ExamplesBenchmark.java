@@ -0,0 +1,85 @@
+package com.ezasm;
+
+import com.ezasm.parsing.Lexer;
+import com.ezasm.parsing.ParseException;
+import com.ezasm.simulation.Engine;
+import com.ezasm.simulation.Memory;
+import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.SimulatorPool;
+import com.ezasm.simulation.exception.InstructionLimitException;
+import com.ezasm.simulation.exception.SimulationException;
+import com.ezasm.util.FileIO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures full runs of the programs in the examples directory, from parsing the source to the end of the program, on
+ * each engine. Simulators are reused between runs as in batch and server mode. Programs which never end, such as the
+ * Fibonacci example, are stopped by an instruction limit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExamplesBenchmark {
+
+    /**
+     * The directory holding the examples, relative to the working directory unless overridden.
+     */
+    private static final String EXAMPLES = System.getProperty("ezasm.examples", "examples");
+
+    /**
+     * The greatest number of lines a single run may take.
+     */
+    private static final long INSTRUCTION_LIMIT = 100_000;
+
+    /**
+     * The input given to programs which read from standard input.
+     */
+    private static final byte[] INPUT = "42 1.5 c".getBytes(StandardCharsets.UTF_8);
+
+    @Param({ "hello_world.ez", "example.ez", "fibonacci.ez", "function.ez", "string_immediate.ez", "basic_terminal.ez",
+            "import/foo.ez" })
+    public String program;
+
+    @Param({ "INTERPRETER", "CLOSURE", "BYTECODE" })
+    public Engine engine;
+
+    private SimulatorPool pool;
+    private File file;
+    private String source;
+
+    @Setup
+    public void setup() throws IOException {
+        pool = new SimulatorPool(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS, true, engine, 1);
+        pool.setLimits(INSTRUCTION_LIMIT, 0);
+        file = new File(EXAMPLES, program);
+        source = FileIO.readFile(file);
+    }
+
+    @Benchmark
+    public long run() throws ParseException, SimulationException {
+        Simulator simulator = pool.acquire();
+        try {
+            simulator.getStreams().setInputStream(new ByteArrayInputStream(INPUT));
+            simulator.getStreams().setOutputStream(OutputStream.nullOutputStream());
+            simulator.addLines(Lexer.parseLines(source), file);
+            try {
+                simulator.executeProgramFromPC();
+            } catch (InstructionLimitException ignored) {
+            }
+            return simulator.getInstructionCount();
+        } finally {
+            pool.release(simulator);
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.ezasm.instructions;
+
+import com.ezasm.parsing.Lexer;
+import com.ezasm.parsing.Line;
+import com.ezasm.parsing.ParseException;
+import com.ezasm.simulation.Memory;
+import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.exception.SimulationException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures dispatching a single already parsed line to its instruction handler, for one instruction of each family.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InstructionDispatcherBenchmark {
+
+    /**
+     * A representative line of each instruction family. The label after the line is the target of jumps.
+     */
+    private static final Map<String, String> FAMILY_LINES = Map.of( //
+            "arithmetic", "add $t0 $t1 $t2", //
+            "float", "addf $t0 $t1 $t2", //
+            "comparison", "slt $t0 $t1 $t2", //
+            "branch", "bne $t0 $t0 target", //
+            "function", "jump target", //
+            "load", "load $t0 -8($sp)", //
+            "store", "store $t1 -8($sp)", //
+            "terminal", "printi $t0");
+
+    @Param({ "arithmetic", "float", "comparison", "branch", "function", "load", "store", "terminal" })
+    public String family;
+
+    private InstructionDispatcher dispatcher;
+    private Line line;
+
+    @Setup
+    public void setup() throws ParseException {
+        Simulator simulator = new Simulator(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS, true);
+        simulator.setHistoryEnabled(false);
+        simulator.getStreams().setOutputStream(OutputStream.nullOutputStream());
+        List<Line> lines = Lexer.parseLines(FAMILY_LINES.get(family) + "\ntarget:\n");
+        simulator.addLines(lines, new File("benchmark.ez"));
+        dispatcher = new InstructionDispatcher(simulator);
+        line = lines.get(0);
+    }
+
+    @Benchmark
+    public void execute() throws SimulationException {
+        dispatcher.execute(line);
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.ezasm.parsing;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing large generated sources which mix instructions of every operand kind, labels, comments and string
+ * immediates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LexerBenchmark {
+
+    /**
+     * The lines repeated to generate a source, with the label numbered after each repetition to keep labels unique.
+     */
+    private static final String[] PATTERN = { //
+            "label%d:", //
+            "  add $t0 $t1 42", //
+            "  addf $t2 $t3 1.5", //
+            "  # a comment between lines", //
+            "  load $t4 -8($sp)", //
+            "  store $t4 16($sp)", //
+            "  blt $t0 'a' label%d", //
+            "  prints \"line %d\\n\" 16", //
+            "" };
+
+    @Param({ "1000", "100000" })
+    public int lines;
+
+    private String source;
+
+    @Setup
+    public void setup() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i * PATTERN.length < lines; ++i) {
+            for (String line : PATTERN) {
+                builder.append(String.format(line, i)).append('\n');
+            }
+        }
+        source = builder.toString();
+    }
+
+    @Benchmark
+    public List<Line> parseLines() throws ParseException {
+        return Lexer.parseLines(source);
+    }
+
+}
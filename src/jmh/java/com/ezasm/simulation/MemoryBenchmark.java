@@ -0,0 +1,75 @@
+package com.ezasm.simulation;
+
+import com.ezasm.simulation.exception.SimulationException;
+import com.ezasm.util.RawData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading and writing words of memory, walking over a range of addresses so that successive accesses do not
+ * hit the same word.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MemoryBenchmark {
+
+    /**
+     * The number of words accessed, a power of two so that the next address can be found with a mask.
+     */
+    private static final int WORDS = 0x1000;
+
+    @Param({ "4", "8" })
+    public int wordSize;
+
+    @Param({ "false", "true" })
+    public boolean paged;
+
+    private Memory memory;
+    private int base;
+    private int index;
+
+    @Setup
+    public void setup() throws SimulationException {
+        memory = new Memory(wordSize, Memory.DEFAULT_MEMORY_WORDS, paged);
+        base = memory.initialHeapPointer();
+        for (int i = 0; i < WORDS; ++i) {
+            memory.writeWord(base + i * wordSize, i);
+        }
+    }
+
+    private int nextAddress() {
+        index = (index + 1) & (WORDS - 1);
+        return base + index * wordSize;
+    }
+
+    @Benchmark
+    public long readWord() throws SimulationException {
+        return memory.readWord(nextAddress());
+    }
+
+    @Benchmark
+    public void writeWord() throws SimulationException {
+        memory.writeWord(nextAddress(), index);
+    }
+
+    @Benchmark
+    public double readDouble() throws SimulationException {
+        return memory.readDouble(nextAddress());
+    }
+
+    @Benchmark
+    public void writeDouble() throws SimulationException {
+        memory.writeDouble(nextAddress(), index);
+    }
+
+    @Benchmark
+    public RawData read() throws SimulationException {
+        return memory.read(nextAddress());
+    }
+
+}
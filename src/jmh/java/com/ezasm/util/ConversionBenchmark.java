@@ -0,0 +1,35 @@
+package com.ezasm.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting integers and floats to the bytes of a word and back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConversionBenchmark {
+
+    @Param({ "4", "8" })
+    public int wordSize;
+
+    private long integer;
+    private double decimal;
+
+    @Benchmark
+    public long longRoundTrip() {
+        return Conversion.bytesToLong(Conversion.longToBytes(++integer, wordSize));
+    }
+
+    @Benchmark
+    public double doubleRoundTrip() {
+        decimal += 0.5;
+        return Conversion.bytesToDouble(Conversion.doubleToBytes(decimal, wordSize));
+    }
+
+}
@@ -15,6 +15,7 @@ import com.ezasm.gui.util.EditorTheme;
 import com.ezasm.instructions.implementation.TerminalInstructions;
 import com.ezasm.parsing.Lexer;
 import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.profile.LineProfiler;
 import com.ezasm.parsing.ParseException;
 import com.ezasm.simulation.Registers;
 import com.ezasm.util.FileIO;
@@ -44,6 +45,7 @@ public class Window {
 
     private static Window instance;
     private final Simulator simulator;
+    private final SimulatorGuiActions simulatorActions;
 
     private Config config;
     private JFrame app;
@@ -78,6 +80,7 @@ public class Window {
     protected Window(Simulator simulator, Config config) {
         instance = this;
         this.simulator = simulator;
+        this.simulatorActions = new SimulatorGuiActions(this, simulator);
         this.config = config;
         initialize();
     }
@@ -132,7 +135,7 @@ public class Window {
             promptWarningDialog("Error Reading File",
                     String.format("There was an error reading from '%s'\nOperation cancelled", inputFile.getName()));
         }
-        TerminalInstructions.streams().setInputStream(inputStream);
+        simulator.getStreams().setInputStream(inputStream);
     }
 
     /**
@@ -148,7 +151,7 @@ public class Window {
             promptWarningDialog("Error Writing File",
                     String.format("There was an error writing to '%s'\nOperation cancelled", outputFile.getName()));
         }
-        TerminalInstructions.streams().setOutputStream(outputStream);
+        simulator.getStreams().setOutputStream(outputStream);
     }
 
     /**
@@ -158,7 +161,7 @@ public class Window {
      */
     public void setInputStream(InputStream inputStream) {
         this.inputStream = inputStream;
-        TerminalInstructions.streams().setInputStream(inputStream);
+        simulator.getStreams().setInputStream(inputStream);
     }
 
     /**
@@ -168,7 +171,7 @@ public class Window {
      */
     public void setOutputStream(OutputStream outputStream) {
         this.outputStream = outputStream;
-        TerminalInstructions.streams().setOutputStream(outputStream);
+        simulator.getStreams().setOutputStream(outputStream);
     }
 
     /**
@@ -282,7 +285,7 @@ public class Window {
         ToolbarFactory.applyTheme(font, editorTheme, toolbar);
         editor.applyTheme(font, editorTheme);
         editor.resizeTabSize(config.getTabSize());
-        SimulatorGuiActions.setInstructionDelayMS(config.getSimSpeed());
+        simulatorActions.setInstructionDelayMS(config.getSimSpeed());
     }
 
     /**
@@ -344,6 +347,15 @@ public class Window {
         return registerTable;
     }
 
+    /**
+     * Gets the actions which run the simulator from the toolbar.
+     *
+     * @return the simulator actions of this window.
+     */
+    public SimulatorGuiActions getSimulatorActions() {
+        return simulatorActions;
+    }
+
     /**
      * Returns the current simulator in use.
      *
@@ -363,10 +375,12 @@ public class Window {
         updateGraphicInformation();
         simulator.addLines(Lexer.parseLines(editor.getText()), new File(editor.getOpenFilePath()));
         instance.editor.resetHighlighter();
+        instance.editor.clearHeatmap();
     }
 
     /**
-     * Handles the program completion and displays a message to the user about the status of the program.
+     * Handles the program completion and displays a message to the user about the status of the program. If the
+     * simulator is profiling, the runs of each line are shown as a heatmap in the editor gutter.
      */
     public void handleProgramCompletion() {
         if (simulator.isError()) {
@@ -378,6 +392,9 @@ public class Window {
             SystemStreams.printlnCurrentOut("** Program terminated forcefully **");
         }
         editor.resetHighlighter();
+        if (simulator.getProfiler() instanceof LineProfiler profiler) {
+            editor.updateHeatmap(profiler);
+        }
     }
 
     /**
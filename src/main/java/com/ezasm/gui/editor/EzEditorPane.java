@@ -1,17 +1,22 @@
 package com.ezasm.gui.editor;
 
 import javax.swing.*;
+import javax.swing.text.BadLocationException;
 import javax.swing.text.Highlighter;
 
 import com.ezasm.gui.Window;
 import com.ezasm.gui.util.EditorTheme;
 import com.ezasm.gui.util.IThemeable;
 import com.ezasm.gui.util.PatchedRSyntaxTextArea;
+import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.profile.LineProfiler;
 import org.fife.ui.rsyntaxtextarea.*;
+import org.fife.ui.rtextarea.Gutter;
 import org.fife.ui.rtextarea.RTextScrollPane;
 
 import java.awt.*;
 import java.io.IOException;
+import java.util.List;
 import java.util.Objects;
 
 import static com.ezasm.gui.util.EditorTheme.applyFontThemeBorderless;
@@ -226,6 +231,97 @@ public class EzEditorPane extends JPanel implements IThemeable {
         highlighter = new LineHighlighter(Window.getInstance().getTheme().yellow(), textArea);
     }
 
+    /**
+     * Shows how many times each line of the open file was run as a heatmap in the gutter, shading each line which ran
+     * by its share of the runs of the most run line. Lines of imported files are not shown.
+     *
+     * @param profiler the profiler which counted the runs.
+     */
+    public void updateHeatmap(LineProfiler profiler) {
+        List<LineProfiler.HotSpot> hotSpots = profiler.getHotSpots();
+        long total = profiler.getTotal();
+        EditorTheme theme = Window.getInstance().getTheme();
+        SwingUtilities.invokeLater(() -> {
+            Gutter gutter = scrollPane.getGutter();
+            gutter.removeAllTrackingIcons();
+            scrollPane.setIconRowHeaderEnabled(true);
+            long max = 0;
+            for (LineProfiler.HotSpot hotSpot : hotSpots) {
+                if (hotSpot.fileId() == Simulator.MAIN_FILE_IDENTIFIER) {
+                    max = Math.max(max, hotSpot.count());
+                }
+            }
+            for (LineProfiler.HotSpot hotSpot : hotSpots) {
+                int line = hotSpot.line().getSourceLine();
+                if (hotSpot.fileId() != Simulator.MAIN_FILE_IDENTIFIER || line < 0 || line >= textArea.getLineCount()) {
+                    continue;
+                }
+                Color color = blend(theme.modifyAwayFromBackground(theme.background()), theme.red(),
+                        (float) hotSpot.count() / max);
+                try {
+                    gutter.addLineTrackingIcon(line, new HeatIcon(color, textArea.getLineHeight()), String.format(
+                            "%d runs (%.2f%% of all lines run)", hotSpot.count(), hotSpot.count() * 100.0 / total));
+                } catch (BadLocationException ignored) {
+                    // The line was removed since the program was parsed
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes the heatmap from the gutter.
+     */
+    public void clearHeatmap() {
+        SwingUtilities.invokeLater(() -> {
+            scrollPane.getGutter().removeAllTrackingIcons();
+            scrollPane.setIconRowHeaderEnabled(false);
+        });
+    }
+
+    /**
+     * Blends two colors together.
+     *
+     * @param from   the color at a weight of zero.
+     * @param to     the color at a weight of one.
+     * @param weight how far to blend from the first color towards the second.
+     * @return the blended color.
+     */
+    private static Color blend(Color from, Color to, float weight) {
+        return new Color(Math.round(from.getRed() + (to.getRed() - from.getRed()) * weight),
+                Math.round(from.getGreen() + (to.getGreen() - from.getGreen()) * weight),
+                Math.round(from.getBlue() + (to.getBlue() - from.getBlue()) * weight));
+    }
+
+    /**
+     * A square of a single color marking a line of the heatmap.
+     */
+    private static class HeatIcon implements Icon {
+
+        private final Color color;
+        private final int size;
+
+        HeatIcon(Color color, int size) {
+            this.color = color;
+            this.size = size;
+        }
+
+        @Override
+        public void paintIcon(Component c, Graphics g, int x, int y) {
+            g.setColor(color);
+            g.fillRect(x, y, size, size);
+        }
+
+        @Override
+        public int getIconWidth() {
+            return size;
+        }
+
+        @Override
+        public int getIconHeight() {
+            return size;
+        }
+    }
+
     /**
      * Recolor the current highlight in accordance with the provided theme
      *
@@ -1,8 +1,8 @@
 package com.ezasm.gui.menubar;
 
+import com.ezasm.gui.Window;
 import com.ezasm.gui.settings.AboutPopup;
 import com.ezasm.gui.settings.SettingsPopup;
-import com.ezasm.instructions.implementation.TerminalInstructions;
 import com.ezasm.util.SystemStreams;
 
 import javax.swing.*;
@@ -114,10 +114,10 @@ public class MenubarFactory {
             case INPUT_FILE -> selectInputFile();
             case OUTPUT_FILE -> selectOutputFile();
             case RESET_INPUT_REDIRECT -> {
-                TerminalInstructions.streams().setInputStream(System.in);
+                Window.getInstance().getSimulator().getStreams().setInputStream(System.in);
             }
             case RESET_OUTPUT_REDIRECT -> {
-                TerminalInstructions.streams().setOutputStream(System.out);
+                Window.getInstance().getSimulator().getStreams().setOutputStream(System.out);
             }
 
             // Unimplemented
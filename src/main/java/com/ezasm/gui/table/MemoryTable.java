@@ -22,6 +22,7 @@ public class MemoryTable extends JPanel implements IThemeable {
     public static final int ROWS = 32;
     public static final int COLUMNS = 16;
 
+    private final int wordSize;
     private int offset;
 
     /**
@@ -33,6 +34,7 @@ public class MemoryTable extends JPanel implements IThemeable {
         super();
         this.table = new AlternatingColorTable(EditorTheme.Light);
         this.scrollPane = new JScrollPane(table);
+        this.wordSize = memory.wordSize();
         this.offset = memory.initialHeapPointer();
         table.setModel(new MemoryTableModel(memory, ROWS, COLUMNS));
         table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
@@ -70,7 +72,7 @@ public class MemoryTable extends JPanel implements IThemeable {
         table.setIntercellSpacing(new Dimension(2, 2));
         table.setRowHeight(font.getSize() + 2);
 
-        int width = 20 + (Memory.wordSize() * 2 * font.getSize());
+        int width = 20 + (wordSize * 2 * font.getSize());
 
         DefaultTableCellRenderer rightRenderer = new DefaultTableCellRenderer();
         rightRenderer.setHorizontalAlignment(JLabel.RIGHT);
@@ -117,7 +119,7 @@ public class MemoryTable extends JPanel implements IThemeable {
     private void updateRowHeaders() {
         Object[] rows = new Object[ROWS];
         for (int i = 0; i < ROWS; ++i) {
-            rows[i] = (new RawData(offset + (long) i * Memory.wordSize() * COLUMNS)).toHexString();
+            rows[i] = (new RawData(offset + (long) i * wordSize * COLUMNS, wordSize)).toHexString();
         }
         rowHeader = new JList<>(new SimpleListModel(rows));
         rowHeader.setCellRenderer(new RowHeaderRenderer(table));
@@ -1,9 +1,9 @@
 package com.ezasm.gui.toolbar;
 
 import com.ezasm.gui.Window;
-import com.ezasm.instructions.implementation.TerminalInstructions;
 import com.ezasm.gui.menubar.MenubarFactory;
 import com.ezasm.parsing.ParseException;
+import com.ezasm.simulation.Simulator;
 import com.ezasm.simulation.exception.SimulationException;
 import com.ezasm.util.SystemStreams;
 
@@ -12,7 +12,8 @@ import java.util.concurrent.locks.LockSupport;
 import static com.ezasm.gui.toolbar.ToolbarFactory.*;
 
 /**
- * Possible actions through the GUI which need to be handled.
+ * Possible actions through the GUI which need to be handled. Each window owns its own actions, which run its simulator
+ * on a worker thread.
  */
 public class SimulatorGuiActions {
 
@@ -31,20 +32,34 @@ public class SimulatorGuiActions {
      */
     private static final long LOOP_BUSY_WAIT_MS = 50L;
 
-    private static Thread worker;
-    private static State state = State.IDLE;
+    private final Window window;
+    private final Simulator simulator;
+
+    private Thread worker;
+    private volatile State state = State.IDLE;
 
     /**
      * The delay between instructions.
      */
-    private static long instructionDelayMS = 500L;
+    private volatile long instructionDelayMS = 500L;
+
+    /**
+     * Constructs the actions of a window on its simulator.
+     *
+     * @param window    the window whose editor and views are updated by the actions.
+     * @param simulator the simulator to run.
+     */
+    public SimulatorGuiActions(Window window, Simulator simulator) {
+        this.window = window;
+        this.simulator = simulator;
+    }
 
     /**
      * Updates the delay between instructions to the given value in milliseconds.
      *
      * @param newDelayMS the new delay in between instructions in milliseconds.
      */
-    public static void setInstructionDelayMS(long newDelayMS) {
+    public void setInstructionDelayMS(long newDelayMS) {
         instructionDelayMS = newDelayMS;
     }
 
@@ -53,12 +68,12 @@ public class SimulatorGuiActions {
      *
      * @param newState the state to become.
      */
-    private static void setState(State newState) {
+    private void setState(State newState) {
         state = newState;
 
         boolean isDone = state == State.IDLE || state == State.STOPPED;
 
-        Window.getInstance().getEditor().setEditable(isDone);
+        window.getEditor().setEditable(isDone);
         MenubarFactory.setRedirectionEnable(isDone);
         startButton.setEnabled(isDone);
         stopButton.setEnabled(state == State.RUNNING);
@@ -69,37 +84,37 @@ public class SimulatorGuiActions {
         resetButton.setEnabled(state != State.IDLE);
     }
 
-    private static void handleProgramCompletion() {
-        Window.getInstance().handleProgramCompletion();
+    private void handleProgramCompletion() {
+        window.handleProgramCompletion();
     }
 
     /**
      * Handles if the user requests that the program runs one individual line of code from the current state.
      */
-    static void step() {
-        if (Window.getInstance().getSimulator().isDone() && state == State.PAUSED) {
+    void step() {
+        if (simulator.isDone() && state == State.PAUSED) {
             setState(State.STOPPED);
             return;
         }
         if (state == State.IDLE || state == State.STOPPED) {
             try {
-                Window.getInstance().parseText();
+                window.parseText();
                 setState(State.PAUSED);
-                Window.getInstance().getConsole().reset();
+                window.getConsole().reset();
                 SystemStreams.printlnCurrentOut("** Program starting **");
                 startWorker();
             } catch (ParseException e) {
                 setState(State.IDLE);
-                Window.getInstance().handleParseException(e);
+                window.handleParseException(e);
             }
         } else {
             try {
-                Window.getInstance().getEditor().updateHighlight();
-                Window.getInstance().getSimulator().executeLineFromPC();
-                Window.getInstance().updateGraphicInformation();
+                window.getEditor().updateHighlight();
+                simulator.executeLineFromPC();
+                window.updateGraphicInformation();
             } catch (SimulationException e) {
                 setState(State.STOPPED);
-                Window.getInstance().handleParseException(e);
+                window.handleParseException(e);
             }
         }
     }
@@ -107,25 +122,25 @@ public class SimulatorGuiActions {
     /**
      * Handles if the user requests that the program runs one individual line of code from the current state.
      */
-    static void stepBack() {
+    void stepBack() {
         try {
             if (state == State.STOPPED) {
                 setState(State.PAUSED);
                 startWorker();
                 SystemStreams.printlnCurrentOut("** Stepping back into stopped program **");
             }
-            if (Window.getInstance().getSimulator().undoLastTransformations()) {
+            if (simulator.undoLastTransformations()) {
                 // Some inverse transform was executed
                 setState(State.PAUSED);
-                Window.getInstance().getEditor().updateHighlight();
-                Window.getInstance().updateGraphicInformation();
+                window.getEditor().updateHighlight();
+                window.updateGraphicInformation();
             } else {
                 // No transform was executed; we are done
                 setState(State.IDLE);
             }
         } catch (SimulationException e) {
             setState(State.STOPPED);
-            Window.getInstance().handleParseException(e);
+            window.handleParseException(e);
         }
     }
 
@@ -133,24 +148,24 @@ public class SimulatorGuiActions {
      * Handles if the user requests that the program runs automatically until completion, an error occurs, or the user
      * interrupts the execution.
      */
-    static void start() {
+    void start() {
         try {
-            Window.getInstance().parseText();
+            window.parseText();
             setState(State.RUNNING);
-            Window.getInstance().getConsole().reset();
+            window.getConsole().reset();
             SystemStreams.printlnCurrentOut("** Program starting **");
             startWorker();
         } catch (ParseException e) {
             setState(State.IDLE);
-            Window.getInstance().handleParseException(e);
+            window.handleParseException(e);
         }
     }
 
     /**
      * Handles if the user requests that the running program be forcibly stopped.
      */
-    static void stop() {
-        Window.getInstance().getEditor().resetHighlighter();
+    void stop() {
+        window.getEditor().resetHighlighter();
         setState(State.STOPPED);
         killWorker();
         awaitWorkerTermination();
@@ -159,43 +174,44 @@ public class SimulatorGuiActions {
     /**
      * Handles if the user requests that the running program be temporarily stopped.
      */
-    static void pause() {
+    void pause() {
         setState(State.PAUSED);
     }
 
     /**
      * Handles if the user requests that the paused program be resumed.
      */
-    static void resume() {
+    void resume() {
         setState(State.RUNNING);
     }
 
     /**
      * Handles if the user requests that the state of the emulator be reset.
      */
-    static void reset() {
+    void reset() {
         killWorker();
         awaitWorkerTermination();
         setState(State.IDLE);
-        Window.getInstance().getSimulator().resetAll();
-        Window.getInstance().updateGraphicInformation();
-        Window.getInstance().getEditor().resetHighlighter();
-        Window.getInstance().getRegisterTable().removeHighlightValue();
+        simulator.resetAll();
+        window.updateGraphicInformation();
+        window.getEditor().resetHighlighter();
+        window.getEditor().clearHeatmap();
+        window.getRegisterTable().removeHighlightValue();
     }
 
     /**
      * Handles the main simulation loop. Is meant to run on an asynchronous thread as to not impede GUI execution.
      * Handles changing between states and buffering delays between instructions.
      */
-    private static void simulationLoop() {
-        while (!Window.getInstance().getSimulator().isDone() && (state == State.RUNNING || state == State.PAUSED)
+    private void simulationLoop() {
+        while (!simulator.isDone() && (state == State.RUNNING || state == State.PAUSED)
                 && !Thread.currentThread().isInterrupted()) {
             try {
-                Window.getInstance().getEditor().updateHighlight();
-                Window.getInstance().getSimulator().executeLineFromPC();
-                Window.getInstance().updateGraphicInformation();
+                window.getEditor().updateHighlight();
+                simulator.executeLineFromPC();
+                window.updateGraphicInformation();
             } catch (SimulationException e) {
-                Window.getInstance().handleParseException(e);
+                window.handleParseException(e);
                 break;
             }
             try {
@@ -214,24 +230,24 @@ public class SimulatorGuiActions {
     /**
      * Starts a new worker thread on the current state of the program.
      */
-    private static void startWorker() {
+    private void startWorker() {
         killWorker();
         awaitWorkerTermination();
-        Window.getInstance().getEditor().resetHighlighter();
+        window.getEditor().resetHighlighter();
         try {
-            TerminalInstructions.streams().resetInputStream();
+            simulator.getStreams().resetInputStream();
         } catch (SimulationException e) {
             // TODO handle the case where the file is no longer accessible causing an error
             throw new RuntimeException("There was an error reading from the given input file");
         }
-        worker = new Thread(SimulatorGuiActions::simulationLoop);
+        worker = new Thread(this::simulationLoop);
         worker.start();
     }
 
     /**
      * Terminates the currently executing worker.
      */
-    private static void killWorker() {
+    private void killWorker() {
         if (worker != null) {
             worker.interrupt();
         }
@@ -240,7 +256,7 @@ public class SimulatorGuiActions {
     /**
      * Waits for the currently executing worker to terminate.
      */
-    private static void awaitWorkerTermination() {
+    private void awaitWorkerTermination() {
         if (worker != null) {
             try {
                 worker.join(LOOP_BUSY_WAIT_MS);
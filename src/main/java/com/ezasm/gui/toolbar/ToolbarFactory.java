@@ -1,10 +1,9 @@
 package com.ezasm.gui.toolbar;
 
+import com.ezasm.gui.Window;
 import com.ezasm.gui.util.EditorTheme;
 import com.ezasm.util.SystemStreams;
 
-import static com.ezasm.gui.toolbar.SimulatorGuiActions.*;
-
 import javax.swing.*;
 import javax.swing.border.Border;
 
@@ -110,14 +109,15 @@ public class ToolbarFactory {
     private static class ToolbarActionListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
+            SimulatorGuiActions actions = Window.getInstance().getSimulatorActions();
             switch (e.getActionCommand()) {
-            case STEP -> step();
-            case STEP_BACK -> stepBack();
-            case START -> start();
-            case STOP -> stop();
-            case PAUSE -> pause();
-            case RESUME -> resume();
-            case RESET -> reset();
+            case STEP -> actions.step();
+            case STEP_BACK -> actions.stepBack();
+            case START -> actions.start();
+            case STOP -> actions.stop();
+            case PAUSE -> actions.pause();
+            case RESUME -> actions.resume();
+            case RESET -> actions.reset();
             default -> SystemStreams.err.printf("Button '%s' not yet implemented\n", e.getActionCommand());
             }
         }
@@ -1,10 +1,14 @@
 package com.ezasm.instructions;
 
+import com.ezasm.instructions.exception.InstructionLoadException;
+import com.ezasm.instructions.targets.IAbstractTarget;
 import com.ezasm.parsing.Line;
 import com.ezasm.simulation.exception.SimulationException;
-import com.ezasm.simulation.transform.TransformationSequence;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
 import java.lang.reflect.Method;
 
 /**
@@ -13,17 +17,46 @@ import java.lang.reflect.Method;
  *
  * @param invocationTarget The method that corresponds to the instruction.
  * @param parent           The parent class of the method that corresponds to the instruction.
+ * @param parentIndex      The index of the parent class among all registered instruction handlers.
+ * @param invoker          A method handle which invokes the method given an instance of the parent class and the array
+ *                         of arguments.
  */
-public record DispatchInstruction(Class<?> parent, Method invocationTarget) {
+public record DispatchInstruction(Class<?> parent, Method invocationTarget, int parentIndex, MethodHandle invoker) {
 
     /**
-     * Create a new dispatchable instruction based on a method with specific parameters and its parent class.
+     * The type of every invoker: takes the handler instance and the line arguments.
+     */
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class,
+            IAbstractTarget[].class);
+
+    /**
+     * Create a new dispatchable instruction based on a method with specific parameters and its parent class. The method
+     * is resolved to a direct method handle once so that no reflection is necessary upon invocation.
      *
      * @param parent           the parent class.
      * @param invocationTarget the method for which to deduce operands for instructions and compile into a dispatchable
      *                         instruction.
+     * @param parentIndex      the index of the parent class among all registered instruction handlers.
+     */
+    public DispatchInstruction(Class<?> parent, Method invocationTarget, int parentIndex) {
+        this(parent, invocationTarget, parentIndex, createInvoker(invocationTarget));
+    }
+
+    /**
+     * Creates an invoker of the type {@link #INVOKER_TYPE} for the given method. The line arguments are spread into the
+     * parameters of the method.
+     *
+     * @param method the method to create an invoker for.
+     * @return the invoker.
      */
-    public DispatchInstruction {
+    private static MethodHandle createInvoker(Method method) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method)
+                    .asSpreader(IAbstractTarget[].class, method.getParameterCount()).asType(INVOKER_TYPE);
+        } catch (IllegalAccessException | WrongMethodTypeException e) {
+            throw new InstructionLoadException("Error loading instruction '" + method.getName()
+                    + "'. Instruction methods must be public and take only instruction targets");
+        }
     }
 
     /**
@@ -71,14 +104,13 @@ public record DispatchInstruction(Class<?> parent, Method invocationTarget) {
      * @param parent the parent instruction handler. An instance of {@link DispatchInstruction#parent ()}.
      * @param line   the parsed line to interpret.
      */
-    public TransformationSequence invoke(Object parent, Line line) throws SimulationException {
+    public void invoke(Object parent, Line line) throws SimulationException {
         try {
-            return (TransformationSequence) this.invocationTarget.invoke(parent, line.getArguments());
-        } catch (InvocationTargetException e) {
-            throw new SimulationException(e.getTargetException().getMessage());
-        } catch (IllegalAccessException | IllegalArgumentException e) {
-            // TODO handle
-            throw new RuntimeException();
+            invoker.invokeExact(parent, line.getArguments());
+        } catch (SimulationException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new SimulationException(e.getMessage());
         }
     }
 
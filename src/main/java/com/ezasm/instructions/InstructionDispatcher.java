@@ -6,7 +6,6 @@ import com.ezasm.instructions.exception.InstructionLoadException;
 import com.ezasm.instructions.exception.IllegalInstructionException;
 import com.ezasm.instructions.exception.InstructionDispatchException;
 import com.ezasm.parsing.Line;
-import com.ezasm.simulation.transform.TransformationSequence;
 import com.ezasm.simulation.exception.SimulationException;
 
 import java.lang.reflect.Constructor;
@@ -20,30 +19,52 @@ import java.util.*;
 public class InstructionDispatcher {
 
     /**
-     * The internal backing map for Strings and loaded instructions.
+     * The internal backing map for Strings and loaded instructions. Built once when the class is loaded and never
+     * modified afterwards, so it is shared safely by the dispatchers of simulators running on different threads.
      */
-    private static final HashMap<String, ArrayList<DispatchInstruction>> instructions = new HashMap<>();
+    private static final Map<String, List<DispatchInstruction>> instructions;
+
+    /**
+     * The constructors of the classes which instructions have been registered from. The index of a class in this list
+     * is the index of its handler instance within every InstructionDispatcher. They are looked up once so that
+     * constructing a dispatcher for each simulator only has to call them.
+     */
+    private static final List<Constructor<?>> instructionHandlerConstructors;
 
     static {
-        registerInstructions(ArithmeticInstructions.class);
-        registerInstructions(FloatArithmeticInstructions.class);
-        registerInstructions(TerminalInstructions.class);
-        registerInstructions(BranchInstructions.class);
-        registerInstructions(ComparisonInstructions.class);
-        registerInstructions(FunctionInstructions.class);
-        registerInstructions(MemoryInstructions.class);
-        registerInstructions(ImportInstructions.class);
+        Map<String, List<DispatchInstruction>> registry = new HashMap<>();
+        List<Class<?>> handlers = new ArrayList<>();
+        for (Class<?> clazz : List.of(ArithmeticInstructions.class, FloatArithmeticInstructions.class,
+                TerminalInstructions.class, BranchInstructions.class, ComparisonInstructions.class,
+                FunctionInstructions.class, MemoryInstructions.class, ImportInstructions.class)) {
+            registerInstructions(clazz, registry, handlers);
+        }
+        registry.replaceAll((name, overloads) -> List.copyOf(overloads));
+        instructions = Map.copyOf(registry);
+        List<Constructor<?>> constructors = new ArrayList<>();
+        for (Class<?> handler : handlers) {
+            try {
+                constructors.add(handler.getDeclaredConstructor(Simulator.class));
+            } catch (NoSuchMethodException e) {
+                throw new InstructionLoadException("Error loading instructions of '" + handler.getSimpleName()
+                        + "'. Instruction classes must have a constructor taking a Simulator");
+            }
+        }
+        instructionHandlerConstructors = List.copyOf(constructors);
     }
 
     /**
      * Registers instructions from a class. Instructions are registered by scanning the class's declared methods for
      * those annotated with {@link Instruction}. It enumerates the methods and registers them according to their names.
      *
-     * @param clazz The class to register instructions from.
+     * @param clazz    The class to register instructions from.
+     * @param registry The map of instruction names to overloads being built.
+     * @param handlers The list of instruction handler classes being built.
      */
-    public static void registerInstructions(Class<?> clazz) {
+    private static void registerInstructions(Class<?> clazz, Map<String, List<DispatchInstruction>> registry,
+            List<Class<?>> handlers) {
         Arrays.stream(clazz.getDeclaredMethods()).filter((c) -> c.isAnnotationPresent(Instruction.class))
-                .forEach(method -> registerInstruction(clazz, method));
+                .forEach(method -> registerInstruction(clazz, method, registry, handlers));
     }
 
     /**
@@ -51,10 +72,13 @@ public class InstructionDispatcher {
      * an instruction begins with an '_' then the leading '_' is stripped. This allows for Java keywords to be
      * registered as instructions.
      *
-     * @param parent The parent class of the method.
-     * @param method The method to register as an instruction.
+     * @param parent   The parent class of the method.
+     * @param method   The method to register as an instruction.
+     * @param registry The map of instruction names to overloads being built.
+     * @param handlers The list of instruction handler classes being built.
      */
-    private static void registerInstruction(Class<?> parent, Method method) {
+    private static void registerInstruction(Class<?> parent, Method method,
+            Map<String, List<DispatchInstruction>> registry, List<Class<?>> handlers) {
         String name = method.getName().toLowerCase();
         if (name.startsWith("_")) {
             name = name.substring(1);
@@ -62,24 +86,30 @@ public class InstructionDispatcher {
 
         validateInstruction(method);
 
-        instructions.putIfAbsent(name, new ArrayList<>());
-        instructions.get(name).add(new DispatchInstruction(parent, method));
+        int parentIndex = handlers.indexOf(parent);
+        if (parentIndex < 0) {
+            parentIndex = handlers.size();
+            handlers.add(parent);
+        }
+
+        registry.computeIfAbsent(name, k -> new ArrayList<>())
+                .add(new DispatchInstruction(parent, method, parentIndex));
     }
 
     private static void validateInstruction(Method method) {
-        if (!TransformationSequence.class.isAssignableFrom(method.getReturnType())) {
-            throw new InstructionLoadException("Error loading instruction '" + method.getName()
-                    + "'. Instruction methods must return TransformationSequence");
+        if (method.getReturnType() != void.class) {
+            throw new InstructionLoadException(
+                    "Error loading instruction '" + method.getName() + "'. Instruction methods must return void");
         }
     }
 
     /**
-     * Retrieves the map of registered instructions as immutable.
+     * Retrieves the immutable map of registered instructions.
      *
      * @return the map of registered Instructions.
      */
-    public static Map<String, ArrayList<DispatchInstruction>> getInstructions() {
-        return Collections.unmodifiableMap(instructions);
+    public static Map<String, List<DispatchInstruction>> getInstructions() {
+        return instructions;
     }
 
     /**
@@ -90,7 +120,7 @@ public class InstructionDispatcher {
      * @return the corresponding instruction if it exists, null otherwise.
      */
     public static DispatchInstruction getInstruction(String name, Class<?>[] args) {
-        ArrayList<DispatchInstruction> overloads = instructions.get(name);
+        List<DispatchInstruction> overloads = instructions.get(name);
 
         if (overloads == null)
             return null;
@@ -104,11 +134,11 @@ public class InstructionDispatcher {
     }
 
     /**
-     * Stores instances of the classes that implement the instructions. For every instantiated InstructionDispatcher,
-     * there's a set of instances that manage the instructions. This allows us to bind the Simulator to the
-     * instructions.
+     * Stores instances of the classes that implement the instructions indexed by
+     * {@link DispatchInstruction#parentIndex()}. For every instantiated InstructionDispatcher, there's a set of
+     * instances that manage the instructions. This allows us to bind the Simulator to the instructions.
      */
-    private final HashMap<Class<?>, Object> instructionHandlerInstances = new HashMap<>();
+    private final Object[] instructionHandlerInstances;
 
     /**
      * The bound simulator for this dispatcher.
@@ -122,55 +152,42 @@ public class InstructionDispatcher {
      */
     public InstructionDispatcher(Simulator simulator) {
         this.simulator = simulator;
+        this.instructionHandlerInstances = new Object[instructionHandlerConstructors.size()];
         loadInstructionHandlers();
     }
 
     /**
-     * For all registered instructions, load an instance for each handler and bind it to a simulator.
+     * For all registered instruction classes, load an instance of the handler and bind it to a simulator.
      */
     private void loadInstructionHandlers() {
-        InstructionDispatcher.instructions.values()
-                .forEach(overloads -> overloads.stream()
-                        .filter(instruction -> instructionHandlerInstances.get(instruction.parent()) == null)
-                        .forEach(this::loadInstructionHandler));
-    }
-
-    /**
-     * Load an instance of an instruction handler for an instruction (or skip if already cached).
-     *
-     * @param instruction the registered instruction to load an instance for.
-     */
-    private void loadInstructionHandler(DispatchInstruction instruction) {
         try {
-            Constructor<?> constructor = instruction.parent().getDeclaredConstructor(Simulator.class);
-            Object inst = constructor.newInstance(this.simulator);
-            this.instructionHandlerInstances.put(instruction.parent(), inst);
-        } catch (NoSuchMethodException | InvocationTargetException | InstantiationException
-                | IllegalAccessException e) {
+            for (int i = 0; i < instructionHandlerInstances.length; ++i) {
+                instructionHandlerInstances[i] = instructionHandlerConstructors.get(i).newInstance(this.simulator);
+            }
+        } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
             throw new RuntimeException(e);
         }
-
     }
 
     /**
-     * Execute an instruction based on a parsed line.
+     * Execute an instruction based on a parsed line. The instruction overload was already resolved when the line was
+     * parsed, so this invokes it directly on the handler instance bound to this dispatcher.
      *
      * @param line the parsed line.
      * @throws InstructionDispatchException when a parsed line cannot be interpreted as a function. This could be an
      *                                      {@link IllegalInstructionException} if the instruction is unrecognized.
      */
     public void execute(Line line) throws SimulationException {
-        DispatchInstruction dispatch = getInstruction(line.getInstruction().text(), line.getArgumentTypes());
+        DispatchInstruction dispatch = line.getInstruction().target();
         if (dispatch == null)
             throw new IllegalInstructionException(line.getInstruction().text());
 
-        Object object = this.instructionHandlerInstances.get(dispatch.parent());
+        Object object = this.instructionHandlerInstances[dispatch.parentIndex()];
 
         // TODO assume loaded for now
         assert object != null;
 
-        TransformationSequence result = dispatch.invoke(object, line);
-        simulator.applyTransformations(result);
+        dispatch.invoke(object, line);
     }
 
 }
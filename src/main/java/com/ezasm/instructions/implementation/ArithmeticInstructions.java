@@ -1,17 +1,14 @@
 package com.ezasm.instructions.implementation;
 
-import com.ezasm.simulation.transform.TransformationSequence;
-import com.ezasm.simulation.transform.transformable.InputOutputTransformable;
 import com.ezasm.instructions.targets.input.IAbstractInput;
 import com.ezasm.instructions.targets.inputoutput.IAbstractInputOutput;
 import com.ezasm.simulation.Simulator;
 import com.ezasm.instructions.Instruction;
 import com.ezasm.instructions.exception.IllegalArgumentException;
 import com.ezasm.simulation.exception.SimulationException;
-import com.ezasm.util.RawData;
 
-import java.util.function.BinaryOperator;
-import java.util.function.UnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
 
 /**
  * An implementation of standard arithmetic instructions for the simulation.
@@ -37,12 +34,11 @@ public class ArithmeticInstructions {
      * @param input1 the left-hand side of the operation.
      * @param input2 the right-hand side of the operation.
      */
-    private TransformationSequence arithmetic(BinaryOperator<Long> op, IAbstractInputOutput output,
-            IAbstractInput input1, IAbstractInput input2) throws SimulationException {
+    private void arithmetic(LongBinaryOperator op, IAbstractInputOutput output, IAbstractInput input1,
+            IAbstractInput input2) throws SimulationException {
 
-        long res = op.apply(input1.get(simulator).intValue(), input2.get(simulator).intValue());
-        InputOutputTransformable io = new InputOutputTransformable(simulator, output);
-        return new TransformationSequence(io.transformation(new RawData(res)));
+        long res = op.applyAsLong(input1.getLong(simulator), input2.getLong(simulator));
+        output.setLong(simulator, res);
     }
 
     /**
@@ -52,12 +48,11 @@ public class ArithmeticInstructions {
      * @param output the output of the operation.
      * @param input  the input of the operation.
      */
-    private TransformationSequence unaryOperation(UnaryOperator<Long> op, IAbstractInputOutput output,
-            IAbstractInput input) throws SimulationException {
+    private void unaryOperation(LongUnaryOperator op, IAbstractInputOutput output, IAbstractInput input)
+            throws SimulationException {
 
-        long res = op.apply(input.get(simulator).intValue());
-        InputOutputTransformable io = new InputOutputTransformable(simulator, output);
-        return new TransformationSequence(io.transformation(new RawData(res)));
+        long res = op.applyAsLong(input.getLong(simulator));
+        output.setLong(simulator, res);
     }
 
     /**
@@ -69,9 +64,9 @@ public class ArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence add(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void add(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return arithmetic(Long::sum, output, input1, input2);
+        arithmetic(Long::sum, output, input1, input2);
     }
 
     /**
@@ -83,9 +78,9 @@ public class ArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence sub(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void sub(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return arithmetic((a, b) -> a - b, output, input1, input2);
+        arithmetic((a, b) -> a - b, output, input1, input2);
     }
 
     /**
@@ -97,9 +92,9 @@ public class ArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence mul(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void mul(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return arithmetic((a, b) -> a * b, output, input1, input2);
+        arithmetic((a, b) -> a * b, output, input1, input2);
     }
 
     /**
@@ -111,12 +106,12 @@ public class ArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence div(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void div(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        if (input2.get(simulator).intValue() == 0) {
+        if (input2.getLong(simulator) == 0) {
             throw new IllegalArgumentException(-1);
         }
-        return arithmetic((a, b) -> a / b, output, input1, input2);
+        arithmetic((a, b) -> a / b, output, input1, input2);
     }
 
     /**
@@ -128,9 +123,9 @@ public class ArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence and(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void and(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return arithmetic((a, b) -> a & b, output, input1, input2);
+        arithmetic((a, b) -> a & b, output, input1, input2);
     }
 
     /**
@@ -142,9 +137,9 @@ public class ArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence or(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void or(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return arithmetic((a, b) -> a | b, output, input1, input2);
+        arithmetic((a, b) -> a | b, output, input1, input2);
     }
 
     /**
@@ -156,9 +151,9 @@ public class ArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence xor(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void xor(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return arithmetic((a, b) -> a ^ b, output, input1, input2);
+        arithmetic((a, b) -> a ^ b, output, input1, input2);
     }
 
     /**
@@ -170,9 +165,9 @@ public class ArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence mod(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void mod(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return arithmetic((a, b) -> a % b, output, input1, input2);
+        arithmetic((a, b) -> a % b, output, input1, input2);
     }
 
     /**
@@ -183,8 +178,8 @@ public class ArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence not(IAbstractInputOutput output, IAbstractInput input) throws SimulationException {
-        return unaryOperation((a) -> ~a, output, input);
+    public void not(IAbstractInputOutput output, IAbstractInput input) throws SimulationException {
+        unaryOperation((a) -> ~a, output, input);
     }
 
     /**
@@ -196,9 +191,9 @@ public class ArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence sll(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void sll(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return arithmetic((a, b) -> a << b, output, input1, input2);
+        arithmetic((a, b) -> a << b, output, input1, input2);
     }
 
     /**
@@ -210,9 +205,9 @@ public class ArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence srl(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void srl(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return arithmetic((a, b) -> a >> b, output, input1, input2);
+        arithmetic((a, b) -> a >> b, output, input1, input2);
     }
 
     /**
@@ -223,8 +218,8 @@ public class ArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence dec(IAbstractInputOutput output, IAbstractInput input) throws SimulationException {
-        return unaryOperation((a) -> a - 1, output, input);
+    public void dec(IAbstractInputOutput output, IAbstractInput input) throws SimulationException {
+        unaryOperation((a) -> a - 1, output, input);
     }
 
     /**
@@ -235,7 +230,7 @@ public class ArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence inc(IAbstractInputOutput output, IAbstractInput input) throws SimulationException {
-        return unaryOperation((a) -> a + 1, output, input);
+    public void inc(IAbstractInputOutput output, IAbstractInput input) throws SimulationException {
+        unaryOperation((a) -> a + 1, output, input);
     }
 }
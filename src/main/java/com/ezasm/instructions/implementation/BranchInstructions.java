@@ -1,21 +1,20 @@
 package com.ezasm.instructions.implementation;
 
 import com.ezasm.instructions.targets.inputoutput.RegisterInputOutput;
-import com.ezasm.simulation.transform.TransformationSequence;
-import com.ezasm.simulation.transform.transformable.InputOutputTransformable;
 import com.ezasm.instructions.Instruction;
 import com.ezasm.instructions.targets.input.IAbstractInput;
 import com.ezasm.simulation.Simulator;
 import com.ezasm.simulation.Registers;
 import com.ezasm.simulation.exception.SimulationException;
-
-import java.util.function.BiFunction;
+import com.ezasm.util.LongBiPredicate;
 
 /**
  * An implementation of standard comparison instructions for the simulation.
  */
 public class BranchInstructions {
 
+    private static final RegisterInputOutput PC = new RegisterInputOutput(Registers.PC);
+
     private final Simulator simulator;
 
     /**
@@ -35,16 +34,13 @@ public class BranchInstructions {
      * @param input1 the left-hand side of the operation.
      * @param input2 the right-hand side of the operation.
      */
-    private TransformationSequence branch(BiFunction<Long, Long, Boolean> op, IAbstractInput label,
-            IAbstractInput input1, IAbstractInput input2) throws SimulationException {
+    private void branch(LongBiPredicate op, IAbstractInput label, IAbstractInput input1, IAbstractInput input2)
+            throws SimulationException {
 
-        boolean res = op.apply(input1.get(simulator).intValue(), input2.get(simulator).intValue());
+        boolean res = op.test(input1.getLong(simulator), input2.getLong(simulator));
         if (res) {
-            InputOutputTransformable io = new InputOutputTransformable(simulator,
-                    new RegisterInputOutput(Registers.PC));
-            return new TransformationSequence(io.transformation(label.get(simulator)));
+            PC.setLong(simulator, label.getLong(simulator));
         }
-        return new TransformationSequence();
     }
 
     /**
@@ -56,9 +52,8 @@ public class BranchInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence beq(IAbstractInput input1, IAbstractInput input2, IAbstractInput label)
-            throws SimulationException {
-        return branch(Long::equals, label, input1, input2);
+    public void beq(IAbstractInput input1, IAbstractInput input2, IAbstractInput label) throws SimulationException {
+        branch((l, r) -> l == r, label, input1, input2);
     }
 
     /**
@@ -70,9 +65,8 @@ public class BranchInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence bne(IAbstractInput input1, IAbstractInput input2, IAbstractInput label)
-            throws SimulationException {
-        return branch((l, r) -> l.longValue() != r.longValue(), label, input1, input2);
+    public void bne(IAbstractInput input1, IAbstractInput input2, IAbstractInput label) throws SimulationException {
+        branch((l, r) -> l != r, label, input1, input2);
     }
 
     /**
@@ -84,9 +78,8 @@ public class BranchInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence blt(IAbstractInput input1, IAbstractInput input2, IAbstractInput label)
-            throws SimulationException {
-        return branch((l, r) -> l < r, label, input1, input2);
+    public void blt(IAbstractInput input1, IAbstractInput input2, IAbstractInput label) throws SimulationException {
+        branch((l, r) -> l < r, label, input1, input2);
     }
 
     /**
@@ -98,9 +91,8 @@ public class BranchInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence ble(IAbstractInput input1, IAbstractInput input2, IAbstractInput label)
-            throws SimulationException {
-        return branch((l, r) -> l <= r, label, input1, input2);
+    public void ble(IAbstractInput input1, IAbstractInput input2, IAbstractInput label) throws SimulationException {
+        branch((l, r) -> l <= r, label, input1, input2);
     }
 
     /**
@@ -112,9 +104,8 @@ public class BranchInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence bgt(IAbstractInput input1, IAbstractInput input2, IAbstractInput label)
-            throws SimulationException {
-        return branch((l, r) -> l > r, label, input1, input2);
+    public void bgt(IAbstractInput input1, IAbstractInput input2, IAbstractInput label) throws SimulationException {
+        branch((l, r) -> l > r, label, input1, input2);
     }
 
     /**
@@ -126,8 +117,7 @@ public class BranchInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence bge(IAbstractInput input1, IAbstractInput input2, IAbstractInput label)
-            throws SimulationException {
-        return branch((l, r) -> l >= r, label, input1, input2);
+    public void bge(IAbstractInput input1, IAbstractInput input2, IAbstractInput label) throws SimulationException {
+        branch((l, r) -> l >= r, label, input1, input2);
     }
 }
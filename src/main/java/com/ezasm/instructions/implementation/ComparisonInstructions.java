@@ -1,15 +1,11 @@
 package com.ezasm.instructions.implementation;
 
 import com.ezasm.instructions.targets.inputoutput.IAbstractInputOutput;
-import com.ezasm.simulation.transform.TransformationSequence;
-import com.ezasm.simulation.transform.transformable.InputOutputTransformable;
 import com.ezasm.instructions.Instruction;
 import com.ezasm.instructions.targets.input.IAbstractInput;
 import com.ezasm.simulation.Simulator;
 import com.ezasm.simulation.exception.SimulationException;
-import com.ezasm.util.RawData;
-
-import java.util.function.BiFunction;
+import com.ezasm.util.LongBiPredicate;
 
 /**
  * An implementation of standard comparison instructions for the simulation.
@@ -35,12 +31,11 @@ public class ComparisonInstructions {
      * @param input1 the left-hand side of the operation.
      * @param input2 the right-hand side of the operation.
      */
-    private TransformationSequence compare(BiFunction<Long, Long, Boolean> op, IAbstractInputOutput output,
-            IAbstractInput input1, IAbstractInput input2) throws SimulationException {
+    private void compare(LongBiPredicate op, IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+            throws SimulationException {
 
-        boolean res = op.apply(input1.get(simulator).intValue(), input2.get(simulator).intValue());
-        InputOutputTransformable io = new InputOutputTransformable(simulator, output);
-        return new TransformationSequence(io.transformation(new RawData(res ? 1 : 0)));
+        boolean res = op.test(input1.getLong(simulator), input2.getLong(simulator));
+        output.setLong(simulator, res ? 1 : 0);
     }
 
     /**
@@ -52,9 +47,9 @@ public class ComparisonInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence seq(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void seq(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return compare(Long::equals, output, input1, input2);
+        compare((l, r) -> l == r, output, input1, input2);
     }
 
     /**
@@ -66,9 +61,9 @@ public class ComparisonInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence sne(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void sne(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return compare((l, r) -> l.longValue() != r.longValue(), output, input1, input2);
+        compare((l, r) -> l != r, output, input1, input2);
     }
 
     /**
@@ -80,9 +75,9 @@ public class ComparisonInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence slt(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void slt(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return compare((l, r) -> l < r, output, input1, input2);
+        compare((l, r) -> l < r, output, input1, input2);
     }
 
     /**
@@ -94,9 +89,9 @@ public class ComparisonInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence sle(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void sle(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return compare((l, r) -> l <= r, output, input1, input2);
+        compare((l, r) -> l <= r, output, input1, input2);
     }
 
     /**
@@ -108,9 +103,9 @@ public class ComparisonInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence sgt(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void sgt(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return compare((l, r) -> l > r, output, input1, input2);
+        compare((l, r) -> l > r, output, input1, input2);
     }
 
     /**
@@ -122,8 +117,8 @@ public class ComparisonInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence sge(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void sge(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return compare((l, r) -> l >= r, output, input1, input2);
+        compare((l, r) -> l >= r, output, input1, input2);
     }
 }
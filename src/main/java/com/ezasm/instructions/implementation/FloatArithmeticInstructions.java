@@ -1,17 +1,14 @@
 package com.ezasm.instructions.implementation;
 
-import com.ezasm.simulation.transform.TransformationSequence;
-import com.ezasm.simulation.transform.transformable.InputOutputTransformable;
 import com.ezasm.instructions.targets.input.IAbstractInput;
 import com.ezasm.instructions.targets.inputoutput.IAbstractInputOutput;
 import com.ezasm.simulation.Simulator;
 import com.ezasm.instructions.Instruction;
 import com.ezasm.instructions.exception.IllegalArgumentException;
 import com.ezasm.simulation.exception.SimulationException;
-import com.ezasm.util.RawData;
 
-import java.util.function.BinaryOperator;
-import java.util.function.UnaryOperator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 
 /**
  * An implementation of standard arithmetic instructions for the simulation.
@@ -37,12 +34,11 @@ public class FloatArithmeticInstructions {
      * @param input1 the left-hand side of the operation.
      * @param input2 the right-hand side of the operation.
      */
-    private TransformationSequence floatArithmetic(BinaryOperator<Double> op, IAbstractInputOutput output,
-            IAbstractInput input1, IAbstractInput input2) throws SimulationException {
+    private void floatArithmetic(DoubleBinaryOperator op, IAbstractInputOutput output, IAbstractInput input1,
+            IAbstractInput input2) throws SimulationException {
 
-        RawData res = new RawData(op.apply(input1.get(simulator).floatValue(), input2.get(simulator).floatValue()));
-        InputOutputTransformable io = new InputOutputTransformable(simulator, output);
-        return new TransformationSequence(io.transformation(res));
+        double res = op.applyAsDouble(input1.getDouble(simulator), input2.getDouble(simulator));
+        output.setDouble(simulator, res);
     }
 
     /**
@@ -52,11 +48,10 @@ public class FloatArithmeticInstructions {
      * @param output the output of the operation.
      * @param input  the input of the operation.
      */
-    private TransformationSequence unaryFloatOperation(UnaryOperator<Double> op, IAbstractInputOutput output,
-            IAbstractInput input) throws SimulationException {
-        RawData res = new RawData(op.apply(input.get(simulator).floatValue()));
-        InputOutputTransformable io = new InputOutputTransformable(simulator, output);
-        return new TransformationSequence(io.transformation(res));
+    private void unaryFloatOperation(DoubleUnaryOperator op, IAbstractInputOutput output, IAbstractInput input)
+            throws SimulationException {
+        double res = op.applyAsDouble(input.getDouble(simulator));
+        output.setDouble(simulator, res);
     }
 
     /**
@@ -68,9 +63,9 @@ public class FloatArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence addf(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void addf(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return floatArithmetic(Double::sum, output, input1, input2);
+        floatArithmetic(Double::sum, output, input1, input2);
     }
 
     /**
@@ -82,9 +77,9 @@ public class FloatArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence subf(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void subf(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return floatArithmetic((a, b) -> a - b, output, input1, input2);
+        floatArithmetic((a, b) -> a - b, output, input1, input2);
     }
 
     /**
@@ -96,9 +91,9 @@ public class FloatArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence mulf(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void mulf(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return floatArithmetic((a, b) -> a * b, output, input1, input2);
+        floatArithmetic((a, b) -> a * b, output, input1, input2);
     }
 
     /**
@@ -110,14 +105,14 @@ public class FloatArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence divf(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void divf(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        double f = input2.get(simulator).floatValue();
+        double f = input2.getDouble(simulator);
         // Ensure the number is not "NaN" "infinity" or extremely close to zero (probably zero with rounding error)
         if (Double.isNaN(f) || Double.isInfinite(f) || (f >= -1e-15 || f <= 1e-15)) {
             throw new IllegalArgumentException(-1);
         }
-        return floatArithmetic((a, b) -> a / b, output, input1, input2);
+        floatArithmetic((a, b) -> a / b, output, input1, input2);
     }
 
     /**
@@ -129,9 +124,9 @@ public class FloatArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence modf(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
+    public void modf(IAbstractInputOutput output, IAbstractInput input1, IAbstractInput input2)
             throws SimulationException {
-        return floatArithmetic((a, b) -> a % b, output, input1, input2);
+        floatArithmetic((a, b) -> a % b, output, input1, input2);
     }
 
     /**
@@ -142,8 +137,8 @@ public class FloatArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence decf(IAbstractInputOutput output, IAbstractInput input) throws SimulationException {
-        return unaryFloatOperation((a) -> a - 1, output, input);
+    public void decf(IAbstractInputOutput output, IAbstractInput input) throws SimulationException {
+        unaryFloatOperation((a) -> a - 1, output, input);
     }
 
     /**
@@ -154,8 +149,8 @@ public class FloatArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence incf(IAbstractInputOutput output, IAbstractInput input) throws SimulationException {
-        return unaryFloatOperation((a) -> a + 1, output, input);
+    public void incf(IAbstractInputOutput output, IAbstractInput input) throws SimulationException {
+        unaryFloatOperation((a) -> a + 1, output, input);
     }
 
     /**
@@ -166,10 +161,8 @@ public class FloatArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence itof(IAbstractInputOutput output, IAbstractInput input) throws SimulationException {
-        RawData data = new RawData((double) input.get(simulator).intValue());
-        InputOutputTransformable io = new InputOutputTransformable(simulator, output);
-        return new TransformationSequence(io.transformation(data));
+    public void itof(IAbstractInputOutput output, IAbstractInput input) throws SimulationException {
+        output.setDouble(simulator, (double) input.getLong(simulator));
     }
 
     /**
@@ -180,9 +173,7 @@ public class FloatArithmeticInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence ftoi(IAbstractInputOutput output, IAbstractInput input) throws SimulationException {
-        RawData data = new RawData((long) input.get(simulator).floatValue());
-        InputOutputTransformable io = new InputOutputTransformable(simulator, output);
-        return new TransformationSequence(io.transformation(data));
+    public void ftoi(IAbstractInputOutput output, IAbstractInput input) throws SimulationException {
+        output.setLong(simulator, (long) input.getDouble(simulator));
     }
 }
@@ -6,16 +6,17 @@ import com.ezasm.instructions.targets.input.LabelReferenceInput;
 import com.ezasm.instructions.targets.inputoutput.RegisterInputOutput;
 import com.ezasm.simulation.*;
 import com.ezasm.simulation.exception.SimulationException;
-import com.ezasm.simulation.transform.Transformation;
-import com.ezasm.simulation.transform.TransformationSequence;
-import com.ezasm.simulation.transform.transformable.InputOutputTransformable;
-import com.ezasm.util.RawData;
 
 /**
  * An implementation of standard function call instructions for the simulation.
  */
 public class FunctionInstructions {
 
+    private static final RegisterInputOutput PC = new RegisterInputOutput(Registers.PC);
+    private static final RegisterInputOutput RA = new RegisterInputOutput(Registers.RA);
+    private static final RegisterInputOutput FID = new RegisterInputOutput(Registers.FID);
+    private static final RegisterInputOutput R0 = new RegisterInputOutput(Registers.R0);
+
     private final Simulator simulator;
     private final MemoryInstructions memoryInstructions;
 
@@ -36,9 +37,8 @@ public class FunctionInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence jump(IAbstractInput input) throws SimulationException {
-        InputOutputTransformable pc = new InputOutputTransformable(simulator, new RegisterInputOutput(Registers.PC));
-        return new TransformationSequence(pc.transformation(input.get(simulator)));
+    public void jump(IAbstractInput input) throws SimulationException {
+        PC.setLong(simulator, input.getLong(simulator));
     }
 
     /**
@@ -48,8 +48,8 @@ public class FunctionInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence j(IAbstractInput input) throws SimulationException {
-        return jump(input);
+    public void j(IAbstractInput input) throws SimulationException {
+        jump(input);
     }
 
     /**
@@ -60,26 +60,20 @@ public class FunctionInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence call(IAbstractInput input) throws SimulationException {
-        RegisterInputOutput ra = new RegisterInputOutput(Registers.RA);
-        InputOutputTransformable raio = new InputOutputTransformable(simulator, ra);
-        RegisterInputOutput fi = new RegisterInputOutput(Registers.FID);
-        InputOutputTransformable fiio = new InputOutputTransformable(simulator, fi);
-        Register pc = simulator.getRegisters().getRegister(Registers.PC);
-        TransformationSequence t = new TransformationSequence();
+    public void call(IAbstractInput input) throws SimulationException {
+        // Resolve the destination before the return address and file id are overwritten
+        long destination = input.getLong(simulator);
 
-        t = t.concatenate(memoryInstructions.push(ra));
-        t = t.concatenate(new TransformationSequence(raio.transformation(pc.getData())));
+        memoryInstructions.push(RA);
+        RA.setLong(simulator, PC.getLong(simulator));
 
         // If we are jumping via a label, push the potentially new file id to the stack
-        t = t.concatenate(memoryInstructions.consecutivePush(fi, 1));
+        memoryInstructions.push(FID);
         if (input instanceof LabelReferenceInput l) {
-            long nextFileId = l.getLabelFileId(simulator).intValue();
-            t = t.concatenate(new TransformationSequence(fiio.transformation(new RawData(nextFileId))));
+            FID.setLong(simulator, l.getFileId(simulator));
         }
-        t = t.concatenate(jump(input));
-
-        return t;
+        PC.setLong(simulator, destination);
+        simulator.enterCall();
     }
 
     /**
@@ -90,8 +84,8 @@ public class FunctionInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence jal(IAbstractInput input) throws SimulationException {
-        return call(input);
+    public void jal(IAbstractInput input) throws SimulationException {
+        call(input);
     }
 
     /**
@@ -100,13 +94,11 @@ public class FunctionInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence _return() throws SimulationException {
-        TransformationSequence t = new TransformationSequence();
-
-        t = t.concatenate(jump(new RegisterInputOutput(Registers.RA)));
-        t = t.concatenate(memoryInstructions.pop(new RegisterInputOutput(Registers.FID)));
-        t = t.concatenate(memoryInstructions.consecutivePop(new RegisterInputOutput(Registers.RA), 1));
-        return t;
+    public void _return() throws SimulationException {
+        jump(RA);
+        memoryInstructions.pop(FID);
+        memoryInstructions.pop(RA);
+        simulator.leaveCall();
     }
 
     /**
@@ -117,12 +109,9 @@ public class FunctionInstructions {
      * @throws SimulationException if there is an error in accessing the simulation.
      */
     @Instruction
-    public TransformationSequence exit(IAbstractInput input) throws SimulationException {
-        InputOutputTransformable r0 = new InputOutputTransformable(simulator, new RegisterInputOutput(Registers.R0));
-        InputOutputTransformable pc = new InputOutputTransformable(simulator, new RegisterInputOutput(Registers.PC));
-        Transformation t1 = r0.transformation(input.get(simulator));
-        Transformation t2 = pc.transformation(new RawData(simulator.endPC()));
-        return new TransformationSequence(t1, t2);
+    public void exit(IAbstractInput input) throws SimulationException {
+        R0.setLong(simulator, input.getLong(simulator));
+        PC.setLong(simulator, simulator.endPC());
     }
 
 }
@@ -13,6 +13,7 @@ public class StreamManager {
     private InputStream inputStream;
     private OutputStream outputStream;
     private long cursorPosition;
+    private boolean outputMuted;
 
     private PrintStream outputWriter;
 
@@ -47,6 +48,16 @@ public class StreamManager {
         this.outputWriter = new PrintStream(this.outputStream, true);
     }
 
+    /**
+     * Sets whether writes to the output stream are discarded, such as while replaying lines which already wrote their
+     * output.
+     *
+     * @param outputMuted true to discard writes to the output stream, false to write them.
+     */
+    public void setOutputMuted(boolean outputMuted) {
+        this.outputMuted = outputMuted;
+    }
+
     /**
      * Resets the state of the input stream.
      */
@@ -86,6 +97,16 @@ public class StreamManager {
         }
     }
 
+    /**
+     * Returns true if the input stream can seek back to a position read before, which only a file opened for random
+     * access can.
+     *
+     * @return true if the input stream can seek, false otherwise.
+     */
+    public boolean isInputSeekable() {
+        return inputStream instanceof RandomAccessFileStream;
+    }
+
     /**
      * Gets the cursor's position within the currently open file if it exists, 0 otherwise.
      *
@@ -102,6 +123,9 @@ public class StreamManager {
      * @throws SimulationException if an error occurs in writing the number.
      */
     public void write(long l) throws SimulationException {
+        if (outputMuted) {
+            return;
+        }
         try {
             outputWriter.print(l);
         } catch (Exception e) {
@@ -116,6 +140,9 @@ public class StreamManager {
      * @throws SimulationException if an error occurs in writing the number.
      */
     public void write(double d) throws SimulationException {
+        if (outputMuted) {
+            return;
+        }
         try {
             outputWriter.print(d);
         } catch (Exception e) {
@@ -130,6 +157,9 @@ public class StreamManager {
      * @throws SimulationException if an error occurs in writing the character.
      */
     public void write(char c) throws SimulationException {
+        if (outputMuted) {
+            return;
+        }
         try {
             outputWriter.print(c);
         } catch (Exception e) {
@@ -144,6 +174,9 @@ public class StreamManager {
      * @throws SimulationException if an error occurs in writing the character.
      */
     public void write(String s) throws SimulationException {
+        if (outputMuted) {
+            return;
+        }
         try {
             outputWriter.print(s);
         } catch (Exception e) {
@@ -3,17 +3,10 @@ package com.ezasm.instructions.implementation;
 import java.io.*;
 
 import com.ezasm.instructions.targets.inputoutput.IAbstractInputOutput;
-import com.ezasm.simulation.Memory;
-import com.ezasm.simulation.transform.Transformation;
-import com.ezasm.simulation.transform.TransformationSequence;
-import com.ezasm.simulation.transform.transformable.FileReadTransformable;
-import com.ezasm.simulation.transform.transformable.InputOutputTransformable;
-import com.ezasm.simulation.transform.transformable.MemoryTransformable;
 import com.ezasm.instructions.Instruction;
 import com.ezasm.instructions.targets.input.IAbstractInput;
 import com.ezasm.simulation.Simulator;
 import com.ezasm.simulation.exception.SimulationException;
-import com.ezasm.util.RawData;
 
 import static org.apache.commons.lang3.math.NumberUtils.min;
 
@@ -25,188 +18,145 @@ public class TerminalInstructions {
     public static final InputStream DEFAULT_INPUT_STREAM = System.in;
     public static final OutputStream DEFAULT_OUTPUT_STREAM = System.out;
 
-    private static final StreamManager streams = new StreamManager(DEFAULT_INPUT_STREAM, DEFAULT_OUTPUT_STREAM);
-
     private final Simulator simulator;
-
-    /**
-     * Returns the program I/O streams representation.
-     *
-     * @return the program I/O streams representation.
-     */
-    public static StreamManager streams() {
-        return streams;
-    }
+    private final StreamManager streams;
 
     public TerminalInstructions(Simulator simulator) {
         this.simulator = simulator;
+        this.streams = simulator.getStreams();
     }
 
     @Instruction
-    public TransformationSequence printi(IAbstractInput input) throws SimulationException {
-        streams.write(input.get(simulator).intValue());
-        return new TransformationSequence();
+    public void printi(IAbstractInput input) throws SimulationException {
+        streams.write(input.getLong(simulator));
     }
 
     @Instruction
-    public TransformationSequence printf(IAbstractInput input) throws SimulationException {
-        streams.write(input.get(simulator).floatValue());
-        return new TransformationSequence();
+    public void printf(IAbstractInput input) throws SimulationException {
+        streams.write(input.getDouble(simulator));
     }
 
     @Instruction
-    public TransformationSequence printc(IAbstractInput input) throws SimulationException {
-        streams.write((char) input.get(simulator).intValue());
-        return new TransformationSequence();
+    public void printc(IAbstractInput input) throws SimulationException {
+        streams.write((char) input.getLong(simulator));
     }
 
     @Instruction
-    public TransformationSequence prints(IAbstractInput input1, IAbstractInput input2) throws SimulationException {
-        int address = (int) input1.get(simulator).intValue();
+    public void prints(IAbstractInput input1, IAbstractInput input2) throws SimulationException {
+        int address = (int) input1.getLong(simulator);
         int index = 0;
-        int maxSize = (int) input2.get(simulator).intValue();
-        long current = simulator.getMemory().read(address).intValue();
+        int maxSize = (int) input2.getLong(simulator);
+        long current = simulator.getMemory().readWord(address);
 
         while (index < maxSize && current != 0) {
             streams.write((char) current);
             index++;
-            current = simulator.getMemory().read(address + index * Memory.wordSize()).intValue();
+            current = simulator.getMemory().readWord(address + index * simulator.getMemory().wordSize());
         }
-
-        return new TransformationSequence();
     }
 
     @Instruction
-    public TransformationSequence prints(IAbstractInput input1) throws SimulationException {
-        int address = (int) input1.get(simulator).intValue();
+    public void prints(IAbstractInput input1) throws SimulationException {
+        int address = (int) input1.getLong(simulator);
         int index = 0;
-        long current = simulator.getMemory().read(address).intValue();
+        long current = simulator.getMemory().readWord(address);
 
         while (current != 0) {
             streams.write((char) current);
             index++;
-            current = simulator.getMemory().read(address + index * Memory.wordSize()).intValue();
+            current = simulator.getMemory().readWord(address + index * simulator.getMemory().wordSize());
         }
-
-        return new TransformationSequence();
-    }
-
-    private interface DataSupplier {
-        RawData get() throws SimulationException;
-    }
-
-    private TransformationSequence read(DataSupplier supplier, IAbstractInputOutput output) throws SimulationException {
-        FileReadTransformable f = new FileReadTransformable(simulator, streams().getCursor());
-        InputOutputTransformable io = new InputOutputTransformable(simulator, output);
-        RawData data = supplier.get();
-        Transformation t1 = f.transformation(new RawData(streams().getCursor()));
-        Transformation t2 = io.transformation(data);
-        return new TransformationSequence(t1, t2);
     }
 
     @Instruction
-    public TransformationSequence readi(IAbstractInputOutput output) throws SimulationException {
-        return read(() -> new RawData(streams.readLong()), output);
+    public void readi(IAbstractInputOutput output) throws SimulationException {
+        long cursor = streams.getCursor();
+        long data = streams.readLong();
+        simulator.recordInputCursor(cursor);
+        output.setLong(simulator, data);
     }
 
     @Instruction
-    public TransformationSequence readf(IAbstractInputOutput output) throws SimulationException {
-        return read(() -> new RawData(streams.readDouble()), output);
+    public void readf(IAbstractInputOutput output) throws SimulationException {
+        long cursor = streams.getCursor();
+        double data = streams.readDouble();
+        simulator.recordInputCursor(cursor);
+        output.setDouble(simulator, data);
     }
 
     @Instruction
-    public TransformationSequence readc(IAbstractInputOutput output) throws SimulationException {
-        return read(() -> new RawData(streams.readChar()), output);
+    public void readc(IAbstractInputOutput output) throws SimulationException {
+        long cursor = streams.getCursor();
+        char data = streams.readChar();
+        simulator.recordInputCursor(cursor);
+        output.setLong(simulator, data);
     }
 
     @Instruction
-    public TransformationSequence reads(IAbstractInput input1, IAbstractInput input2) throws SimulationException {
-        int address = (int) input1.get(simulator).intValue();
-        int maxSize = (int) input2.get(simulator).intValue();
+    public void reads(IAbstractInput input1, IAbstractInput input2) throws SimulationException {
+        int address = (int) input1.getLong(simulator);
+        int maxSize = (int) input2.getLong(simulator);
 
-        FileReadTransformable f = new FileReadTransformable(simulator, streams().getCursor());
+        long cursor = streams.getCursor();
         String string = streams.readString();
+        simulator.recordInputCursor(cursor);
 
         int size = min(maxSize, string.length());
-        Transformation[] transformations = new Transformation[size + 1];
-        transformations[0] = f.transformation(new RawData(streams().getCursor()));
-
         for (int i = 1; i < size; ++i) {
-            MemoryTransformable m = new MemoryTransformable(simulator, address);
-            transformations[i] = m.transformation(new RawData(string.charAt(i - 1)));
-            address = address + Memory.wordSize();
+            simulator.transformMemory(address, string.charAt(i - 1));
+            address = address + simulator.getMemory().wordSize();
         }
-        MemoryTransformable m = new MemoryTransformable(simulator, address);
-        transformations[transformations.length - 1] = m.transformation(new RawData('\0'));
-
-        return new TransformationSequence(transformations);
+        simulator.transformMemory(address, '\0');
     }
 
     @Instruction
-    public TransformationSequence reads(IAbstractInput input1) throws SimulationException {
-        int address = (int) input1.get(simulator).intValue();
+    public void reads(IAbstractInput input1) throws SimulationException {
+        int address = (int) input1.getLong(simulator);
 
-        FileReadTransformable f = new FileReadTransformable(simulator, streams().getCursor());
+        long cursor = streams.getCursor();
         String string = streams.readString();
+        simulator.recordInputCursor(cursor);
 
-        int size = string.length();
-        Transformation[] transformations = new Transformation[size + 2];
-        transformations[0] = f.transformation(new RawData(streams().getCursor()));
-
-        for (int i = 1; i < size + 1; ++i) {
-            MemoryTransformable m = new MemoryTransformable(simulator, address);
-            transformations[i] = m.transformation(new RawData(string.charAt(i - 1)));
-            address = address + Memory.wordSize();
-        }
-        MemoryTransformable m = new MemoryTransformable(simulator, address);
-        transformations[transformations.length - 1] = m.transformation(new RawData('\0'));
-
-        return new TransformationSequence(transformations);
+        writeString(address, string, string.length());
     }
 
     @Instruction
-    public TransformationSequence readln(IAbstractInput input1, IAbstractInput input2) throws SimulationException {
-        int address = (int) input1.get(simulator).intValue();
-        int maxSize = (int) input2.get(simulator).intValue();
+    public void readln(IAbstractInput input1, IAbstractInput input2) throws SimulationException {
+        int address = (int) input1.getLong(simulator);
+        int maxSize = (int) input2.getLong(simulator);
 
-        FileReadTransformable f = new FileReadTransformable(simulator, streams().getCursor());
+        long cursor = streams.getCursor();
         String string = streams.readLine();
+        simulator.recordInputCursor(cursor);
 
-        int size = min(maxSize, string.length());
-        Transformation[] transformations = new Transformation[size + 2];
-        transformations[0] = f.transformation(new RawData(streams().getCursor()));
-
-        for (int i = 1; i < size + 1; ++i) {
-            MemoryTransformable m = new MemoryTransformable(simulator, address);
-            transformations[i] = m.transformation(new RawData(string.charAt(i - 1)));
-            address = address + Memory.wordSize();
-        }
-        MemoryTransformable m = new MemoryTransformable(simulator, address);
-        transformations[transformations.length - 1] = m.transformation(new RawData('\0'));
-
-        return new TransformationSequence(transformations);
+        writeString(address, string, min(maxSize, string.length()));
     }
 
     @Instruction
-    public TransformationSequence readln(IAbstractInput input1) throws SimulationException {
-        int address = (int) input1.get(simulator).intValue();
+    public void readln(IAbstractInput input1) throws SimulationException {
+        int address = (int) input1.getLong(simulator);
 
-        FileReadTransformable f = new FileReadTransformable(simulator, streams().getCursor());
+        long cursor = streams.getCursor();
         String string = streams.readLine();
+        simulator.recordInputCursor(cursor);
 
-        int size = string.length();
-        Transformation[] transformations = new Transformation[size + 2];
-        transformations[0] = f.transformation(new RawData(streams().getCursor()));
+        writeString(address, string, string.length());
+    }
 
-        for (int i = 1; i < size + 1; ++i) {
-            MemoryTransformable m = new MemoryTransformable(simulator, address);
-            transformations[i] = m.transformation(new RawData(string.charAt(i - 1)));
-            address = address + Memory.wordSize();
+    /**
+     * Writes the first characters of the given string to memory one per word followed by a null terminator.
+     *
+     * @param address the address to write the string to.
+     * @param string  the string to write.
+     * @param size    the number of characters to write.
+     * @throws SimulationException if there is an error in writing to memory.
+     */
+    private void writeString(int address, String string, int size) throws SimulationException {
+        for (int i = 0; i < size; ++i) {
+            simulator.transformMemory(address, string.charAt(i));
+            address = address + simulator.getMemory().wordSize();
         }
-        MemoryTransformable m = new MemoryTransformable(simulator, address);
-        transformations[transformations.length - 1] = m.transformation(new RawData('\0'));
-
-        return new TransformationSequence(transformations);
+        simulator.transformMemory(address, '\0');
     }
 
 }
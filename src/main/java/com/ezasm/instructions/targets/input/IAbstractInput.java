@@ -18,4 +18,24 @@ public interface IAbstractInput extends IAbstractTarget {
      */
     public RawData get(Simulator simulator) throws SimulationException;
 
+    /**
+     * Gets the long interpretation of the value pertaining to this input.
+     *
+     * @param simulator the program simulator.
+     * @return the long interpretation of the obtained value.
+     */
+    public default long getLong(Simulator simulator) throws SimulationException {
+        return get(simulator).intValue();
+    }
+
+    /**
+     * Gets the double interpretation of the value pertaining to this input.
+     *
+     * @param simulator the program simulator.
+     * @return the double interpretation of the obtained value.
+     */
+    public default double getDouble(Simulator simulator) throws SimulationException {
+        return get(simulator).floatValue();
+    }
+
 }
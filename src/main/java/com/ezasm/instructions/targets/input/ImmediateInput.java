@@ -1,23 +1,42 @@
 package com.ezasm.instructions.targets.input;
 
 import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.WordSize;
 import com.ezasm.util.RawData;
 
 /**
  * The implementation of an "immediate" input to be used inline instead of a register or other input. Is used as a fixed
- * value or constant.
+ * value or constant. The word holding the value depends on the word size, so the value is kept as a word of each size.
  */
 public class ImmediateInput implements IAbstractInput {
 
-    private final RawData value;
+    private final long fourByteWord;
+    private final long eightByteWord;
+    private final double fourByteDouble;
+    private final double eightByteDouble;
 
     /**
-     * Constructs the input with the given constant value.
+     * Constructs the input with the given integer value.
      *
      * @param value the constant value.
      */
-    public ImmediateInput(RawData value) {
-        this.value = value;
+    public ImmediateInput(long value) {
+        this.fourByteWord = WordSize.FOUR.truncate(value);
+        this.eightByteWord = value;
+        this.fourByteDouble = WordSize.FOUR.wordToDouble(fourByteWord);
+        this.eightByteDouble = WordSize.EIGHT.wordToDouble(eightByteWord);
+    }
+
+    /**
+     * Constructs the input with the given float value.
+     *
+     * @param value the constant value.
+     */
+    public ImmediateInput(double value) {
+        this.fourByteWord = WordSize.FOUR.doubleToWord(value);
+        this.eightByteWord = WordSize.EIGHT.doubleToWord(value);
+        this.fourByteDouble = (float) value;
+        this.eightByteDouble = value;
     }
 
     /**
@@ -28,7 +47,29 @@ public class ImmediateInput implements IAbstractInput {
      */
     @Override
     public RawData get(Simulator simulator) {
-        return value;
+        return new RawData(getLong(simulator), simulator.getWordSize().bytes());
+    }
+
+    /**
+     * Gets the constant value of the immediate as a long.
+     *
+     * @param simulator the program simulator.
+     * @return the constant value as a long.
+     */
+    @Override
+    public long getLong(Simulator simulator) {
+        return simulator.getWordSize() == WordSize.FOUR ? fourByteWord : eightByteWord;
+    }
+
+    /**
+     * Gets the constant value of the immediate as a double.
+     *
+     * @param simulator the program simulator.
+     * @return the constant value as a double.
+     */
+    @Override
+    public double getDouble(Simulator simulator) {
+        return simulator.getWordSize() == WordSize.FOUR ? fourByteDouble : eightByteDouble;
     }
 
     @Override
@@ -38,11 +79,11 @@ public class ImmediateInput implements IAbstractInput {
         if (o == null || getClass() != o.getClass())
             return false;
         ImmediateInput that = (ImmediateInput) o;
-        return value.equals(that.value);
+        return fourByteWord == that.fourByteWord && eightByteWord == that.eightByteWord;
     }
 
     @Override
     public int hashCode() {
-        return value.hashCode();
+        return Long.hashCode(eightByteWord);
     }
 }
@@ -3,18 +3,46 @@ package com.ezasm.instructions.targets.input;
 import com.ezasm.simulation.Simulator;
 import com.ezasm.simulation.exception.SimulationException;
 import com.ezasm.util.RawData;
+import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.Objects;
 
 /**
- * The implementation of a "label" reference to be used as a reference to the line following it.
+ * The implementation of a "label" reference to be used as a reference to the line following it. The reference is
+ * resolved to the file id and line number of the label when the program is linked; until then the label is looked up by
+ * name.
  */
 public class LabelReferenceInput implements IAbstractInput {
 
+    private static final int UNRESOLVED = -1;
+
     private final String label;
+    private int fileId;
+    private long lineNumber;
 
     public LabelReferenceInput(String label) {
         this.label = label;
+        this.fileId = UNRESOLVED;
+    }
+
+    /**
+     * Gets the name of the label referred to.
+     *
+     * @return the name of the label referred to.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Resolves this reference to the location of the label so that it no longer needs to be looked up by name.
+     *
+     * @param fileId     the file id of the label.
+     * @param lineNumber the line number of the label within its file.
+     */
+    public void resolve(int fileId, long lineNumber) {
+        this.fileId = fileId;
+        this.lineNumber = lineNumber;
     }
 
     /**
@@ -25,11 +53,21 @@ public class LabelReferenceInput implements IAbstractInput {
      */
     @Override
     public RawData get(Simulator simulator) throws SimulationException {
-        try {
-            return new RawData(simulator.getLabelToFileIdAndLineNumber().get(label).getRight());
-        } catch (NullPointerException e) {
-            throw new SimulationException(String.format("Label '%s' does not exist", label));
+        return new RawData(getLong(simulator), simulator.getWordSize().bytes());
+    }
+
+    /**
+     * Gets the line number referred to by the label.
+     *
+     * @param simulator the program simulator.
+     * @return the line number referred to by the label.
+     */
+    @Override
+    public long getLong(Simulator simulator) throws SimulationException {
+        if (fileId != UNRESOLVED) {
+            return lineNumber;
         }
+        return lookup(simulator).getRight();
     }
 
     /**
@@ -38,12 +76,26 @@ public class LabelReferenceInput implements IAbstractInput {
      * @param simulator the program simulator.
      * @return the file id referred to by the label.
      */
-    public RawData getLabelFileId(Simulator simulator) throws SimulationException {
-        try {
-            return new RawData(simulator.getLabelToFileIdAndLineNumber().get(label).getLeft());
-        } catch (NullPointerException e) {
+    public int getFileId(Simulator simulator) throws SimulationException {
+        if (fileId != UNRESOLVED) {
+            return fileId;
+        }
+        return lookup(simulator).getLeft();
+    }
+
+    /**
+     * Looks up the location of the label by name for references which have not been resolved.
+     *
+     * @param simulator the program simulator.
+     * @return the file id and line number of the label.
+     * @throws SimulationException if the label does not exist.
+     */
+    private Pair<Integer, Long> lookup(Simulator simulator) throws SimulationException {
+        Pair<Integer, Long> location = simulator.getLabelToFileIdAndLineNumber().get(label);
+        if (location == null) {
             throw new SimulationException(String.format("Label '%s' does not exist", label));
         }
+        return location;
     }
 
     @Override
@@ -46,6 +46,24 @@ public class DereferenceInputOutput implements IAbstractInputOutput {
         }
     }
 
+    /**
+     * Gets the reference number of the register holding the base address.
+     *
+     * @return the reference number of the register holding the base address.
+     */
+    public int getRegisterNumber() {
+        return register.getRegisterNumber();
+    }
+
+    /**
+     * Gets the offset added to the base address.
+     *
+     * @return the offset added to the base address.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
     /**
      * Gets the value stored within the address.
      *
@@ -54,8 +72,29 @@ public class DereferenceInputOutput implements IAbstractInputOutput {
      */
     @Override
     public RawData get(Simulator simulator) throws SimulationException {
-        int address = (int) register.get(simulator).intValue();
-        return simulator.getMemory().read(address + offset).copy();
+        return new RawData(getLong(simulator), simulator.getWordSize().bytes());
+    }
+
+    /**
+     * Gets the long interpretation of the word stored within the address.
+     *
+     * @param simulator the program simulator.
+     * @return the long interpretation of the word stored within the address.
+     */
+    @Override
+    public long getLong(Simulator simulator) throws SimulationException {
+        return simulator.getMemory().readWord(address(simulator));
+    }
+
+    /**
+     * Gets the double interpretation of the word stored within the address.
+     *
+     * @param simulator the program simulator.
+     * @return the double interpretation of the word stored within the address.
+     */
+    @Override
+    public double getDouble(Simulator simulator) throws SimulationException {
+        return simulator.getMemory().readDouble(address(simulator));
     }
 
     /**
@@ -66,8 +105,39 @@ public class DereferenceInputOutput implements IAbstractInputOutput {
      */
     @Override
     public void set(Simulator simulator, RawData value) throws SimulationException {
-        int address = (int) register.get(simulator).intValue();
-        simulator.getMemory().write(address + offset, value);
+        setLong(simulator, value.intValue());
+    }
+
+    /**
+     * Sets the word at the address contained within the specified register to the given long.
+     *
+     * @param simulator the program simulator.
+     * @param value     the long to set.
+     */
+    @Override
+    public void setLong(Simulator simulator, long value) throws SimulationException {
+        simulator.transformMemory(address(simulator), value);
+    }
+
+    /**
+     * Sets the word at the address contained within the specified register to the given double.
+     *
+     * @param simulator the program simulator.
+     * @param value     the double to set.
+     */
+    @Override
+    public void setDouble(Simulator simulator, double value) throws SimulationException {
+        simulator.transformMemory(address(simulator), simulator.getWordSize().doubleToWord(value));
+    }
+
+    /**
+     * Computes the address referred to by this dereference: the value of the register plus the offset.
+     *
+     * @param simulator the program simulator.
+     * @return the address referred to by this dereference.
+     */
+    public int address(Simulator simulator) {
+        return (int) register.getLong(simulator) + offset;
     }
 
     @Override
@@ -31,6 +31,15 @@ public class RegisterInputOutput implements IAbstractInputOutput {
         this.register = Registers.getRegisterNumber(register);
     }
 
+    /**
+     * Gets the reference number of the register.
+     *
+     * @return the reference number of the register.
+     */
+    public int getRegisterNumber() {
+        return register;
+    }
+
     /**
      * Gets the value stored within the register.
      *
@@ -39,8 +48,29 @@ public class RegisterInputOutput implements IAbstractInputOutput {
      */
     @Override
     public RawData get(Simulator simulator) {
-        RawData val = simulator.getRegisters().getRegister(register).getData();
-        return val.copy();
+        return new RawData(getLong(simulator), simulator.getWordSize().bytes());
+    }
+
+    /**
+     * Gets the long interpretation of the value stored within the register.
+     *
+     * @param simulator the program simulator.
+     * @return the long interpretation of the value stored within the register.
+     */
+    @Override
+    public long getLong(Simulator simulator) {
+        return simulator.getRegisters().getLong(register);
+    }
+
+    /**
+     * Gets the double interpretation of the value stored within the register.
+     *
+     * @param simulator the program simulator.
+     * @return the double interpretation of the value stored within the register.
+     */
+    @Override
+    public double getDouble(Simulator simulator) {
+        return simulator.getRegisters().getDouble(register);
     }
 
     /**
@@ -51,7 +81,29 @@ public class RegisterInputOutput implements IAbstractInputOutput {
      */
     @Override
     public void set(Simulator simulator, RawData value) {
-        simulator.getRegisters().getRegister(register).setDataWithGuiCallback(value);
+        setLong(simulator, value.intValue());
+    }
+
+    /**
+     * Sets the value stored within the register to the given long.
+     *
+     * @param simulator the program simulator.
+     * @param value     the long to set.
+     */
+    @Override
+    public void setLong(Simulator simulator, long value) {
+        simulator.transformRegister(register, value);
+    }
+
+    /**
+     * Sets the value stored within the register to the given double.
+     *
+     * @param simulator the program simulator.
+     * @param value     the double to set.
+     */
+    @Override
+    public void setDouble(Simulator simulator, double value) {
+        simulator.transformRegister(register, simulator.getWordSize().doubleToWord(value));
     }
 
     @Override
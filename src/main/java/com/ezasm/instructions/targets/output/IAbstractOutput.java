@@ -18,4 +18,24 @@ public interface IAbstractOutput extends IAbstractTarget {
      */
     public void set(Simulator simulator, RawData value) throws SimulationException;
 
+    /**
+     * Sets the value pertaining to this output to the given long.
+     *
+     * @param simulator the program simulator.
+     * @param value     the long to set.
+     */
+    public default void setLong(Simulator simulator, long value) throws SimulationException {
+        set(simulator, new RawData(value, simulator.getWordSize().bytes()));
+    }
+
+    /**
+     * Sets the value pertaining to this output to the given double.
+     *
+     * @param simulator the program simulator.
+     * @param value     the double to set.
+     */
+    public default void setDouble(Simulator simulator, double value) throws SimulationException {
+        set(simulator, new RawData(value, simulator.getWordSize().bytes()));
+    }
+
 }
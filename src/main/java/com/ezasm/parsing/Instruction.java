@@ -1,12 +1,13 @@
 package com.ezasm.parsing;
 
-import java.lang.reflect.Method;
+import com.ezasm.instructions.DispatchInstruction;
+
 import java.util.Objects;
 
 /**
- * Represents an instruction in the assembly language: a name and a function to invoke.
+ * Represents an instruction in the assembly language: a name and the resolved overload to invoke.
  */
-public record Instruction(String text, Method target) {
+public record Instruction(String text, DispatchInstruction target) {
 
     /**
      * Gets the instruction name String.
@@ -19,12 +20,12 @@ public record Instruction(String text, Method target) {
     }
 
     /**
-     * Gets the target function to invoke.
+     * Gets the target instruction overload to invoke.
      *
-     * @return the target function to invoke.
+     * @return the target instruction overload to invoke.
      */
     @Override
-    public Method target() {
+    public DispatchInstruction target() {
         return target;
     }
 
@@ -3,7 +3,7 @@ package com.ezasm.parsing;
 import com.ezasm.instructions.exception.IllegalArgumentException;
 import com.ezasm.simulation.Registers;
 import com.ezasm.instructions.InstructionDispatcher;
-import com.ezasm.util.RawData;
+import com.ezasm.instructions.targets.input.ImmediateInput;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
@@ -48,7 +48,7 @@ public class Lexer {
      */
     public static boolean isNumeric(String text) {
         try {
-            textToBytes(text);
+            textToImmediate(text);
             return true;
         } catch (ParseException ignored) {
         }
@@ -56,13 +56,13 @@ public class Lexer {
     }
 
     /**
-     * Converts the given text to the applicable raw data.
+     * Converts the given text to the applicable immediate.
      *
-     * @param text the string containing a number to be converted to raw data.
-     * @return the raw data representing the result of the conversion.
+     * @param text the string containing a number to be converted to an immediate.
+     * @return the immediate representing the result of the conversion.
      * @throws ParseException if there is an error converting the given string to a number.
      */
-    public static RawData textToBytes(String text) throws ParseException {
+    public static ImmediateInput textToImmediate(String text) throws ParseException {
         int base = 10;
         if (looksHexadecimal(text)) {
             base = 16;
@@ -77,12 +77,12 @@ public class Lexer {
         }
 
         try { // Try conversion to long
-            return new RawData(Long.parseLong(text, base));
+            return new ImmediateInput(Long.parseLong(text, base));
         } catch (NumberFormatException ignored) {
         }
 
         try { // Try conversion to double
-            return new RawData(stringToDouble(text, base));
+            return new ImmediateInput(stringToDouble(text, base));
         } catch (NumberFormatException ignored) {
         }
 
@@ -303,7 +303,7 @@ public class Lexer {
         }
         String[] args = Arrays.copyOfRange(tokens, 1, tokens.length);
         try {
-            return new Line(tokens[0], args);
+            return new Line(tokens[0], args, lineNumber);
         } catch (ParseException e) {
             throw new ParseException(String.format("Line %d: %s", lineNumber + 1, e.getMessage()));
         }
@@ -8,7 +8,6 @@ import com.ezasm.instructions.targets.input.LabelReferenceInput;
 import com.ezasm.instructions.targets.input.StringInput;
 import com.ezasm.instructions.targets.inputoutput.DereferenceInputOutput;
 import com.ezasm.instructions.targets.inputoutput.RegisterInputOutput;
-import com.ezasm.util.RawData;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -24,6 +23,7 @@ public class Line {
     private final IAbstractTarget[] arguments;
     private final String label;
     private final List<String> stringImmediates;
+    private final int sourceLine;
 
     /**
      * Creates and validates a line based on the given tokens.
@@ -33,6 +33,19 @@ public class Line {
      * @throws ParseException if any of the given String tokens cannot be parsed into their corresponding types.
      */
     public Line(String instruction, String[] arguments) throws ParseException {
+        this(instruction, arguments, -1);
+    }
+
+    /**
+     * Creates and validates a line based on the given tokens, remembering where in its source text it was read from.
+     *
+     * @param instruction the String representing the instruction.
+     * @param arguments   the variable sized arguments token String list.
+     * @param sourceLine  the zero-based number of the line of source text the tokens were read from.
+     * @throws ParseException if any of the given String tokens cannot be parsed into their corresponding types.
+     */
+    public Line(String instruction, String[] arguments, int sourceLine) throws ParseException {
+        this.sourceLine = sourceLine;
         if (Lexer.isLabel(instruction)) {
             this.label = instruction.substring(0, instruction.length() - 1);
             this.instruction = null;
@@ -53,9 +66,9 @@ public class Line {
         // Determine the type of each argument and create the token respectively
         for (int i = 0; i < arguments.length; ++i) {
             if (Lexer.looksLikeImmediate(arguments[i].toLowerCase())) {
-                this.arguments[i] = new ImmediateInput(Lexer.textToBytes(arguments[i].toLowerCase()));
+                this.arguments[i] = Lexer.textToImmediate(arguments[i].toLowerCase());
             } else if (Lexer.looksLikeCharacterImmediate(arguments[i])) {
-                this.arguments[i] = new ImmediateInput(new RawData(Lexer.getCharacterImmediate(arguments[i])));
+                this.arguments[i] = new ImmediateInput(Lexer.getCharacterImmediate(arguments[i]));
             } else if (Lexer.looksLikeStringImmediate(arguments[i])) {
                 String input = Lexer.getStringImmediate(arguments[i]);
                 this.arguments[i] = new StringInput(input);
@@ -83,7 +96,7 @@ public class Line {
                     instruction, getArgumentTypes().length));
         }
 
-        this.instruction = new Instruction(instruction, dispatchInstruction.invocationTarget());
+        this.instruction = new Instruction(instruction, dispatchInstruction);
     }
 
     /**
@@ -137,6 +150,15 @@ public class Line {
         return label;
     }
 
+    /**
+     * Gets the zero-based number of the line of source text this line was read from.
+     *
+     * @return the number of the source line, or -1 if the line was not read from source text.
+     */
+    public int getSourceLine() {
+        return sourceLine;
+    }
+
     /**
      * Gets the list of string immediates inside this line.
      *
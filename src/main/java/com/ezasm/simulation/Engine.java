@@ -0,0 +1,24 @@
+package com.ezasm.simulation;
+
+/**
+ * The ways a simulator can run a program to completion. Every engine other than the interpreter prepares the lines of
+ * each file ahead of time and applies their effects directly, so they are only used while history is disabled.
+ */
+public enum Engine {
+
+    /**
+     * Dispatches every line to its instruction as it runs.
+     */
+    INTERPRETER,
+
+    /**
+     * Binds every line to a closure with its operands already resolved.
+     */
+    CLOSURE,
+
+    /**
+     * Compiles the lines of each file to JVM bytecode.
+     */
+    BYTECODE
+
+}
@@ -1,6 +1,7 @@
 package com.ezasm.simulation;
 
 import com.ezasm.simulation.exception.*;
+import com.ezasm.util.Conversion;
 import com.ezasm.util.RawData;
 
 import java.util.Arrays;
@@ -13,7 +14,9 @@ import java.util.Map;
  * and heap with the stack growing downward and the heap growing upward. Implements an "offset" for the address spacing
  * to not start at 0. Keeps track of allocated memory and throws an exception when the heap crosses the stack. Has a
  * default size of 2^21 words (or 2^24 bytes). Has a default word size of 8 bytes (the typical long integer or long
- * float size).
+ * float size). Memory may instead be paged: split into pages of {@link #PAGE_SIZE} bytes which are only allocated once
+ * they are first written to, with pages which were never written reading as zero. In either case, the pages which have
+ * been written to are tracked so that resetting the memory only needs to clear those.
  */
 public class Memory {
 
@@ -27,19 +30,25 @@ public class Memory {
      */
     public static final int DEFAULT_WORD_SIZE = 4;
 
-    private static int wordSize = DEFAULT_WORD_SIZE;
+    /**
+     * The number of bytes in a page of paged memory.
+     */
+    public static final int PAGE_SIZE = 0x1000;
 
-    public static int wordSize() {
-        return wordSize;
-    }
+    private static final int PAGE_SHIFT = Integer.numberOfTrailingZeros(PAGE_SIZE);
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
 
-    private final int DEFAULT_OFFSET = 0x1_0000;
-    private final int STRING_OFFSET = 0x1_0000;
+    private static final int DEFAULT_OFFSET = 0x1_0000;
+    private static final int STRING_OFFSET = 0x1_0000;
 
+    private final WordSize word;
+    private final int wordSize;
     private final int memorySize;
     private final int offsetBytes;
     private final int disallowedBytes;
     private final byte[] memory;
+    private final byte[][] pages;
+    private final long[] dirtyPages;
     private int alloc;
     private int stringAlloc;
 
@@ -49,13 +58,7 @@ public class Memory {
      * Constructs memory with the default parameters.
      */
     public Memory() {
-        this.offsetBytes = wordSize * (DEFAULT_OFFSET + STRING_OFFSET);
-        this.disallowedBytes = wordSize * DEFAULT_OFFSET;
-        this.memorySize = offsetBytes + DEFAULT_MEMORY_WORDS * wordSize;
-        this.memory = new byte[memorySize];
-        this.alloc = offsetBytes;
-        this.stringAlloc = STRING_OFFSET * wordSize;
-        this.stringAddressMap = new HashMap<>();
+        this(DEFAULT_WORD_SIZE, DEFAULT_MEMORY_WORDS);
     }
 
     /**
@@ -65,26 +68,188 @@ public class Memory {
      * @param memorySize the memory size in words.
      */
     public Memory(int wordSize, int memorySize) {
-        Memory.wordSize = wordSize;
+        this(wordSize, memorySize, false);
+    }
+
+    /**
+     * Constructs memory with different parameters for word size and memory size which is either contiguous or paged.
+     *
+     * @param wordSize   the word size in bytes.
+     * @param memorySize the memory size in words.
+     * @param paged      whether to allocate the memory in pages upon first write instead of all at once.
+     * @throws IllegalArgumentException if the memory would be too large to be addressed.
+     */
+    public Memory(int wordSize, int memorySize, boolean paged) {
+        if (!isAddressable(wordSize, memorySize)) {
+            throw new IllegalArgumentException("Memory size is too large to be addressed");
+        }
+        this.word = WordSize.of(wordSize);
+        this.wordSize = wordSize;
         this.offsetBytes = wordSize * (DEFAULT_OFFSET + STRING_OFFSET);
         this.disallowedBytes = wordSize * DEFAULT_OFFSET;
         this.memorySize = offsetBytes + memorySize * wordSize;
-        this.memory = new byte[this.memorySize];
+        int pageCount = (this.memorySize + PAGE_MASK) >>> PAGE_SHIFT;
+        if (paged) {
+            this.memory = null;
+            this.pages = new byte[pageCount][];
+        } else {
+            this.memory = new byte[this.memorySize];
+            this.pages = null;
+        }
+        this.dirtyPages = new long[(pageCount + 63) >>> 6];
         this.alloc = offsetBytes;
         this.stringAlloc = STRING_OFFSET * wordSize;
         this.stringAddressMap = new HashMap<>();
     }
 
     /**
-     * Resets the memory by setting all values to zero and returning the allocation pointer to zero.
+     * Gets the number of bytes in a word of this memory.
+     *
+     * @return the number of bytes in a word.
+     */
+    public int wordSize() {
+        return wordSize;
+    }
+
+    /**
+     * Gets the word size of this memory.
+     *
+     * @return the word size.
+     */
+    public WordSize getWordSize() {
+        return word;
+    }
+
+    /**
+     * Determines if memory of the given dimensions fits within the range of addresses.
+     *
+     * @param wordSize   the word size in bytes.
+     * @param memorySize the memory size in words.
+     * @return true if every byte of the memory can be addressed, false otherwise.
+     */
+    public static boolean isAddressable(int wordSize, long memorySize) {
+        return (DEFAULT_OFFSET + STRING_OFFSET + memorySize) * wordSize <= Integer.MAX_VALUE - PAGE_SIZE;
+    }
+
+    /**
+     * Resets the memory by setting all values to zero and returning the allocation pointer to zero. Only the pages
+     * which have been written to since the last reset are cleared.
      */
     public void reset() {
-        Arrays.fill(memory, (byte) 0);
+        clearDirtyPages(0);
         alloc = offsetBytes;
         stringAlloc = STRING_OFFSET * wordSize;
         stringAddressMap.clear();
     }
 
+    /**
+     * Sets every page from the given page onward which has been written to back to zero and marks it as no longer
+     * written to.
+     *
+     * @param fromPage the index of the first page to clear.
+     */
+    private void clearDirtyPages(int fromPage) {
+        for (int page = nextDirtyPage(fromPage); page >= 0; page = nextDirtyPage(page + 1)) {
+            if (pages == null) {
+                int start = page << PAGE_SHIFT;
+                Arrays.fill(memory, start, Math.min(start + PAGE_SIZE, memorySize), (byte) 0);
+            } else {
+                pages[page] = null;
+            }
+            dirtyPages[page >>> 6] &= ~(1L << page);
+        }
+    }
+
+    /**
+     * A copy of the writable contents of memory: the pages above the read-only string immediates which have been
+     * written to and the heap pointer.
+     *
+     * @param pageNumbers  the indices of the pages which have been written to.
+     * @param pageContents the contents of those pages.
+     * @param heapPointer  the heap pointer.
+     */
+    public record Checkpoint(int[] pageNumbers, byte[][] pageContents, int heapPointer) {
+    }
+
+    /**
+     * Copies the writable pages which have been written to and the heap pointer. Pages which were never written to are
+     * zero and are not copied.
+     *
+     * @return the copy of the writable contents of memory.
+     */
+    public Checkpoint checkpoint() {
+        int firstPage = offsetBytes >>> PAGE_SHIFT;
+        int count = 0;
+        for (int page = nextDirtyPage(firstPage); page >= 0; page = nextDirtyPage(page + 1)) {
+            count++;
+        }
+        int[] pageNumbers = new int[count];
+        byte[][] pageContents = new byte[count][];
+        int index = 0;
+        for (int page = nextDirtyPage(firstPage); page >= 0; page = nextDirtyPage(page + 1)) {
+            int start = page << PAGE_SHIFT;
+            pageNumbers[index] = page;
+            if (pages == null) {
+                pageContents[index] = Arrays.copyOfRange(memory, start, Math.min(start + PAGE_SIZE, memorySize));
+            } else {
+                pageContents[index] = pages[page].clone();
+            }
+            index++;
+        }
+        return new Checkpoint(pageNumbers, pageContents, alloc);
+    }
+
+    /**
+     * Finds the first page at or after the given page which has been written to.
+     *
+     * @param fromPage the index of the page to begin searching from.
+     * @return the index of the page found, or -1 if there is none.
+     */
+    private int nextDirtyPage(int fromPage) {
+        int i = fromPage >>> 6;
+        if (i >= dirtyPages.length) {
+            return -1;
+        }
+        long bits = dirtyPages[i] & (-1L << fromPage);
+        while (bits == 0) {
+            if (++i == dirtyPages.length) {
+                return -1;
+            }
+            bits = dirtyPages[i];
+        }
+        return (i << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Restores the writable contents of memory to a copy made by {@link #checkpoint()}. The read-only string immediates
+     * are unaffected.
+     *
+     * @param checkpoint the copy of the writable contents of memory to restore.
+     */
+    public void restore(Checkpoint checkpoint) {
+        clearDirtyPages(offsetBytes >>> PAGE_SHIFT);
+        for (int i = 0; i < checkpoint.pageNumbers().length; ++i) {
+            int page = checkpoint.pageNumbers()[i];
+            byte[] contents = checkpoint.pageContents()[i];
+            if (pages == null) {
+                System.arraycopy(contents, 0, memory, page << PAGE_SHIFT, contents.length);
+            } else {
+                pages[page] = contents.clone();
+            }
+            markDirty(page);
+        }
+        alloc = checkpoint.heapPointer();
+    }
+
+    /**
+     * Checks if this memory is paged.
+     *
+     * @return true if this memory allocates its pages upon first write, false if it is contiguous.
+     */
+    public boolean isPaged() {
+        return pages != null;
+    }
+
     /**
      * Gets the size of the memory as a number of words.
      *
@@ -183,7 +348,9 @@ public class Memory {
         if (address < disallowedBytes || address + count > this.memorySize) {
             throw new ReadOutOfBoundsException(address);
         }
-        return new RawData(Arrays.copyOfRange(memory, address, address + count));
+        byte[] data = new byte[count];
+        copyOut(address, data);
+        return new RawData(data);
     }
 
     /**
@@ -196,6 +363,205 @@ public class Memory {
         return read(address, wordSize);
     }
 
+    /**
+     * Reads one word from the memory at a certain address without copying it into a new object.
+     *
+     * @param address the address to begin to read from.
+     * @return the long interpretation of the word read from the memory at a certain address.
+     * @throws ReadOutOfBoundsException if the word is outside the readable memory.
+     */
+    public long readWord(int address) throws ReadOutOfBoundsException {
+        if (address < disallowedBytes || address > this.memorySize - wordSize) {
+            throw new ReadOutOfBoundsException(address);
+        }
+        return getWord(address);
+    }
+
+    /**
+     * Reads one word from the memory at a certain address and interprets it as a float of the word size.
+     *
+     * @param address the address to begin to read from.
+     * @return the double interpretation of the word read from the memory at a certain address.
+     * @throws ReadOutOfBoundsException if the word is outside the readable memory.
+     */
+    public double readDouble(int address) throws ReadOutOfBoundsException {
+        return word.wordToDouble(readWord(address));
+    }
+
+    /**
+     * Writes one word to the specified address, truncating the given value to the word size.
+     *
+     * @param address the address to write at.
+     * @param value   the value to write.
+     * @throws SimulationException if the word is outside the writable memory.
+     */
+    public void writeWord(int address, long value) throws SimulationException {
+        if (address < 0 || address > this.memorySize - wordSize) {
+            throw new WriteOutOfBoundsException(address);
+        } else if (address < offsetBytes) {
+            throw new WriteToReadOnlyException(address);
+        }
+        putWord(address, value);
+    }
+
+    /**
+     * Writes the word representation of a double to the specified address.
+     *
+     * @param address the address to write at.
+     * @param value   the value to write.
+     * @throws SimulationException if the word is outside the writable memory.
+     */
+    public void writeDouble(int address, double value) throws SimulationException {
+        writeWord(address, word.doubleToWord(value));
+    }
+
+    /**
+     * Reads the word at an address which is known to be in bounds.
+     *
+     * @param address the address of the word.
+     * @return the long interpretation of the word.
+     */
+    private long getWord(int address) {
+        byte[] array = memory;
+        int index = address;
+        if (array == null) {
+            index = address & PAGE_MASK;
+            if (index > PAGE_SIZE - wordSize) {
+                return getStraddlingWord(address);
+            }
+            array = pages[address >>> PAGE_SHIFT];
+            if (array == null) {
+                return 0;
+            }
+        }
+        return word.get(array, index);
+    }
+
+    /**
+     * Writes the word at an address which is known to be in bounds.
+     *
+     * @param address the address of the word.
+     * @param value   the value of the word.
+     */
+    private void putWord(int address, long value) {
+        byte[] array = memory;
+        int index = address;
+        if (array != null) {
+            markDirty(address >>> PAGE_SHIFT);
+            if ((address & PAGE_MASK) > PAGE_SIZE - wordSize) {
+                markDirty((address >>> PAGE_SHIFT) + 1);
+            }
+        } else {
+            index = address & PAGE_MASK;
+            if (index > PAGE_SIZE - wordSize) {
+                putStraddlingWord(address, value);
+                return;
+            }
+            array = page(address >>> PAGE_SHIFT);
+        }
+        word.set(array, index, value);
+    }
+
+    /**
+     * Reads a word of paged memory which begins in one page and ends in the next.
+     *
+     * @param address the address of the word.
+     * @return the long interpretation of the word.
+     */
+    private long getStraddlingWord(int address) {
+        byte[] data = new byte[wordSize];
+        copyOut(address, data);
+        return Conversion.bytesToLong(data);
+    }
+
+    /**
+     * Writes a word of paged memory which begins in one page and ends in the next.
+     *
+     * @param address the address of the word.
+     * @param value   the value of the word.
+     */
+    private void putStraddlingWord(int address, long value) {
+        byte[] data = new byte[wordSize];
+        for (int i = wordSize - 1; i >= 0; --i) {
+            data[i] = (byte) value;
+            value >>= 8;
+        }
+        copyIn(address, data);
+    }
+
+    /**
+     * Gets a page of paged memory, allocating it if it has not been written before.
+     *
+     * @param page the index of the page.
+     * @return the page.
+     */
+    private byte[] page(int page) {
+        byte[] array = pages[page];
+        if (array == null) {
+            array = new byte[PAGE_SIZE];
+            pages[page] = array;
+            markDirty(page);
+        }
+        return array;
+    }
+
+    /**
+     * Marks the given page as written to.
+     *
+     * @param page the index of the page.
+     */
+    private void markDirty(int page) {
+        dirtyPages[page >>> 6] |= 1L << page;
+    }
+
+    /**
+     * Copies bytes from memory into the given array. The range is assumed to be in bounds.
+     *
+     * @param address the address to begin copying from.
+     * @param data    the array to fill.
+     */
+    private void copyOut(int address, byte[] data) {
+        if (pages == null) {
+            System.arraycopy(memory, address, data, 0, data.length);
+            return;
+        }
+        int copied = 0;
+        while (copied < data.length) {
+            int current = address + copied;
+            int length = Math.min(data.length - copied, PAGE_SIZE - (current & PAGE_MASK));
+            byte[] array = pages[current >>> PAGE_SHIFT];
+            if (array == null) {
+                Arrays.fill(data, copied, copied + length, (byte) 0);
+            } else {
+                System.arraycopy(array, current & PAGE_MASK, data, copied, length);
+            }
+            copied += length;
+        }
+    }
+
+    /**
+     * Copies the bytes of the given array into memory. The range is assumed to be in bounds.
+     *
+     * @param address the address to begin copying to.
+     * @param data    the array to copy.
+     */
+    private void copyIn(int address, byte[] data) {
+        if (pages == null) {
+            System.arraycopy(data, 0, memory, address, data.length);
+            for (int page = address >>> PAGE_SHIFT; page <= (address + data.length - 1) >>> PAGE_SHIFT; ++page) {
+                markDirty(page);
+            }
+            return;
+        }
+        int copied = 0;
+        while (copied < data.length) {
+            int current = address + copied;
+            int length = Math.min(data.length - copied, PAGE_SIZE - (current & PAGE_MASK));
+            System.arraycopy(data, copied, page(current >>> PAGE_SHIFT), current & PAGE_MASK, length);
+            copied += length;
+        }
+    }
+
     /**
      * Writes data to the specified address.
      *
@@ -208,7 +574,7 @@ public class Memory {
         } else if (address < offsetBytes) {
             throw new WriteToReadOnlyException(address);
         }
-        System.arraycopy(data.data(), 0, memory, address, data.data().length);
+        copyIn(address, data.data());
     }
 
     /**
@@ -221,7 +587,7 @@ public class Memory {
         if (address < 0 || address + data.data().length > this.memorySize) {
             throw new WriteOutOfBoundsException(address);
         }
-        System.arraycopy(data.data(), 0, memory, address, data.data().length);
+        copyIn(address, data.data());
     }
 
     /**
@@ -237,12 +603,15 @@ public class Memory {
                 if (stringAlloc + string.length() >= offsetBytes) {
                     throw new SimulationException("Attempted to write more string immediate bytes then possible");
                 }
+                if (stringAlloc + (string.length() + 1) * wordSize > this.memorySize) {
+                    throw new WriteOutOfBoundsException(stringAlloc);
+                }
                 for (int i = 0; i < string.length(); ++i) {
-                    unsafeWrite(stringAlloc + i * wordSize, new RawData(string.charAt(i)));
+                    putWord(stringAlloc + i * wordSize, string.charAt(i));
                 }
-                unsafeWrite(stringAlloc + string.length() * wordSize, RawData.emptyBytes(wordSize));
+                putWord(stringAlloc + string.length() * wordSize, 0);
 
-                stringAddressMap.put(string, new RawData(stringAlloc));
+                stringAddressMap.put(string, new RawData(stringAlloc, wordSize));
                 stringAlloc += (string.length() + 1) * wordSize;
             }
         }
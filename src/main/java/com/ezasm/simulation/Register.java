@@ -6,22 +6,22 @@ import com.ezasm.util.RawData;
 
 /**
  * The representation of an individual register within the system's registers. Stores the register's own reference
- * number and the data corresponding to it.
+ * number and a reference to the register file which holds the data corresponding to it.
  */
 public class Register {
 
-    private final long number;
-    private final RawData data;
+    private final int number;
+    private final Registers registers;
 
     /**
-     * Constructs a register given a reference number and the system word size.
+     * Constructs a register given a reference number and the register file it is stored in.
      *
-     * @param number   the register's reference number.
-     * @param wordSize the system word size in bytes.
+     * @param number    the register's reference number.
+     * @param registers the register file storing the register's data.
      */
-    public Register(long number, int wordSize) {
+    Register(int number, Registers registers) {
         this.number = number;
-        this.data = RawData.emptyBytes(wordSize);
+        this.registers = registers;
     }
 
     /**
@@ -39,7 +39,7 @@ public class Register {
      * @return a copy of the bytes stored in the register.
      */
     public RawData getData() {
-        return data.copy();
+        return new RawData(getLong(), registers.getWordSize().bytes());
     }
 
     /**
@@ -48,7 +48,7 @@ public class Register {
      * @return the long interpretation of the data stored within the register.
      */
     public long getLong() {
-        return data.intValue();
+        return registers.getLong(number);
     }
 
     /**
@@ -57,7 +57,7 @@ public class Register {
      * @return the double interpretation of the data stored within the register.
      */
     public double getDouble() {
-        return data.floatValue();
+        return registers.getDouble(number);
     }
 
     /**
@@ -66,9 +66,7 @@ public class Register {
      * @param data the new data to write.
      */
     public void setData(RawData data) {
-        if (number != 0) {
-            setData(data.data());
-        }
+        setData(data.data());
     }
 
     /**
@@ -77,37 +75,41 @@ public class Register {
      * @param data the new data to write.
      */
     public void setDataWithGuiCallback(RawData data) {
-        setData(data);
+        setLongWithGuiCallback(Conversion.bytesToLong(data.data()));
+    }
+
+    /**
+     * Writes the given long to the register. Also performs any necessary corresponding GUI updates.
+     *
+     * @param data the long to write.
+     */
+    public void setLongWithGuiCallback(long data) {
+        setLong(data);
         if (Window.hasInstance()) { // GUI callback
-            Window.getInstance().getRegisterTable().addHighlightValue((int) this.number);
+            Window.getInstance().getRegisterTable().addHighlightValue(this.number);
         }
     }
 
     public void setData(byte[] data) {
-        if (number != 0)
-            System.arraycopy(data, 0, this.data.data(), 0, this.data.data().length);
+        setLong(Conversion.bytesToLong(data));
     }
 
     /**
-     * Writes the byte representation of the given long to the register.
+     * Writes the given long to the register.
      *
      * @param data the long to write.
      */
     public void setLong(long data) {
-        if (number != 0) {
-            setData(Conversion.longToBytes(data));
-        }
+        registers.setLong(number, data);
     }
 
     /**
-     * Writes the byte representation of the given double to the register.
+     * Writes the word representation of the given double to the register.
      *
      * @param data the double to write.
      */
     public void setDouble(double data) {
-        if (number != 0) {
-            setData(Conversion.doubleToBytes(data));
-        }
+        registers.setDouble(number, data);
     }
 
     /**
@@ -3,12 +3,16 @@ package com.ezasm.simulation;
 import java.util.*;
 
 /**
- * Represents all system registers within an array. Provides access to them by name and by reference number.
+ * Represents all system registers within an array. Provides access to them by name and by reference number. The values
+ * of all registers are stored in a single array of longs holding each register's word; the {@link Register} objects are
+ * views onto that array.
  */
 public class Registers {
 
-    private static int REGISTERS_COUNT = 54;
+    private static final int REGISTERS_COUNT;
 
+    private final WordSize word;
+    private final long[] values;
     private final Register[] registers;
 
     // Base registers
@@ -76,12 +80,13 @@ public class Registers {
     public static final String LO = "LO"; // Special "LOW" register to store the lower part of a multiplication
     public static final String HI = "HI"; // Special "HIGH" register to store the higher part of a multiplication
 
-    public static Map<String, Integer> registerByString;
-    public static Map<Integer, String> registerByInt;
+    private static final Map<String, Integer> registerByString = new HashMap<>();
+    private static final Map<Integer, String> registerByInt = new HashMap<>();
 
     /*
      * Initializes the registers and mappings in a static context whenever this code is loaded. This prevents the
-     * register mappings from ever being null.
+     * register mappings from ever being null, and they are never modified afterwards so every simulator may read them
+     * from any thread.
      */
     static {
         initialize();
@@ -92,8 +97,6 @@ public class Registers {
      * Initialization function for the registers. Creates both mapping of register number to String and vice-versa.
      */
     private static void initialize() {
-        registerByString = new HashMap<>();
-        registerByInt = new HashMap<>();
         addRegisters(ZERO, PID, FID, PC, SP, RA, A0, A1, A2, R0, R1, R2); // Add base registers
         addRegisters(LO, HI); // Add special registers
         addRegisters(S0, S1, S2, S3, S4, S5, S6, S7, S8, S9); // Add saved registers
@@ -194,18 +197,100 @@ public class Registers {
      * @param wordSize the given word size in bytes.
      */
     public Registers(int wordSize) {
+        this.word = WordSize.of(wordSize);
+        values = new long[REGISTERS_COUNT];
         registers = new Register[REGISTERS_COUNT];
         for (Integer i : registerByInt.keySet()) {
-            registers[i] = new Register(i, wordSize);
+            registers[i] = new Register(i, this);
         }
     }
 
+    /**
+     * Gets the word size of the registers.
+     *
+     * @return the word size.
+     */
+    public WordSize getWordSize() {
+        return word;
+    }
+
     /**
      * Sets the values of all bytes of all registers to zero.
      */
     public void reset() {
-        for (Integer i : registerByInt.keySet()) {
-            registers[i].setLong(0);
+        Arrays.fill(values, 0);
+    }
+
+    /**
+     * Copies the values of all registers.
+     *
+     * @return the copy of the values of all registers.
+     */
+    public long[] checkpoint() {
+        return values.clone();
+    }
+
+    /**
+     * Restores the values of all registers to a copy made by {@link #checkpoint()}.
+     *
+     * @param checkpoint the copy of the values of all registers to restore.
+     */
+    public void restore(long[] checkpoint) {
+        System.arraycopy(checkpoint, 0, values, 0, values.length);
+    }
+
+    /**
+     * Gets the array holding the values of all registers, indexed by reference number. Writes to the array bypass the
+     * truncation to the word size and the protection of the zero register, so they must perform both themselves.
+     *
+     * @return the array holding the values of all registers.
+     */
+    public long[] values() {
+        return values;
+    }
+
+    /**
+     * Gets the long interpretation of the word stored within the given register.
+     *
+     * @param register the reference number of the register to read.
+     * @return the long interpretation of the word stored within the register.
+     */
+    public long getLong(int register) {
+        return values[register];
+    }
+
+    /**
+     * Gets the double interpretation of the word stored within the given register.
+     *
+     * @param register the reference number of the register to read.
+     * @return the double interpretation of the word stored within the register.
+     */
+    public double getDouble(int register) {
+        return word.wordToDouble(values[register]);
+    }
+
+    /**
+     * Writes the given long to the given register truncated to the word size. Writes to the zero register are ignored.
+     *
+     * @param register the reference number of the register to write.
+     * @param value    the long to write.
+     */
+    public void setLong(int register, long value) {
+        if (register != 0) {
+            values[register] = word.truncate(value);
+        }
+    }
+
+    /**
+     * Writes the word representation of the given double to the given register. Writes to the zero register are
+     * ignored.
+     *
+     * @param register the reference number of the register to write.
+     * @param value    the double to write.
+     */
+    public void setDouble(int register, double value) {
+        if (register != 0) {
+            values[register] = word.doubleToWord(value);
         }
     }
 
@@ -1,25 +1,41 @@
 package com.ezasm.simulation;
 
 import com.ezasm.instructions.InstructionDispatcher;
+import com.ezasm.instructions.implementation.ImportInstructions;
+import com.ezasm.instructions.implementation.StreamManager;
+import com.ezasm.instructions.implementation.TerminalInstructions;
 import com.ezasm.instructions.exception.InstructionDispatchException;
-import com.ezasm.instructions.targets.inputoutput.RegisterInputOutput;
+import com.ezasm.instructions.targets.IAbstractTarget;
+import com.ezasm.instructions.targets.input.ImmediateInput;
+import com.ezasm.instructions.targets.input.LabelReferenceInput;
+import com.ezasm.instructions.targets.input.StringInput;
 import com.ezasm.parsing.Lexer;
 import com.ezasm.parsing.Line;
 import com.ezasm.parsing.ParseException;
+import com.ezasm.simulation.bytecode.BytecodeCompiler;
+import com.ezasm.simulation.bytecode.CompiledCode;
+import com.ezasm.simulation.closure.ClosureCompiler;
+import com.ezasm.simulation.closure.ClosureFile;
+import com.ezasm.simulation.closure.LineClosure;
+import com.ezasm.simulation.exception.ExecutionLimitException;
+import com.ezasm.simulation.exception.InstructionLimitException;
 import com.ezasm.simulation.exception.InvalidFileIdentifierException;
 import com.ezasm.simulation.exception.InvalidProgramCounterException;
 import com.ezasm.simulation.exception.SimulationException;
-import com.ezasm.simulation.transform.Transformation;
-import com.ezasm.simulation.transform.TransformationSequence;
-import com.ezasm.simulation.transform.transformable.InputOutputTransformable;
+import com.ezasm.simulation.exception.TimeLimitException;
+import com.ezasm.simulation.profile.Profiler;
+import com.ezasm.simulation.profile.SamplingProfiler;
+import com.ezasm.simulation.transform.TransformationJournal;
 import com.ezasm.util.FileIO;
-import com.ezasm.util.RawData;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An implementation of a simulator which manages the memory, registers, and lines of code in an instance of the EzASM
@@ -29,18 +45,77 @@ public class Simulator {
 
     public static final int MAIN_FILE_IDENTIFIER = 0;
 
+    /**
+     * The default number of most recent lines which can be undone directly. Lines older than that are undone by
+     * restoring a checkpoint and replaying forward.
+     */
+    public static final int DEFAULT_HISTORY_LIMIT = 0x1_0000;
+
+    /**
+     * The number of checkpoints kept before every other checkpoint is dropped and they are taken half as often.
+     */
+    private static final int MAX_CHECKPOINTS = 8;
+
+    /**
+     * The number of lines run between readings of the clock while a time limit is set.
+     */
+    private static final long TIME_CHECK_INTERVAL = 0x10_0000;
+
+    // Accesses to the registers and call depth from a sampler running on another thread
+    private static final VarHandle REGISTER = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle CALL_DEPTH;
+
+    static {
+        try {
+            CALL_DEPTH = MethodHandles.lookup().findVarHandle(Simulator.class, "callDepth", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final Memory memory;
     private final Registers registers;
+    private final WordSize wordSize;
+    private final StreamManager streams;
     private final InstructionDispatcher instructionDispatcher;
 
     private final Map<String, Integer> fileToIdentifier;
-    private final Map<Integer, List<Line>> fileIdToLineArray;
+    private final List<List<Line>> fileLines;
     private final Map<String, Pair<Integer, Long>> labelToFileIdAndLineNumber;
-    private final Deque<TransformationSequence> transforms;
+    private final Deque<Checkpoint> checkpoints;
+    private TransformationJournal journal;
+    private int initialCheckpointInterval;
+    private int checkpointInterval;
+    private long steps;
+    private long instructionCount;
+
+    // The limits on running the program, and the instruction count at which they are next checked
+    private long instructionLimit;
+    private long timeLimitNanos;
+    private long deadline;
+    private long nextLimitCheck;
+
+    // The lines of all files laid out one after another, with the offset and length of each file's lines
+    private Line[] lines;
+    private int[] fileOffsets;
+    private int[] fileLengths;
+    private boolean linked;
+
+    // The compiled code and closures of each file, created upon first use
+    private CompiledCode[] compiledFiles;
+    private ClosureFile[] closureFiles;
 
     private final Register pc;
     private final Register fi;
     private String executionDirectory;
+    private boolean historyEnabled;
+    private Engine engine;
+    private Profiler profiler;
+    private SamplingProfiler sampler;
+    private int callDepth;
+    private boolean replaying;
+    // The most recent step which read input, as lines which read from an input which cannot seek cannot be replayed
+    private long lastInputStep;
 
     /**
      * Constructs a Simulator with the given word size and memory size specifications.
@@ -49,19 +124,43 @@ public class Simulator {
      * @param memorySize the size of the memory in words for the program.
      */
     public Simulator(int wordSize, int memorySize) {
-        this.memory = new Memory(wordSize, memorySize);
+        this(wordSize, memorySize, false);
+    }
+
+    /**
+     * Constructs a Simulator with the given word size and memory size specifications and either contiguous or paged
+     * memory.
+     *
+     * @param wordSize    the size of words in bytes for the program.
+     * @param memorySize  the size of the memory in words for the program.
+     * @param pagedMemory whether to allocate memory in pages upon first write instead of all at once.
+     */
+    public Simulator(int wordSize, int memorySize, boolean pagedMemory) {
+        this.memory = new Memory(wordSize, memorySize, pagedMemory);
         this.registers = new Registers(wordSize);
+        this.wordSize = memory.getWordSize();
+        this.streams = new StreamManager(TerminalInstructions.DEFAULT_INPUT_STREAM,
+                TerminalInstructions.DEFAULT_OUTPUT_STREAM);
         this.instructionDispatcher = new InstructionDispatcher(this);
 
         this.fileToIdentifier = new HashMap<>();
-        this.fileIdToLineArray = new HashMap<>();
+        this.fileLines = new ArrayList<>();
+        this.fileLines.add(new ArrayList<>());
         this.labelToFileIdAndLineNumber = new HashMap<>();
-        this.transforms = new ArrayDeque<>();
+        this.checkpoints = new ArrayDeque<>();
+        this.journal = new TransformationJournal(DEFAULT_HISTORY_LIMIT);
+        this.initialCheckpointInterval = DEFAULT_HISTORY_LIMIT / 4;
+        this.checkpointInterval = initialCheckpointInterval;
 
         this.pc = registers.getRegister(Registers.PC);
         this.fi = registers.getRegister(Registers.FID);
         this.executionDirectory = "";
+        this.historyEnabled = true;
+        this.engine = Engine.INTERPRETER;
+        this.instructionLimit = Long.MAX_VALUE;
+        this.nextLimitCheck = Long.MAX_VALUE;
 
+        layout();
         initialize();
     }
 
@@ -79,6 +178,14 @@ public class Simulator {
     public void resetData() {
         memory.reset();
         registers.reset();
+        instructionCount = 0;
+        callDepth = 0;
+        if (profiler != null) {
+            profiler.reset();
+        }
+        if (sampler != null) {
+            sampler.reset();
+        }
     }
 
     /**
@@ -87,14 +194,25 @@ public class Simulator {
     public void resetAll() {
         resetData();
         fileToIdentifier.clear();
-        fileIdToLineArray.clear();
+        fileLines.clear();
+        fileLines.add(new ArrayList<>());
         labelToFileIdAndLineNumber.clear();
-        transforms.clear();
+        layout();
+        clearHistory();
         initialize();
     }
 
-    private List<Line> currentFileLines() {
-        return Objects.requireNonNullElse(fileIdToLineArray.get((int) fi.getLong()), new ArrayList<>());
+    /**
+     * Gets the number of lines in the file with the given identifier.
+     *
+     * @param fileId the file identifier.
+     * @return the number of lines in the file, or zero if there is no such file.
+     */
+    private int fileLength(long fileId) {
+        if (!linked) {
+            layout();
+        }
+        return fileId >= 0 && fileId < fileLengths.length ? fileLengths[(int) fileId] : 0;
     }
 
     /**
@@ -103,7 +221,8 @@ public class Simulator {
      * @return true if the program has run off of the end of the code as in program completion, false otherwise.
      */
     public boolean isDone() {
-        return fileIdToLineArray.isEmpty() || pc.getLong() == currentFileLines().size();
+        int length = fileLength(fi.getLong());
+        return lines.length == 0 || pc.getLong() == length;
     }
 
     /**
@@ -113,7 +232,8 @@ public class Simulator {
      */
     public boolean isError() {
         long line = pc.getLong();
-        return !fileIdToLineArray.isEmpty() && (line > currentFileLines().size() || line < 0);
+        int length = fileLength(fi.getLong());
+        return lines.length != 0 && (line > length || line < 0);
     }
 
     /**
@@ -123,15 +243,15 @@ public class Simulator {
      * @param fileId a number representing the file in which this line originated.
      */
     private void addLine(Line line, int fileId) throws ParseException {
-        fileIdToLineArray.computeIfAbsent(fileId, k -> new ArrayList<>());
+        List<Line> file = fileLines.get(fileId);
         if (line.isLabel()) {
             if (labelToFileIdAndLineNumber.containsKey(line.getLabel())) {
                 throw new ParseException(String.format("Label %s already declared", line.getLabel()));
             }
-            labelToFileIdAndLineNumber.put(line.getLabel(),
-                    new ImmutablePair<>(fileId, (long) fileIdToLineArray.get(fileId).size()));
+            labelToFileIdAndLineNumber.put(line.getLabel(), new ImmutablePair<>(fileId, (long) file.size()));
         }
-        fileIdToLineArray.get(fileId).add(line);
+        file.add(line);
+        linked = false;
         try {
             memory.addStringImmediates(line.getStringImmediates());
         } catch (SimulationException e) {
@@ -154,15 +274,17 @@ public class Simulator {
      * @param file the relative path from the main file to the file to read lines from.
      */
     public void importLinesFromFile(String file) throws ParseException {
-        String absoluteFilePath = executionDirectory + File.separator + file;
-        if (fileToIdentifier.containsKey(absoluteFilePath)) {
+        File importedFile = executionDirectory.isEmpty() ? new File(file) : new File(executionDirectory, file);
+        String canonicalFilePath = canonicalPath(importedFile);
+        if (fileToIdentifier.containsKey(canonicalFilePath)) {
             return;
         }
-        int fileId = fileToIdentifier.size();
-        fileToIdentifier.put(absoluteFilePath, fileId);
+        int fileId = fileLines.size();
+        fileToIdentifier.put(canonicalFilePath, fileId);
+        fileLines.add(new ArrayList<>());
 
         try {
-            String contentText = FileIO.readFile(new File(absoluteFilePath));
+            String contentText = FileIO.readFile(importedFile);
             List<Line> content = Lexer.parseLines(contentText);
             for (Line line : content) {
                 addLine(line, fileId);
@@ -173,7 +295,21 @@ public class Simulator {
     }
 
     /**
-     * Adds the given lines to the main program. Then adds those lines to the program.
+     * Gets the canonical path of the given file so that every path to the same file is identified as the same file.
+     *
+     * @param file the file.
+     * @return the canonical path of the file, or the absolute path if it cannot be determined.
+     */
+    private static String canonicalPath(File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    /**
+     * Adds the given lines to the main program. Then adds those lines to the program and links it.
      *
      * @param lines    the lines
      * @param mainFile the main program file.
@@ -182,10 +318,106 @@ public class Simulator {
         String parent = mainFile.getParent();
         parent = Objects.requireNonNullElse(parent, "");
         this.executionDirectory = parent;
-        fileToIdentifier.put(mainFile.getAbsolutePath(), MAIN_FILE_IDENTIFIER);
+        fileToIdentifier.put(canonicalPath(mainFile), MAIN_FILE_IDENTIFIER);
         for (Line line : lines) {
             addLine(line, MAIN_FILE_IDENTIFIER);
         }
+        link();
+    }
+
+    /**
+     * Links the program: imports every file named by an import instruction in the program, including those in imported
+     * files, then lays out the lines of all files one after another so that each file identifier and program counter
+     * corresponds to a single index. Finally, resolves every label reference to the location of its label.
+     *
+     * @throws ParseException if an imported file cannot be read or parsed or a referenced label does not exist.
+     */
+    public void link() throws ParseException {
+        for (int fileId = 0; fileId < fileLines.size(); ++fileId) {
+            for (Line line : fileLines.get(fileId)) {
+                if (!line.isLabel() && line.getInstruction().target().parent() == ImportInstructions.class) {
+                    String file = ((StringInput) line.getArguments()[0]).getString();
+                    try {
+                        importLinesFromFile(file);
+                    } catch (ParseException e) {
+                        throw new ParseException(String.format("Error importing %s: %s", file, e.getMessage()));
+                    }
+                }
+            }
+        }
+        layout();
+        resolveLabelReferences();
+    }
+
+    /**
+     * Resolves every label reference in the program to the file id and line number of its label.
+     *
+     * @throws ParseException if a referenced label does not exist.
+     */
+    private void resolveLabelReferences() throws ParseException {
+        for (Line line : lines) {
+            if (line.isLabel()) {
+                continue;
+            }
+            for (IAbstractTarget argument : line.getArguments()) {
+                if (argument instanceof LabelReferenceInput reference) {
+                    Pair<Integer, Long> location = labelToFileIdAndLineNumber.get(reference.getLabel());
+                    if (location == null) {
+                        throw new ParseException(String.format("Label '%s' does not exist", reference.getLabel()));
+                    }
+                    reference.resolve(location.getLeft(), location.getRight());
+                }
+            }
+        }
+    }
+
+    /**
+     * Lays out the lines of all files one after another.
+     */
+    private void layout() {
+        int total = 0;
+        for (List<Line> file : fileLines) {
+            total += file.size();
+        }
+        lines = new Line[total];
+        fileOffsets = new int[fileLines.size()];
+        fileLengths = new int[fileLines.size()];
+        int offset = 0;
+        for (int fileId = 0; fileId < fileLines.size(); ++fileId) {
+            List<Line> file = fileLines.get(fileId);
+            fileOffsets[fileId] = offset;
+            fileLengths[fileId] = file.size();
+            for (Line line : file) {
+                lines[offset++] = line;
+            }
+        }
+        compiledFiles = new CompiledCode[fileLines.size()];
+        closureFiles = new ClosureFile[fileLines.size()];
+        linked = true;
+        if (profiler != null || sampler != null) {
+            linkProfilers();
+        }
+    }
+
+    /**
+     * Links the profiler and sampler to the current layout of the program, naming each file by its path.
+     */
+    private void linkProfilers() {
+        String[] fileNames = new String[fileLines.size()];
+        for (Map.Entry<String, Integer> entry : fileToIdentifier.entrySet()) {
+            if (entry.getValue() < fileNames.length) {
+                fileNames[entry.getValue()] = Profiler.fileName(entry.getKey());
+            }
+        }
+        for (int fileId = 0; fileId < fileNames.length; ++fileId) {
+            fileNames[fileId] = Objects.requireNonNullElse(fileNames[fileId], Profiler.fileName(null));
+        }
+        if (profiler != null) {
+            profiler.link(lines, fileOffsets, fileNames);
+        }
+        if (sampler != null) {
+            sampler.link(lines, fileOffsets, fileNames);
+        }
     }
 
     /**
@@ -195,24 +427,251 @@ public class Simulator {
      * @throws InstructionDispatchException if there is an error executing the line.
      */
     public void runLine(Line line) throws SimulationException {
-        if (line.isLabel()) {
-            applyTransformations(new TransformationSequence());
-        } else {
+        instructionCount++;
+        runCountedLine(line);
+    }
+
+    /**
+     * Executes the given line on the simulator without adding it to the instruction count, for engines which have
+     * already counted the line before handing it to the interpreter.
+     *
+     * @param line the line to execute.
+     * @throws InstructionDispatchException if there is an error executing the line.
+     */
+    public void runCountedLine(Line line) throws SimulationException {
+        if (historyEnabled) {
+            beginStep();
+        }
+        if (!line.isLabel()) {
             instructionDispatcher.execute(line);
         }
+        transformRegister((int) pc.getNumber(), pc.getLong() + 1);
     }
 
     /**
-     * Runs the program continuously until completion or error.
+     * Gets the line execution continues from after jumping to the given target, for engines which bind jumps ahead of
+     * time. As the program counter is incremented after every line, that is the line after the one referred to.
      *
-     * @throws SimulationException if there is an error executing the program.
+     * @param target     the target of the jump.
+     * @param fileLength the number of lines in the file the jump is in.
+     * @return the line, or -1 if the target is not constant or not within the file.
+     */
+    public int lineAfterJump(IAbstractTarget target, int fileLength) {
+        long line;
+        try {
+            if (target instanceof LabelReferenceInput label) {
+                line = label.getLong(this);
+            } else if (target instanceof ImmediateInput immediate) {
+                line = immediate.getLong(this);
+            } else {
+                return -1;
+            }
+        } catch (SimulationException e) {
+            return -1;
+        }
+        return line + 1 >= 0 && line + 1 <= fileLength ? (int) line + 1 : -1;
+    }
+
+    /**
+     * Runs the program continuously until completion, error, or until it exceeds the instruction or time limit. The
+     * limits are not checked on every line: the interpreter compares the instruction count against the next checkpoint
+     * once per line, while compiled code and closures only do so upon jumping backwards, which ends every loop. The
+     * clock is only read once every {@value #TIME_CHECK_INTERVAL} lines, so a program may run slightly past either
+     * limit before it is stopped. While a profiler is attached, every program runs on the interpreter so that each line
+     * is counted. While a sampler is attached, it samples the program for as long as it runs, and compiled code is run
+     * as closures instead, as compiled code does not keep the program counter up to date for the sampler to read.
+     *
+     * @throws SimulationException     if there is an error executing the program.
+     * @throws ExecutionLimitException if the program exceeds the instruction or time limit.
      */
     public void executeProgramFromPC() throws SimulationException {
+        deadline = System.nanoTime() + timeLimitNanos;
+        scheduleLimitCheck();
+        if (sampler == null) {
+            runProgramFromPC();
+            return;
+        }
+        if (runningEngine() == Engine.CLOSURE) {
+            // Bind every file first, so that the time taken to bind them is not sampled as the line the program is on
+            if (!linked) {
+                layout();
+            }
+            for (int fileId = 0; fileId < closureFiles.length; ++fileId) {
+                closureFile(fileId);
+            }
+        }
+        sampler.start(this);
+        try {
+            runProgramFromPC();
+        } finally {
+            sampler.stop();
+        }
+    }
+
+    /**
+     * Gets the engine the program is actually run on, as history and profilers need the interpreter and the sampler
+     * cannot follow compiled code.
+     *
+     * @return the engine.
+     */
+    private Engine runningEngine() {
+        if (historyEnabled || profiler != null) {
+            return Engine.INTERPRETER;
+        }
+        return sampler != null && engine == Engine.BYTECODE ? Engine.CLOSURE : engine;
+    }
+
+    /**
+     * Runs the program continuously on the engine in use until completion, error, or until it exceeds the instruction
+     * or time limit.
+     *
+     * @throws SimulationException if there is an error executing the program.
+     */
+    private void runProgramFromPC() throws SimulationException {
+        Engine engine = runningEngine();
+        if (engine == Engine.BYTECODE) {
+            executeCompiledProgramFromPC();
+            return;
+        } else if (engine == Engine.CLOSURE) {
+            executeClosuresFromPC();
+            return;
+        }
         while (!isDone() && !isError()) {
+            if (instructionCount >= nextLimitCheck) {
+                checkLimits();
+            }
             executeLineFromPC();
         }
     }
 
+    /**
+     * Stops the program if it has exceeded the instruction or time limit, and otherwise schedules the next check.
+     *
+     * @throws ExecutionLimitException if the program has exceeded the instruction or time limit.
+     */
+    private void checkLimits() throws ExecutionLimitException {
+        if (instructionCount >= instructionLimit) {
+            throw new InstructionLimitException(instructionLimit);
+        }
+        if (timeLimitNanos > 0 && System.nanoTime() - deadline >= 0) {
+            throw new TimeLimitException(getTimeLimit());
+        }
+        scheduleLimitCheck();
+    }
+
+    /**
+     * Sets the instruction count at which the limits are next checked: the instruction limit, or sooner if the clock
+     * must be read before then.
+     */
+    private void scheduleLimitCheck() {
+        nextLimitCheck = timeLimitNanos > 0 ? Math.min(instructionLimit, instructionCount + TIME_CHECK_INTERVAL)
+                : instructionLimit;
+    }
+
+    /**
+     * Runs the program continuously until completion or error, running compiled code wherever it can and the
+     * interpreter for the lines which were not compiled.
+     *
+     * @throws SimulationException if there is an error executing the program.
+     */
+    private void executeCompiledProgramFromPC() throws SimulationException {
+        long[] values = registers.values();
+        // The number of compiled lines run, and the number which may run before returning to check the limits
+        long[] executed = new long[2];
+        while (!isDone() && !isError()) {
+            if (instructionCount >= nextLimitCheck) {
+                checkLimits();
+            }
+            int fileId = validateFID();
+            executed[0] = 0;
+            executed[1] = nextLimitCheck - instructionCount;
+            try {
+                pc.setLong(compiledFile(fileId).run(values, validatePC(fileId), executed));
+            } finally {
+                instructionCount += executed[0];
+            }
+            if (!isDone()) {
+                executeLineFromPC();
+            }
+        }
+    }
+
+    /**
+     * Runs the program continuously until completion or error by running the closure bound to each line.
+     *
+     * @throws SimulationException if there is an error executing the program.
+     */
+    private void executeClosuresFromPC() throws SimulationException {
+        long[] values = registers.values();
+        int programCounter = (int) pc.getNumber();
+        while (!isDone() && !isError()) {
+            if (instructionCount >= nextLimitCheck) {
+                checkLimits();
+            }
+            int fileId = validateFID();
+            ClosureFile file = closureFile(fileId);
+            LineClosure[] closures = file.closures();
+            int[] lineCounts = file.lineCounts();
+            int lineNumber = validatePC(fileId);
+            long executed = 0;
+            long budget = nextLimitCheck - instructionCount;
+            try {
+                while (lineNumber >= 0 && lineNumber < closures.length) {
+                    // Keep the program counter on the line being run in case it fails
+                    values[programCounter] = lineNumber;
+                    executed += lineCounts[lineNumber];
+                    int previous = lineNumber;
+                    lineNumber = closures[lineNumber].execute(values, lineNumber);
+                    if (lineNumber <= previous && executed >= budget) {
+                        break;
+                    }
+                }
+            } catch (SimulationException e) {
+                // A fused line which failed on its first line never ran the second
+                if (values[programCounter] == lineNumber && lineCounts[lineNumber] > 1) {
+                    executed -= lineCounts[lineNumber] - 1;
+                }
+                throw e;
+            } finally {
+                instructionCount += executed;
+            }
+            if (lineNumber != LineClosure.RESUME_FROM_PC) {
+                pc.setLong(lineNumber);
+            }
+        }
+    }
+
+    /**
+     * Gets the closures of the file with the given identifier, binding them if they have not been yet.
+     *
+     * @param fileId the file identifier.
+     * @return the closures bound to the lines of the file.
+     */
+    private ClosureFile closureFile(int fileId) {
+        ClosureFile closures = closureFiles[fileId];
+        if (closures == null) {
+            closures = ClosureCompiler.compile(this, lines, fileOffsets[fileId], fileLengths[fileId], wordSize.bytes());
+            closureFiles[fileId] = closures;
+        }
+        return closures;
+    }
+
+    /**
+     * Gets the compiled code of the file with the given identifier, compiling it if it has not been yet.
+     *
+     * @param fileId the file identifier.
+     * @return the compiled code of the file.
+     */
+    private CompiledCode compiledFile(int fileId) {
+        CompiledCode compiled = compiledFiles[fileId];
+        if (compiled == null) {
+            compiled = BytecodeCompiler.compile(this, lines, fileOffsets[fileId], fileLengths[fileId],
+                    wordSize.bytes());
+            compiledFiles[fileId] = compiled;
+        }
+        return compiled;
+    }
+
     /**
      * Runs a single line of code from the current PC.
      *
@@ -220,25 +679,322 @@ public class Simulator {
      */
     public void executeLineFromPC() throws SimulationException {
         // Ensure a valid file identifier and program counter within that file
-        validateFID();
-        int lineNumber = validatePC();
+        int fileId = validateFID();
+        int lineNumber = validatePC(fileId);
+
+        int index = fileOffsets[fileId] + lineNumber;
+        if (profiler != null && !replaying) {
+            profiler.count(index);
+        }
+        runLine(lines[index]);
+    }
+
+    /**
+     * Sets the given register to the given value as part of the current line, recording its previous value so that the
+     * line can be undone.
+     *
+     * @param register the register number.
+     * @param value    the new value of the register.
+     */
+    public void transformRegister(int register, long value) {
+        if (historyEnabled) {
+            journal.record(TransformationJournal.REGISTER, register, registers.getLong(register));
+        }
+        if (replaying) {
+            // The state shown once the undo is over is what matters, not every register the replay passed through
+            registers.setLong(register, value);
+        } else {
+            registers.getRegister(register).setLongWithGuiCallback(value);
+        }
+    }
+
+    /**
+     * Writes the given word to memory as part of the current line, recording the previous word so that the line can be
+     * undone.
+     *
+     * @param address the address to write to.
+     * @param value   the new word.
+     * @throws SimulationException if the address cannot be read from or written to.
+     */
+    public void transformMemory(int address, long value) throws SimulationException {
+        if (!historyEnabled) {
+            memory.writeWord(address, value);
+            return;
+        }
+        long previous = memory.readWord(address);
+        memory.writeWord(address, value);
+        journal.record(TransformationJournal.MEMORY, address, previous);
+    }
+
+    /**
+     * Moves the heap pointer as part of the current line, recording its previous position so that the line can be
+     * undone.
+     *
+     * @param address the new heap pointer.
+     * @throws SimulationException if the heap pointer cannot be moved to the given address.
+     */
+    public void transformHeapPointer(int address) throws SimulationException {
+        int previous = memory.currentHeapPointer();
+        memory.setHeapPointer(address);
+        if (historyEnabled) {
+            journal.record(TransformationJournal.HEAP_POINTER, 0, previous);
+        }
+    }
+
+    /**
+     * Records the position of the input cursor before the current line read from the input so that the line can be
+     * undone.
+     *
+     * @param previous the position of the input cursor before reading.
+     */
+    public void recordInputCursor(long previous) {
+        if (historyEnabled) {
+            journal.record(TransformationJournal.INPUT_CURSOR, 0, previous);
+            lastInputStep = steps;
+        }
+    }
+
+    /**
+     * Enables or disables recording of the transformations made by each line. Without history lines apply their effects
+     * directly and cannot be undone, which is faster and keeps memory use constant for runs which never step back.
+     * Disabling history discards any history already recorded.
+     *
+     * @param historyEnabled true to record history so that lines can be undone, false otherwise.
+     */
+    public void setHistoryEnabled(boolean historyEnabled) {
+        this.historyEnabled = historyEnabled;
+        if (!historyEnabled) {
+            clearHistory();
+        }
+    }
+
+    /**
+     * Sets the engine used to run the program to completion. Engines other than the interpreter are only used while
+     * history is disabled, as they apply the effects of lines directly.
+     *
+     * @param engine the engine.
+     */
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Gets the engine used to run the program to completion.
+     *
+     * @return the engine.
+     */
+    public Engine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Attaches a profiler which counts every line run from the program counter, and links it to the current program.
+     * Without a profiler, counting costs a single null check per line run by the interpreter. Profiles cover forward
+     * execution only: undoing a line does not uncount it, and lines replayed to undo past the most recent lines are not
+     * counted again.
+     *
+     * @param profiler the profiler, or null to stop profiling.
+     */
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+        if (profiler != null) {
+            if (!linked) {
+                layout();
+            } else {
+                linkProfilers();
+            }
+        }
+    }
+
+    /**
+     * Gets the profiler attached to the simulator.
+     *
+     * @return the profiler, or null if the simulator is not profiling.
+     */
+    public Profiler getProfiler() {
+        return profiler;
+    }
 
-        runLine(currentFileLines().get(lineNumber));
+    /**
+     * Attaches a sampler which samples every program run to completion by {@link #executeProgramFromPC()}, and links it
+     * to the current program.
+     *
+     * @param sampler the sampler, or null to stop sampling.
+     */
+    public void setSampler(SamplingProfiler sampler) {
+        this.sampler = sampler;
+        if (sampler != null) {
+            if (!linked) {
+                layout();
+            } else {
+                linkProfilers();
+            }
+        }
+    }
+
+    /**
+     * Gets the sampler attached to the simulator.
+     *
+     * @return the sampler, or null if the simulator is not sampling.
+     */
+    public SamplingProfiler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * Reads the line the program is on from another thread. The interpreter and closures already write the program
+     * counter to the registers before every line, so this reads the registers without synchronizing with the thread
+     * running the program rather than having that thread publish its position; the file identifier and program counter
+     * may be read a line apart.
+     *
+     * @return the index of the line in the linked program, or -1 if the program is not on a line.
+     */
+    public int samplePosition() {
+        long[] values = registers.values();
+        long fileId = (long) REGISTER.getOpaque(values, (int) fi.getNumber());
+        long lineNumber = (long) REGISTER.getOpaque(values, (int) pc.getNumber());
+        int[] offsets = fileOffsets;
+        int[] lengths = fileLengths;
+        if (fileId < 0 || fileId >= lengths.length || lineNumber < 0 || lineNumber >= lengths[(int) fileId]) {
+            return -1;
+        }
+        return offsets[(int) fileId] + (int) lineNumber;
     }
 
     /**
-     * Applies the given transformation sequence to the simulation.
+     * Reads the number of calls which have not yet returned from another thread.
      *
-     * @param t the transformation sequence to apply.
+     * @return the call depth.
+     */
+    public int sampleCallDepth() {
+        return (int) CALL_DEPTH.getOpaque(this);
+    }
+
+    /**
+     * Records that a function was called.
+     */
+    public void enterCall() {
+        recordCallDepth();
+        CALL_DEPTH.setOpaque(this, callDepth + 1);
+    }
+
+    /**
+     * Records that a function returned.
+     */
+    public void leaveCall() {
+        if (callDepth > 0) {
+            recordCallDepth();
+            CALL_DEPTH.setOpaque(this, callDepth - 1);
+        }
+    }
+
+    private void recordCallDepth() {
+        if (historyEnabled) {
+            journal.record(TransformationJournal.CALL_DEPTH, 0, callDepth);
+        }
+    }
+
+    /**
+     * Sets the number of calls which have not yet returned without recording it, to undo a call or return.
      *
-     * @throws SimulationException if there is an error in applying the transformation.
+     * @param callDepth the call depth.
      */
-    public void applyTransformations(TransformationSequence t) throws SimulationException {
-        t.apply();
-        InputOutputTransformable io = new InputOutputTransformable(this, new RegisterInputOutput(Registers.PC));
-        Transformation endOfLine = io.transformation(new RawData(io.get().intValue() + 1));
-        endOfLine.apply();
-        transforms.push(t.concatenate(new TransformationSequence(endOfLine)));
+    public void setCallDepth(int callDepth) {
+        CALL_DEPTH.setOpaque(this, callDepth);
+    }
+
+    /**
+     * Sets the greatest number of lines which may run since the simulator was last reset before running the program to
+     * completion stops with an {@link InstructionLimitException}.
+     *
+     * @param instructionLimit the greatest number of lines, or zero or less for no limit.
+     */
+    public void setInstructionLimit(long instructionLimit) {
+        this.instructionLimit = instructionLimit > 0 ? instructionLimit : Long.MAX_VALUE;
+    }
+
+    /**
+     * Gets the greatest number of lines which may run since the simulator was last reset.
+     *
+     * @return the greatest number of lines, or zero if there is no limit.
+     */
+    public long getInstructionLimit() {
+        return instructionLimit == Long.MAX_VALUE ? 0 : instructionLimit;
+    }
+
+    /**
+     * Sets the longest time a single run of the program to completion may take before it stops with a
+     * {@link TimeLimitException}.
+     *
+     * @param milliseconds the longest time in milliseconds, or zero or less for no limit.
+     */
+    public void setTimeLimit(long milliseconds) {
+        this.timeLimitNanos = milliseconds > 0 ? TimeUnit.MILLISECONDS.toNanos(milliseconds) : 0;
+    }
+
+    /**
+     * Gets the longest time a single run of the program to completion may take.
+     *
+     * @return the longest time in milliseconds, or zero if there is no limit.
+     */
+    public long getTimeLimit() {
+        return TimeUnit.NANOSECONDS.toMillis(timeLimitNanos);
+    }
+
+    /**
+     * Sets the number of most recent lines which can be undone directly. A checkpoint of the registers and written
+     * memory is taken every quarter of that many lines, so lines older than that are undone by restoring the nearest
+     * checkpoint and replaying forward from it. Once there are too many checkpoints every other one is dropped and they
+     * are taken half as often, so that they span the whole history and replaying never starts far behind. Discards any
+     * history already recorded.
+     *
+     * @param historyLimit the number of most recent lines which can be undone directly.
+     */
+    public void setHistoryLimit(int historyLimit) {
+        this.journal = new TransformationJournal(historyLimit);
+        this.initialCheckpointInterval = Math.max(1, historyLimit / 4);
+        clearHistory();
+    }
+
+    /**
+     * Discards all recorded history. The state of the simulation when the next line runs becomes the earliest state
+     * which can be returned to.
+     */
+    private void clearHistory() {
+        journal.clear();
+        checkpoints.clear();
+        checkpointInterval = initialCheckpointInterval;
+        steps = 0;
+        lastInputStep = 0;
+    }
+
+    /**
+     * Begins recording the history of a line, first taking a checkpoint if one is due.
+     */
+    private void beginStep() {
+        if (steps % checkpointInterval == 0 && (checkpoints.isEmpty() || checkpoints.getLast().step() != steps)) {
+            if (checkpoints.size() > MAX_CHECKPOINTS) {
+                // Thin out the checkpoints rather than dropping the middle of the history, keeping the one of the state
+                // before the first line
+                checkpointInterval *= 2;
+                checkpoints.removeIf(checkpoint -> checkpoint.step() % checkpointInterval != 0);
+            }
+            if (steps % checkpointInterval == 0) {
+                checkpoints.addLast(new Checkpoint(steps, registers.checkpoint(), memory.checkpoint(),
+                        streams.getCursor(), callDepth));
+            }
+        }
+        journal.beginStep();
+        steps++;
+    }
+
+    /**
+     * Returns true if the transformations made by each line are recorded so that they can be undone, false otherwise.
+     *
+     * @return true if the transformations made by each line are recorded so that they can be undone, false otherwise.
+     */
+    public boolean isHistoryEnabled() {
+        return historyEnabled;
     }
 
     /**
@@ -248,32 +1004,107 @@ public class Simulator {
      * @throws SimulationException if an error occurs in the transformation.
      */
     public boolean undoLastTransformations() throws SimulationException {
-        if (transforms.isEmpty()) {
+        if (steps == 0) {
             return false;
         }
-        transforms.pop().invert().apply();
+        if (journal.undoStep(this)) {
+            steps--;
+        } else if (!replayTo(steps - 1)) {
+            return false;
+        }
+        while (!checkpoints.isEmpty() && checkpoints.getLast().step() > steps) {
+            checkpoints.removeLast();
+        }
         return true;
     }
 
+    /**
+     * Returns to the state after the given number of lines by restoring the nearest checkpoint before it and running
+     * lines forward from there with output muted and without counting them in the profiler or the instruction count.
+     *
+     * @param step the number of lines after which to return to the state.
+     * @return true if the state was returned to, false if there is no checkpoint before it or lines since the
+     *         checkpoint read from an input which cannot seek back to replay them.
+     * @throws SimulationException if an error occurs restoring the checkpoint or running lines.
+     */
+    private boolean replayTo(long step) throws SimulationException {
+        Checkpoint checkpoint = null;
+        for (Iterator<Checkpoint> it = checkpoints.descendingIterator(); it.hasNext() && checkpoint == null;) {
+            Checkpoint current = it.next();
+            if (current.step() <= step) {
+                checkpoint = current;
+            }
+        }
+        if (checkpoint == null || (lastInputStep > checkpoint.step() && !streams.isInputSeekable())) {
+            return false;
+        }
+
+        registers.restore(checkpoint.registers());
+        memory.restore(checkpoint.memory());
+        streams.moveCursor(checkpoint.inputCursor());
+        setCallDepth(checkpoint.callDepth());
+        journal.clear();
+        steps = checkpoint.step();
+        while (checkpoints.getLast() != checkpoint) {
+            checkpoints.removeLast();
+        }
+
+        // Replayed lines already ran once, so they count neither in the profiler nor towards the instruction count
+        long replayedFrom = instructionCount;
+        streams.setOutputMuted(true);
+        replaying = true;
+        try {
+            while (steps < step) {
+                executeLineFromPC();
+            }
+        } finally {
+            replaying = false;
+            streams.setOutputMuted(false);
+            instructionCount = replayedFrom;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of lines which have been run since history was last cleared and not undone.
+     *
+     * @return the number of lines which have been run since history was last cleared and not undone.
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Gets the number of lines which have been run since the simulator was last reset, regardless of the engine which
+     * ran them and including any which were undone.
+     *
+     * @return the number of lines run since the last reset.
+     */
+    public long getInstructionCount() {
+        return instructionCount;
+    }
+
     /**
      * Gets the last valid program counter.
      *
      * @return the last valid program counter.
      */
     public long endPC() {
-        return currentFileLines().size() - 1;
+        return fileLength(fi.getLong()) - 1;
     }
 
     /**
-     * A helper function to validate the state of the PC register.
+     * A helper function to validate the state of the PC register as a line within the given file.
      *
+     * @param fileId the validated FID.
      * @return the validated PC.
      */
-    private int validatePC() throws InvalidProgramCounterException {
-        if (isError()) {
-            throw new InvalidProgramCounterException(pc.getLong());
+    private int validatePC(int fileId) throws InvalidProgramCounterException {
+        long line = pc.getLong();
+        if (line < 0 || line >= fileLengths[fileId]) {
+            throw new InvalidProgramCounterException(line);
         }
-        return (int) pc.getLong();
+        return (int) line;
     }
 
     /**
@@ -282,11 +1113,14 @@ public class Simulator {
      * @return the validated FID.
      */
     private int validateFID() throws InvalidFileIdentifierException {
-        int fid = (int) registers.getRegister(Registers.FID).getLong();
-        if (!fileIdToLineArray.containsKey(fid)) {
-            throw new InvalidFileIdentifierException(fid);
+        if (!linked) {
+            layout();
+        }
+        long fid = fi.getLong();
+        if (fid < 0 || fid >= fileOffsets.length) {
+            throw new InvalidFileIdentifierException((int) fid);
         }
-        return fid;
+        return (int) fid;
     }
 
     /**
@@ -307,6 +1141,17 @@ public class Simulator {
         return registers;
     }
 
+    /**
+     * A copy of the state of the simulation before a given number of lines had been run.
+     *
+     * @param step        the number of lines run before the copy was made.
+     * @param registers   the copy of the values of the registers.
+     * @param memory      the copy of the written memory.
+     * @param inputCursor the position of the input cursor.
+     */
+    private record Checkpoint(long step, long[] registers, Memory.Checkpoint memory, long inputCursor, int callDepth) {
+    }
+
     /**
      * Gets the memory representation of the program.
      *
@@ -316,4 +1161,22 @@ public class Simulator {
         return memory;
     }
 
+    /**
+     * Gets the I/O streams the simulator's program reads from and writes to.
+     *
+     * @return the program I/O streams representation.
+     */
+    public StreamManager getStreams() {
+        return streams;
+    }
+
+    /**
+     * Gets the word size of the simulator's memory and registers.
+     *
+     * @return the word size.
+     */
+    public WordSize getWordSize() {
+        return wordSize;
+    }
+
 }
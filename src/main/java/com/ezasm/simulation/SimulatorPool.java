@@ -0,0 +1,120 @@
+package com.ezasm.simulation;
+
+import com.ezasm.instructions.implementation.TerminalInstructions;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A pool of simulators with the same specifications which are reused between runs. Constructing a simulator allocates
+ * its memory and registers and instantiates every instruction handler; a pooled simulator is instead reset in place,
+ * which only clears the registers, the pages of memory which were written to, the program and its labels, and redirects
+ * the streams back to the defaults. Simulators are handed out without history, running on the engine and within the
+ * limits of the pool. The pool may be shared by any number of threads.
+ */
+public class SimulatorPool {
+
+    private final int wordSize;
+    private final int memorySize;
+    private final boolean pagedMemory;
+    private final Engine engine;
+    private final BlockingQueue<Simulator> idle;
+    private volatile long instructionLimit;
+    private volatile long timeLimit;
+
+    /**
+     * Constructs an empty pool of simulators with the given specifications.
+     *
+     * @param wordSize    the size of words in bytes.
+     * @param memorySize  the size of the memory in words.
+     * @param pagedMemory whether to allocate memory in pages upon first write instead of all at once.
+     * @param engine      the engine the simulators run programs on.
+     * @param capacity    the greatest number of idle simulators kept; simulators released to a full pool are dropped.
+     */
+    public SimulatorPool(int wordSize, int memorySize, boolean pagedMemory, Engine engine, int capacity) {
+        this.wordSize = wordSize;
+        this.memorySize = memorySize;
+        this.pagedMemory = pagedMemory;
+        this.engine = engine;
+        this.idle = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Sets the limits every simulator acquired from the pool runs programs within.
+     *
+     * @param instructionLimit the greatest number of lines a program may run, or zero or less for no limit.
+     * @param timeLimit        the longest time a program may run for in milliseconds, or zero or less for no limit.
+     * @see Simulator#setInstructionLimit(long)
+     * @see Simulator#setTimeLimit(long)
+     */
+    public void setLimits(long instructionLimit, long timeLimit) {
+        this.instructionLimit = instructionLimit;
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Builds simulators until the pool holds as many idle simulators as it can, so that acquiring them later does not
+     * have to.
+     */
+    public void fill() {
+        while (idle.remainingCapacity() > 0) {
+            if (!idle.offer(create())) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Takes an idle simulator from the pool, or builds a new one if there is none. The simulator has no program loaded
+     * and should be given back with {@link #release(Simulator)} once the run is over. The pool only bounds the number
+     * of idle simulators, so callers bound how many are in use at once, such as by running no more programs at once
+     * than the capacity of the pool.
+     *
+     * @return the simulator.
+     */
+    public Simulator acquire() {
+        Simulator simulator = idle.poll();
+        if (simulator == null) {
+            simulator = create();
+        }
+        simulator.setInstructionLimit(instructionLimit);
+        simulator.setTimeLimit(timeLimit);
+        return simulator;
+    }
+
+    /**
+     * Resets a simulator and returns it to the pool.
+     *
+     * @param simulator a simulator acquired from this pool which is no longer in use.
+     */
+    public void release(Simulator simulator) {
+        reset(simulator);
+        idle.offer(simulator);
+    }
+
+    /**
+     * Gets the number of idle simulators in the pool.
+     *
+     * @return the number of idle simulators.
+     */
+    public int idleCount() {
+        return idle.size();
+    }
+
+    private Simulator create() {
+        Simulator simulator = new Simulator(wordSize, memorySize, pagedMemory);
+        simulator.setHistoryEnabled(false);
+        simulator.setEngine(engine);
+        return simulator;
+    }
+
+    private void reset(Simulator simulator) {
+        simulator.resetAll();
+        simulator.setHistoryEnabled(false);
+        simulator.setEngine(engine);
+        simulator.getStreams().setOutputMuted(false);
+        simulator.getStreams().setInputStream(TerminalInstructions.DEFAULT_INPUT_STREAM);
+        simulator.getStreams().setOutputStream(TerminalInstructions.DEFAULT_OUTPUT_STREAM);
+    }
+
+}
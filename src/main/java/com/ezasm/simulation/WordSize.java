@@ -0,0 +1,153 @@
+package com.ezasm.simulation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * The word sizes supported by the simulator. Each word size implements the conversions and memory accesses which depend
+ * on it, so that a simulator chooses its implementation once at construction rather than checking the word size on
+ * every access.
+ */
+public enum WordSize {
+
+    /**
+     * 4-byte words: integers are ints and floats are floats.
+     */
+    FOUR(4) {
+        @Override
+        public long truncate(long value) {
+            return (int) value;
+        }
+
+        @Override
+        public long doubleToWord(double value) {
+            return Float.floatToRawIntBits((float) value);
+        }
+
+        @Override
+        public double wordToDouble(long word) {
+            return Float.intBitsToFloat((int) word);
+        }
+
+        @Override
+        public long get(byte[] array, int index) {
+            return (int) INT_VIEW.get(array, index);
+        }
+
+        @Override
+        public void set(byte[] array, int index, long value) {
+            INT_VIEW.set(array, index, (int) value);
+        }
+    },
+
+    /**
+     * 8-byte words: integers are longs and floats are doubles.
+     */
+    EIGHT(8) {
+        @Override
+        public long truncate(long value) {
+            return value;
+        }
+
+        @Override
+        public long doubleToWord(double value) {
+            return Double.doubleToRawLongBits(value);
+        }
+
+        @Override
+        public double wordToDouble(long word) {
+            return Double.longBitsToDouble(word);
+        }
+
+        @Override
+        public long get(byte[] array, int index) {
+            return (long) LONG_VIEW.get(array, index);
+        }
+
+        @Override
+        public void set(byte[] array, int index, long value) {
+            LONG_VIEW.set(array, index, value);
+        }
+    };
+
+    /**
+     * Views of byte arrays as big-endian words, matching the byte order of {@link com.ezasm.util.RawData}.
+     */
+    private static final VarHandle INT_VIEW = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final int bytes;
+
+    WordSize(int bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Gets the word size with the given number of bytes.
+     *
+     * @param bytes the number of bytes in a word.
+     * @return the word size.
+     * @throws IllegalArgumentException if there is no word size with that number of bytes.
+     */
+    public static WordSize of(int bytes) {
+        return switch (bytes) {
+        case 4 -> FOUR;
+        case 8 -> EIGHT;
+        default -> throw new IllegalArgumentException("Word size must be 4 or 8");
+        };
+    }
+
+    /**
+     * Gets the number of bytes in a word.
+     *
+     * @return the number of bytes in a word.
+     */
+    public int bytes() {
+        return bytes;
+    }
+
+    /**
+     * Truncates a long to a word, sign extending the result.
+     *
+     * @param value the long to truncate.
+     * @return the long interpretation of the word.
+     */
+    public abstract long truncate(long value);
+
+    /**
+     * Converts a double into the word holding its representation: the bits of a float for 4-byte words and of a double
+     * for 8-byte words.
+     *
+     * @param value the double to convert.
+     * @return the word representation of the double.
+     */
+    public abstract long doubleToWord(double value);
+
+    /**
+     * Interprets a word as a float of the word size.
+     *
+     * @param word the word.
+     * @return the double interpretation of the word.
+     */
+    public abstract double wordToDouble(long word);
+
+    /**
+     * Reads the big-endian word at the given index of an array.
+     *
+     * @param array the array.
+     * @param index the index of the first byte of the word.
+     * @return the long interpretation of the word.
+     */
+    public abstract long get(byte[] array, int index);
+
+    /**
+     * Writes a long as a big-endian word at the given index of an array, truncating it to the word size.
+     *
+     * @param array the array.
+     * @param index the index of the first byte of the word.
+     * @param value the long to write.
+     */
+    public abstract void set(byte[] array, int index, long value);
+
+}
@@ -0,0 +1,518 @@
+package com.ezasm.simulation.bytecode;
+
+import com.ezasm.instructions.implementation.ArithmeticInstructions;
+import com.ezasm.instructions.implementation.BranchInstructions;
+import com.ezasm.instructions.implementation.ComparisonInstructions;
+import com.ezasm.instructions.implementation.FunctionInstructions;
+import com.ezasm.instructions.implementation.MemoryInstructions;
+import com.ezasm.instructions.targets.IAbstractTarget;
+import com.ezasm.instructions.targets.input.ImmediateInput;
+import com.ezasm.instructions.targets.inputoutput.RegisterInputOutput;
+import com.ezasm.parsing.Line;
+import com.ezasm.simulation.Registers;
+import com.ezasm.simulation.Simulator;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiles the lines of a file to JVM bytecode which operates directly on the values of the registers. Each file is
+ * compiled to a single method of a hidden class: the method jumps to the line it was asked to start from, and each line
+ * is translated in place so that the basic blocks of the program become basic blocks of the method, and branches
+ * between them become jumps. Only arithmetic, comparison, move and branch instructions whose operands are registers,
+ * immediates or labels are compiled; every other line makes the method return so that the interpreter runs it. The
+ * number of compiled lines run is kept in a local variable and added to the count of executed lines upon returning.
+ * Every jump backwards first compares that number against the budget of lines the method was given, and returns once it
+ * is spent so that the simulator can check its limits between loop iterations.
+ */
+public final class BytecodeCompiler {
+
+    private static final String CLASS_NAME = "com/ezasm/simulation/bytecode/CompiledFile";
+    private static final String INTERFACE_NAME = "com/ezasm/simulation/bytecode/CompiledCode";
+    private static final String METHOD_NAME = "run";
+    private static final String METHOD_DESCRIPTOR = "([JI[J)I";
+    private static final int MAX_STACK = 8;
+    private static final int MAX_LOCALS = 6;
+    private static final int COUNTER = 4;
+
+    private static final int PC = Registers.getRegisterNumber(Registers.PC);
+    private static final int FID = Registers.getRegisterNumber(Registers.FID);
+
+    // Opcodes
+    private static final int ICONST_0 = 0x03;
+    private static final int ICONST_1 = 0x04;
+    private static final int LCONST_0 = 0x09;
+    private static final int LCONST_1 = 0x0a;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC2_W = 0x14;
+    private static final int LLOAD = 0x16;
+    private static final int ILOAD_2 = 0x1c;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_3 = 0x2d;
+    private static final int LALOAD = 0x2f;
+    private static final int LSTORE = 0x37;
+    private static final int LASTORE = 0x50;
+    private static final int POP2 = 0x58;
+    private static final int DUP2 = 0x5c;
+    private static final int LADD = 0x61;
+    private static final int LSUB = 0x65;
+    private static final int LMUL = 0x69;
+    private static final int LDIV = 0x6d;
+    private static final int LREM = 0x71;
+    private static final int LSHL = 0x79;
+    private static final int LSHR = 0x7b;
+    private static final int LAND = 0x7f;
+    private static final int LOR = 0x81;
+    private static final int LXOR = 0x83;
+    private static final int I2L = 0x85;
+    private static final int L2I = 0x88;
+    private static final int LCMP = 0x94;
+    private static final int IFEQ = 0x99;
+    private static final int IFNE = 0x9a;
+    private static final int IFLT = 0x9b;
+    private static final int IFGE = 0x9c;
+    private static final int IFGT = 0x9d;
+    private static final int IFLE = 0x9e;
+    private static final int GOTO = 0xa7;
+    private static final int TABLESWITCH = 0xaa;
+    private static final int IRETURN = 0xac;
+
+    /**
+     * Compiled code which compiles nothing, leaving every line to the interpreter.
+     */
+    public static final CompiledCode INTERPRETED = (registers, lineNumber, executed) -> lineNumber;
+
+    private final Simulator simulator;
+    private final Line[] lines;
+    private final int offset;
+    private final int length;
+    private final boolean truncate;
+
+    private final ClassFileBuilder classFile = new ClassFileBuilder();
+    private final int[] lineStarts;
+    private final List<int[]> jumps = new ArrayList<>();
+    private byte[] code = new byte[256];
+    private int position;
+    private int currentLine;
+    private int switchStart;
+    private int switchTable;
+
+    private BytecodeCompiler(Simulator simulator, Line[] lines, int offset, int length, int wordSize) {
+        this.simulator = simulator;
+        this.lines = lines;
+        this.offset = offset;
+        this.length = length;
+        this.truncate = wordSize == 4;
+        this.lineStarts = new int[length + 1];
+    }
+
+    /**
+     * Compiles the lines of a single file.
+     *
+     * @param simulator the simulator the lines belong to, used to resolve the lines referred to by labels.
+     * @param lines     the lines of every file of the program.
+     * @param offset    the index of the first line of the file.
+     * @param length    the number of lines in the file.
+     * @param wordSize  the word size in bytes.
+     * @return the compiled code, or {@link #INTERPRETED} if the file is too large to be compiled.
+     */
+    public static CompiledCode compile(Simulator simulator, Line[] lines, int offset, int length, int wordSize) {
+        if (length == 0 || length > Short.MAX_VALUE) {
+            return INTERPRETED;
+        }
+        return new BytecodeCompiler(simulator, lines, offset, length, wordSize).compile();
+    }
+
+    private CompiledCode compile() {
+        emitLineSwitch();
+        for (currentLine = 0; currentLine < length; ++currentLine) {
+            lineStarts[currentLine] = position;
+            Line line = lines[offset + currentLine];
+            emitCount(LADD);
+            if (!line.isLabel() && !emitLine(line)) {
+                // Nothing was emitted for the line, so it is not counted here but by the interpreter
+                position = lineStarts[currentLine];
+                emitReturn(currentLine);
+            }
+        }
+        lineStarts[length] = position;
+        emitReturn(length);
+        if (!patchJumps()) {
+            return INTERPRETED;
+        }
+
+        byte[] bytes = classFile.build(CLASS_NAME, INTERFACE_NAME, METHOD_NAME, METHOD_DESCRIPTOR,
+                Arrays.copyOf(code, position), MAX_STACK, MAX_LOCALS);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (CompiledCode) lookup.lookupClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return INTERPRETED;
+        }
+    }
+
+    /**
+     * Emits a switch on the line number which jumps to the start of that line, returning invalid line numbers as they
+     * are for the interpreter to report. The offsets of the lines are filled in by {@link #patchJumps()}.
+     */
+    private void emitLineSwitch() {
+        emit(LCONST_0);
+        emit(LSTORE);
+        emit(COUNTER);
+        emit(ILOAD_2);
+        switchStart = position;
+        emit(TABLESWITCH);
+        while (position % 4 != 0) {
+            emit(0);
+        }
+        switchTable = position;
+        position += 12 + 4 * length;
+        ensureCapacity();
+        writeInt(switchTable, position - switchStart);
+        writeInt(switchTable + 4, 0);
+        writeInt(switchTable + 8, length - 1);
+        emit(ILOAD_2);
+        emit(IRETURN);
+    }
+
+    /**
+     * Emits the code of a single line.
+     *
+     * @param line the line.
+     * @return true if the line was compiled, false if nothing was emitted and the interpreter must run the line.
+     */
+    private boolean emitLine(Line line) {
+        Class<?> parent = line.getInstruction().target().parent();
+        String name = line.getInstruction().target().invocationTarget().getName();
+        IAbstractTarget[] arguments = line.getArguments();
+
+        if (parent == ArithmeticInstructions.class) {
+            return switch (name) {
+            case "add" -> emitArithmetic(arguments, LADD);
+            case "sub" -> emitArithmetic(arguments, LSUB);
+            case "mul" -> emitArithmetic(arguments, LMUL);
+            case "div" -> emitArithmetic(arguments, LDIV);
+            case "mod" -> emitArithmetic(arguments, LREM);
+            case "and" -> emitArithmetic(arguments, LAND);
+            case "or" -> emitArithmetic(arguments, LOR);
+            case "xor" -> emitArithmetic(arguments, LXOR);
+            case "sll" -> emitArithmetic(arguments, LSHL);
+            case "srl" -> emitArithmetic(arguments, LSHR);
+            case "not" -> emitUnary(arguments, -1, LXOR);
+            case "inc" -> emitUnary(arguments, 1, LADD);
+            case "dec" -> emitUnary(arguments, 1, LSUB);
+            default -> false;
+            };
+        } else if (parent == ComparisonInstructions.class) {
+            return switch (name) {
+            case "seq" -> emitComparison(arguments, IFNE);
+            case "sne" -> emitComparison(arguments, IFEQ);
+            case "slt" -> emitComparison(arguments, IFGE);
+            case "sle" -> emitComparison(arguments, IFGT);
+            case "sgt" -> emitComparison(arguments, IFLE);
+            case "sge" -> emitComparison(arguments, IFLT);
+            default -> false;
+            };
+        } else if (parent == BranchInstructions.class) {
+            return switch (name) {
+            case "beq" -> emitBranch(arguments, IFEQ);
+            case "bne" -> emitBranch(arguments, IFNE);
+            case "blt" -> emitBranch(arguments, IFLT);
+            case "ble" -> emitBranch(arguments, IFLE);
+            case "bgt" -> emitBranch(arguments, IFGT);
+            case "bge" -> emitBranch(arguments, IFGE);
+            default -> false;
+            };
+        } else if (parent == FunctionInstructions.class && (name.equals("jump") || name.equals("j"))) {
+            int target = simulator.lineAfterJump(arguments[0], length);
+            if (target < 0) {
+                return false;
+            }
+            emitBudgetCheck(target);
+            emitJump(GOTO, target);
+            return true;
+        } else if (parent == MemoryInstructions.class && name.equals("move")) {
+            if (!isOutput(arguments[0]) || !isInput(arguments[1])) {
+                return false;
+            }
+            int output = register(arguments[0]);
+            beginStore(output);
+            emitInput(arguments[1]);
+            endStore(output);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Emits a binary operation whose result is stored in the output. Division by zero is left to the interpreter.
+     */
+    private boolean emitArithmetic(IAbstractTarget[] arguments, int opcode) {
+        if (!isOutput(arguments[0]) || !isInput(arguments[1]) || !isInput(arguments[2])) {
+            return false;
+        }
+        if (opcode == LDIV || opcode == LREM) {
+            emitInput(arguments[2]);
+            emit(LCONST_0);
+            emit(LCMP);
+            // Skip over the return of the current line unless the divisor is zero
+            int skip = position;
+            emit(IFNE);
+            emitShort(0);
+            emitCount(LSUB);
+            emitReturn(currentLine);
+            code[skip + 1] = (byte) ((position - skip) >> 8);
+            code[skip + 2] = (byte) (position - skip);
+        }
+        int output = register(arguments[0]);
+        beginStore(output);
+        emitInput(arguments[1]);
+        emitInput(arguments[2]);
+        if (opcode == LSHL || opcode == LSHR) {
+            emit(L2I);
+        }
+        emit(opcode);
+        endStore(output);
+        return true;
+    }
+
+    /**
+     * Emits a binary operation of the input and a constant whose result is stored in the output.
+     */
+    private boolean emitUnary(IAbstractTarget[] arguments, long constant, int opcode) {
+        if (!isOutput(arguments[0]) || !isInput(arguments[1])) {
+            return false;
+        }
+        int output = register(arguments[0]);
+        beginStore(output);
+        emitInput(arguments[1]);
+        emitConstant(constant);
+        emit(opcode);
+        endStore(output);
+        return true;
+    }
+
+    /**
+     * Emits a comparison which stores one in the output if it holds and zero otherwise.
+     *
+     * @param opcode the jump taken when the comparison does not hold.
+     */
+    private boolean emitComparison(IAbstractTarget[] arguments, int opcode) {
+        if (!isOutput(arguments[0]) || !isInput(arguments[1]) || !isInput(arguments[2])) {
+            return false;
+        }
+        int output = register(arguments[0]);
+        beginStore(output);
+        emitInput(arguments[1]);
+        emitInput(arguments[2]);
+        emit(LCMP);
+        emit(opcode);
+        emitShort(7);
+        emit(LCONST_1);
+        emit(GOTO);
+        emitShort(4);
+        emit(LCONST_0);
+        endStore(output);
+        return true;
+    }
+
+    /**
+     * Emits a branch to the line following a label.
+     *
+     * @param opcode the jump taken when the comparison holds.
+     */
+    private boolean emitBranch(IAbstractTarget[] arguments, int opcode) {
+        if (!isInput(arguments[0]) || !isInput(arguments[1])) {
+            return false;
+        }
+        int target = simulator.lineAfterJump(arguments[2], length);
+        if (target < 0) {
+            return false;
+        }
+        emitBudgetCheck(target);
+        emitInput(arguments[0]);
+        emitInput(arguments[1]);
+        emit(LCMP);
+        emitJump(opcode, target);
+        return true;
+    }
+
+    private boolean isInput(IAbstractTarget target) {
+        return target instanceof ImmediateInput || isOutput(target);
+    }
+
+    private boolean isOutput(IAbstractTarget target) {
+        // The program counter and file identifier are only kept up to date by the interpreter
+        return target instanceof RegisterInputOutput register && register.getRegisterNumber() != PC
+                && register.getRegisterNumber() != FID;
+    }
+
+    private static int register(IAbstractTarget target) {
+        return ((RegisterInputOutput) target).getRegisterNumber();
+    }
+
+    private void emitInput(IAbstractTarget target) {
+        if (target instanceof ImmediateInput immediate) {
+            emitConstant(immediate.getLong(simulator));
+        } else {
+            emit(ALOAD_1);
+            emitInt(register(target));
+            emit(LALOAD);
+        }
+    }
+
+    /**
+     * Emits the start of a store to the given register, pushing the array and index the value is stored at.
+     */
+    private void beginStore(int register) {
+        if (register != 0) {
+            emit(ALOAD_1);
+            emitInt(register);
+        }
+    }
+
+    /**
+     * Emits the end of a store to the given register, truncating the value to the word size. Writes to the zero
+     * register are discarded.
+     */
+    private void endStore(int register) {
+        if (register == 0) {
+            emit(POP2);
+            return;
+        }
+        if (truncate) {
+            emit(L2I);
+            emit(I2L);
+        }
+        emit(LASTORE);
+    }
+
+    private void emitConstant(long value) {
+        if (value == 0) {
+            emit(LCONST_0);
+        } else if (value == 1) {
+            emit(LCONST_1);
+        } else {
+            emit(LDC2_W);
+            emitShort(classFile.longConstant(value));
+        }
+    }
+
+    private void emitInt(int value) {
+        if (value <= Byte.MAX_VALUE) {
+            emit(BIPUSH);
+            emit(value);
+        } else {
+            emit(SIPUSH);
+            emitShort(value);
+        }
+    }
+
+    /**
+     * Emits a return of the given line number, first adding the number of lines run to the count of executed lines.
+     */
+    private void emitReturn(int lineNumber) {
+        emit(ALOAD_3);
+        emit(ICONST_0);
+        emit(DUP2);
+        emit(LALOAD);
+        emit(LLOAD);
+        emit(COUNTER);
+        emit(LADD);
+        emit(LASTORE);
+        emitInt(lineNumber);
+        emit(IRETURN);
+    }
+
+    /**
+     * Emits an increment or decrement of the number of lines run.
+     *
+     * @param opcode either LADD or LSUB.
+     */
+    private void emitCount(int opcode) {
+        emit(LLOAD);
+        emit(COUNTER);
+        emit(LCONST_1);
+        emit(opcode);
+        emit(LSTORE);
+        emit(COUNTER);
+    }
+
+    /**
+     * Emits a return of the current line for the interpreter to run if jumping to the given line goes backwards and the
+     * budget of lines has been spent, so that every loop eventually returns.
+     */
+    private void emitBudgetCheck(int targetLine) {
+        if (targetLine > currentLine) {
+            return;
+        }
+        emit(LLOAD);
+        emit(COUNTER);
+        emit(ALOAD_3);
+        emit(ICONST_1);
+        emit(LALOAD);
+        emit(LCMP);
+        // Skip over the return of the current line unless the budget is spent
+        int skip = position;
+        emit(IFLT);
+        emitShort(0);
+        emitCount(LSUB);
+        emitReturn(currentLine);
+        code[skip + 1] = (byte) ((position - skip) >> 8);
+        code[skip + 2] = (byte) (position - skip);
+    }
+
+    private void emitJump(int opcode, int targetLine) {
+        jumps.add(new int[] { position, targetLine, position + 1 });
+        emit(opcode);
+        emitShort(0);
+    }
+
+    /**
+     * Fills in the offsets of every jump now that the start of every line is known.
+     *
+     * @return true if every offset fits, false if the method is too large to jump within.
+     */
+    private boolean patchJumps() {
+        for (int i = 0; i < length; ++i) {
+            writeInt(switchTable + 12 + 4 * i, lineStarts[i] - switchStart);
+        }
+        for (int[] jump : jumps) {
+            int source = jump[0];
+            int jumpOffset = lineStarts[jump[1]] - source;
+            if (jumpOffset < Short.MIN_VALUE || jumpOffset > Short.MAX_VALUE) {
+                return false;
+            }
+            code[jump[2]] = (byte) (jumpOffset >> 8);
+            code[jump[2] + 1] = (byte) jumpOffset;
+        }
+        return position <= 0xFFFF;
+    }
+
+    private void emit(int value) {
+        ensureCapacity();
+        code[position++] = (byte) value;
+    }
+
+    private void emitShort(int value) {
+        emit(value >> 8);
+        emit(value);
+    }
+
+    private void writeInt(int at, int value) {
+        code[at] = (byte) (value >> 24);
+        code[at + 1] = (byte) (value >> 16);
+        code[at + 2] = (byte) (value >> 8);
+        code[at + 3] = (byte) value;
+    }
+
+    private void ensureCapacity() {
+        if (position >= code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, position + 1));
+        }
+    }
+
+}
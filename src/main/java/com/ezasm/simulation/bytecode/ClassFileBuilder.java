@@ -0,0 +1,186 @@
+package com.ezasm.simulation.bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the bytes of a class file which implements a single interface with a no-argument constructor and a single
+ * method. Only the constant pool entries needed by the {@link BytecodeCompiler} are supported. The class file version
+ * predates stack map frames so that the code of the method can branch freely without them being computed.
+ */
+final class ClassFileBuilder {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int VERSION = 49;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final byte CONSTANT_UTF8 = 1;
+    private static final byte CONSTANT_LONG = 5;
+    private static final byte CONSTANT_CLASS = 7;
+    private static final byte CONSTANT_METHODREF = 10;
+    private static final byte CONSTANT_NAME_AND_TYPE = 12;
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String CONSTRUCTOR = "<init>";
+    private static final String CONSTRUCTOR_DESCRIPTOR = "()V";
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<Object, Integer> entries = new HashMap<>();
+    private int poolCount = 1;
+
+    /**
+     * Gets the index of the constant pool entry holding the given long, adding it if needed.
+     *
+     * @param value the long.
+     * @return the index of the constant pool entry.
+     */
+    int longConstant(long value) {
+        Integer index = entries.get(value);
+        if (index == null) {
+            index = poolCount;
+            write(out -> {
+                out.writeByte(CONSTANT_LONG);
+                out.writeLong(value);
+            });
+            // Long constants take up two entries
+            poolCount += 2;
+            entries.put(value, index);
+        }
+        return index;
+    }
+
+    /**
+     * Builds the class file.
+     *
+     * @param className     the internal name of the class.
+     * @param interfaceName the internal name of the interface implemented by the class.
+     * @param methodName    the name of the method.
+     * @param descriptor    the descriptor of the method.
+     * @param code          the bytecode of the method.
+     * @param maxStack      the maximum depth of the operand stack of the method.
+     * @param maxLocals     the number of local variable slots of the method, including its parameters.
+     * @return the bytes of the class file.
+     */
+    byte[] build(String className, String interfaceName, String methodName, String descriptor, byte[] code,
+            int maxStack, int maxLocals) {
+        int thisClass = classEntry(className);
+        int superClass = classEntry(OBJECT);
+        int interfaceClass = classEntry(interfaceName);
+        int superConstructor = methodEntry(superClass, CONSTRUCTOR, CONSTRUCTOR_DESCRIPTOR);
+        int constructorName = utf8(CONSTRUCTOR);
+        int constructorDescriptor = utf8(CONSTRUCTOR_DESCRIPTOR);
+        int name = utf8(methodName);
+        int type = utf8(descriptor);
+        int codeAttribute = utf8("Code");
+
+        // aload_0, invokespecial Object.<init>, return
+        byte[] constructorCode = { 0x2a, (byte) 0xb7, (byte) (superConstructor >> 8), (byte) superConstructor,
+                (byte) 0xb1 };
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolCount);
+            poolBytes.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(interfaceClass);
+            out.writeShort(0); // No fields
+            out.writeShort(2);
+            writeMethod(out, constructorName, constructorDescriptor, codeAttribute, constructorCode, 1, 1);
+            writeMethod(out, name, type, codeAttribute, code, maxStack, maxLocals);
+            out.writeShort(0); // No class attributes
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a public method with the given code.
+     */
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeAttribute, byte[] code,
+            int maxStack, int maxLocals) throws IOException {
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(codeAttribute);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // No exception handlers
+        out.writeShort(0); // No code attributes
+    }
+
+    private int utf8(String value) {
+        return entry("utf8:" + value, out -> {
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(value);
+        });
+    }
+
+    private int classEntry(String name) {
+        int nameIndex = utf8(name);
+        return entry("class:" + name, out -> {
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(nameIndex);
+        });
+    }
+
+    private int methodEntry(int owner, String name, String descriptor) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        int nameAndType = entry("nameandtype:" + name + descriptor, out -> {
+            out.writeByte(CONSTANT_NAME_AND_TYPE);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+        return entry("method:" + owner + "." + name + descriptor, out -> {
+            out.writeByte(CONSTANT_METHODREF);
+            out.writeShort(owner);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    /**
+     * Gets the index of the constant pool entry with the given key, adding it with the given writer if needed.
+     */
+    private int entry(String key, PoolWriter writer) {
+        Integer index = entries.get(key);
+        if (index == null) {
+            index = poolCount++;
+            write(writer);
+            entries.put(key, index);
+        }
+        return index;
+    }
+
+    private void write(PoolWriter writer) {
+        try {
+            writer.write(pool);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PoolWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+}
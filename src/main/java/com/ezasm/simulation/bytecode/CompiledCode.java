@@ -0,0 +1,21 @@
+package com.ezasm.simulation.bytecode;
+
+/**
+ * The lines of a single file compiled to run directly on the values of the registers.
+ */
+public interface CompiledCode {
+
+    /**
+     * Runs the compiled lines starting from the given line until reaching the end of the file, a line which must be run
+     * by the interpreter, or a jump backwards once the budget of lines is spent. The program counter register is not
+     * updated while the compiled lines run.
+     *
+     * @param registers  the values of the registers, indexed by reference number.
+     * @param lineNumber the line to start from.
+     * @param executed   an array whose first element the number of compiled lines run is added to, and whose second
+     *                   element is the number of lines which may run before returning at a jump backwards.
+     * @return the line to continue from: either the end of the file or the next line the interpreter must run.
+     */
+    int run(long[] registers, int lineNumber, long[] executed);
+
+}
@@ -0,0 +1,392 @@
+package com.ezasm.simulation.closure;
+
+import com.ezasm.instructions.implementation.ArithmeticInstructions;
+import com.ezasm.instructions.implementation.BranchInstructions;
+import com.ezasm.instructions.implementation.ComparisonInstructions;
+import com.ezasm.instructions.implementation.FunctionInstructions;
+import com.ezasm.instructions.implementation.MemoryInstructions;
+import com.ezasm.instructions.targets.IAbstractTarget;
+import com.ezasm.instructions.targets.input.ImmediateInput;
+import com.ezasm.instructions.targets.inputoutput.DereferenceInputOutput;
+import com.ezasm.instructions.targets.inputoutput.RegisterInputOutput;
+import com.ezasm.parsing.Line;
+import com.ezasm.simulation.Memory;
+import com.ezasm.simulation.Registers;
+import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.exception.SimulationException;
+import com.ezasm.util.LongBiPredicate;
+
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Converts the lines of a file to closures with their operands bound ahead of time, so that running a line does not
+ * need to dispatch on the instruction or on the kind of each operand. Arithmetic, comparison, move, load, store, push,
+ * pop, branch and jump instructions are converted when their operands are registers, immediates, dereferences or
+ * labels; every other line is bound to a closure which runs it with the interpreter. Adjacent converted lines where the
+ * first always continues to the second, such as an arithmetic line followed by a branch or consecutive pushes, are then
+ * fused into a single closure so that running both takes a single dispatch.
+ */
+public final class ClosureCompiler {
+
+    private static final int PC = Registers.getRegisterNumber(Registers.PC);
+    private static final int FID = Registers.getRegisterNumber(Registers.FID);
+    private static final int SP = Registers.getRegisterNumber(Registers.SP);
+
+    private final Simulator simulator;
+    private final Memory memory;
+    private final int length;
+    private final int wordSize;
+    private final boolean truncate;
+
+    private ClosureCompiler(Simulator simulator, int length, int wordSize) {
+        this.simulator = simulator;
+        this.memory = simulator.getMemory();
+        this.length = length;
+        this.wordSize = wordSize;
+        this.truncate = wordSize == 4;
+    }
+
+    /**
+     * Converts the lines of a single file to closures.
+     *
+     * @param simulator the simulator the lines belong to.
+     * @param lines     the lines of every file of the program.
+     * @param offset    the index of the first line of the file.
+     * @param length    the number of lines in the file.
+     * @param wordSize  the word size in bytes.
+     * @return the closure of each line of the file, with each closure fused with the next where possible.
+     */
+    public static ClosureFile compile(Simulator simulator, Line[] lines, int offset, int length, int wordSize) {
+        ClosureCompiler compiler = new ClosureCompiler(simulator, length, wordSize);
+        LineClosure[] closures = new LineClosure[length];
+        boolean[] converted = new boolean[length];
+        boolean[] fallsThrough = new boolean[length];
+        for (int i = 0; i < length; ++i) {
+            Line line = lines[offset + i];
+            LineClosure closure = compiler.compile(line);
+            converted[i] = closure != null;
+            fallsThrough[i] = converted[i] && fallsThrough(line);
+            closures[i] = converted[i] ? closure : compiler.interpreted(line);
+        }
+
+        // Lines are fused with the unfused closure of the next line, so that jumps into the next line still run it
+        // alone
+        LineClosure[] fused = closures.clone();
+        int[] lineCounts = new int[length];
+        for (int i = 0; i < length; ++i) {
+            if (i + 1 < length && fallsThrough[i] && converted[i + 1]) {
+                fused[i] = fuse(closures[i], closures[i + 1]);
+                lineCounts[i] = 2;
+            } else {
+                lineCounts[i] = converted[i] ? 1 : 0;
+            }
+        }
+        return new ClosureFile(fused, lineCounts);
+    }
+
+    /**
+     * Checks whether a line always continues to the next line when converted to a closure.
+     */
+    private static boolean fallsThrough(Line line) {
+        if (line.isLabel()) {
+            return true;
+        }
+        Class<?> parent = line.getInstruction().target().parent();
+        return parent == ArithmeticInstructions.class || parent == ComparisonInstructions.class
+                || parent == MemoryInstructions.class;
+    }
+
+    /**
+     * Fuses the closures of two adjacent lines into a single closure, where the first always continues to the second.
+     * If the second line fails, the program counter is left on it rather than on the first line.
+     */
+    private static LineClosure fuse(LineClosure first, LineClosure second) {
+        return (registers, lineNumber) -> {
+            first.execute(registers, lineNumber);
+            try {
+                return second.execute(registers, lineNumber + 1);
+            } catch (SimulationException e) {
+                registers[PC] = lineNumber + 1;
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Converts a single line to a closure.
+     *
+     * @return the closure, or null if the line must be run by the interpreter.
+     */
+    private LineClosure compile(Line line) {
+        if (line.isLabel()) {
+            return (registers, lineNumber) -> lineNumber + 1;
+        }
+        Class<?> parent = line.getInstruction().target().parent();
+        String name = line.getInstruction().target().invocationTarget().getName();
+        IAbstractTarget[] arguments = line.getArguments();
+
+        LineClosure closure = null;
+        if (parent == ArithmeticInstructions.class) {
+            closure = switch (name) {
+            case "add" -> binary(arguments, Long::sum);
+            case "sub" -> binary(arguments, (a, b) -> a - b);
+            case "mul" -> binary(arguments, (a, b) -> a * b);
+            case "div" -> division(line, arguments, (a, b) -> a / b);
+            case "mod" -> division(line, arguments, (a, b) -> a % b);
+            case "and" -> binary(arguments, (a, b) -> a & b);
+            case "or" -> binary(arguments, (a, b) -> a | b);
+            case "xor" -> binary(arguments, (a, b) -> a ^ b);
+            case "sll" -> binary(arguments, (a, b) -> a << b);
+            case "srl" -> binary(arguments, (a, b) -> a >> b);
+            case "not" -> unary(arguments, (a, b) -> ~a);
+            case "inc" -> unary(arguments, (a, b) -> a + 1);
+            case "dec" -> unary(arguments, (a, b) -> a - 1);
+            default -> null;
+            };
+        } else if (parent == ComparisonInstructions.class) {
+            closure = switch (name) {
+            case "seq" -> binary(arguments, (a, b) -> a == b ? 1 : 0);
+            case "sne" -> binary(arguments, (a, b) -> a != b ? 1 : 0);
+            case "slt" -> binary(arguments, (a, b) -> a < b ? 1 : 0);
+            case "sle" -> binary(arguments, (a, b) -> a <= b ? 1 : 0);
+            case "sgt" -> binary(arguments, (a, b) -> a > b ? 1 : 0);
+            case "sge" -> binary(arguments, (a, b) -> a >= b ? 1 : 0);
+            default -> null;
+            };
+        } else if (parent == BranchInstructions.class) {
+            closure = switch (name) {
+            case "beq" -> branch(arguments, (a, b) -> a == b);
+            case "bne" -> branch(arguments, (a, b) -> a != b);
+            case "blt" -> branch(arguments, (a, b) -> a < b);
+            case "ble" -> branch(arguments, (a, b) -> a <= b);
+            case "bgt" -> branch(arguments, (a, b) -> a > b);
+            case "bge" -> branch(arguments, (a, b) -> a >= b);
+            default -> null;
+            };
+        } else if (parent == FunctionInstructions.class && (name.equals("jump") || name.equals("j"))) {
+            int target = simulator.lineAfterJump(arguments[0], length);
+            if (target >= 0) {
+                closure = (registers, lineNumber) -> target;
+            }
+        } else if (parent == MemoryInstructions.class
+                && (name.equals("move") || name.equals("load") || name.equals("store"))) {
+            int destination = name.equals("store") ? 1 : 0;
+            closure = unary(new IAbstractTarget[] { arguments[destination], arguments[1 - destination] }, (a, b) -> a);
+        } else if (parent == MemoryInstructions.class && name.equals("push")) {
+            closure = push(arguments[0]);
+        } else if (parent == MemoryInstructions.class && name.equals("pop")) {
+            closure = pop(arguments[0]);
+        }
+        return closure;
+    }
+
+    /**
+     * Binds a line which is run by the interpreter.
+     */
+    private LineClosure interpreted(Line line) {
+        return (registers, lineNumber) -> {
+            registers[PC] = lineNumber;
+            simulator.runLine(line);
+            return LineClosure.RESUME_FROM_PC;
+        };
+    }
+
+    /**
+     * Binds a binary operation whose result is stored in the first argument. The common case of a register output and
+     * left-hand side is bound without any operand indirection.
+     */
+    private LineClosure binary(IAbstractTarget[] arguments, LongBinaryOperator op) {
+        Destination output = destination(arguments[0]);
+        Operand left = operand(arguments[1]);
+        Operand right = operand(arguments[2]);
+        if (output == null || left == null || right == null) {
+            return null;
+        }
+        int out = register(arguments[0]);
+        int a = register(arguments[1]);
+        if (out > 0 && a >= 0) {
+            int b = register(arguments[2]);
+            if (b >= 0) {
+                return (registers, lineNumber) -> {
+                    long value = op.applyAsLong(registers[a], registers[b]);
+                    registers[out] = truncate ? (int) value : value;
+                    return lineNumber + 1;
+                };
+            } else if (arguments[2] instanceof ImmediateInput immediate) {
+                long constant = immediate.getLong(simulator);
+                return (registers, lineNumber) -> {
+                    long value = op.applyAsLong(registers[a], constant);
+                    registers[out] = truncate ? (int) value : value;
+                    return lineNumber + 1;
+                };
+            }
+        }
+        return (registers, lineNumber) -> {
+            output.set(registers, op.applyAsLong(left.get(registers), right.get(registers)));
+            return lineNumber + 1;
+        };
+    }
+
+    /**
+     * Binds a unary operation of the second argument whose result is stored in the first argument.
+     */
+    private LineClosure unary(IAbstractTarget[] arguments, LongBinaryOperator op) {
+        Destination output = destination(arguments[0]);
+        Operand input = operand(arguments[1]);
+        if (output == null || input == null) {
+            return null;
+        }
+        return (registers, lineNumber) -> {
+            output.set(registers, op.applyAsLong(input.get(registers), 0));
+            return lineNumber + 1;
+        };
+    }
+
+    /**
+     * Binds a push of the input onto the stack.
+     */
+    private LineClosure push(IAbstractTarget argument) {
+        Operand input = operand(argument);
+        if (input == null) {
+            return null;
+        }
+        return (registers, lineNumber) -> {
+            long value = input.get(registers);
+            long sp = registers[SP] - wordSize;
+            registers[SP] = truncate ? (int) sp : sp;
+            simulator.transformMemory((int) sp, value);
+            return lineNumber + 1;
+        };
+    }
+
+    /**
+     * Binds a pop from the stack into the output.
+     */
+    private LineClosure pop(IAbstractTarget argument) {
+        Destination output = destination(argument);
+        if (output == null) {
+            return null;
+        }
+        return (registers, lineNumber) -> {
+            long sp = registers[SP];
+            output.set(registers, memory.readWord((int) sp));
+            registers[SP] = truncate ? (int) (sp + wordSize) : sp + wordSize;
+            return lineNumber + 1;
+        };
+    }
+
+    /**
+     * Binds a division, leaving division by zero to the interpreter so that it is reported the same way. The line has
+     * already been counted by the time it is run, so the interpreter runs it without counting it again.
+     */
+    private LineClosure division(Line line, IAbstractTarget[] arguments, LongBinaryOperator op) {
+        LineClosure divide = binary(arguments, op);
+        Operand divisor = operand(arguments[2]);
+        if (divide == null) {
+            return null;
+        }
+        return (registers, lineNumber) -> {
+            if (divisor.get(registers) != 0) {
+                return divide.execute(registers, lineNumber);
+            }
+            registers[PC] = lineNumber;
+            simulator.runCountedLine(line);
+            return LineClosure.RESUME_FROM_PC;
+        };
+    }
+
+    /**
+     * Binds a branch to the line following a label.
+     */
+    private LineClosure branch(IAbstractTarget[] arguments, LongBiPredicate condition) {
+        Operand left = operand(arguments[0]);
+        Operand right = operand(arguments[1]);
+        int target = simulator.lineAfterJump(arguments[2], length);
+        if (left == null || right == null || target < 0) {
+            return null;
+        }
+        int a = register(arguments[0]);
+        if (a >= 0 && arguments[1] instanceof ImmediateInput immediate) {
+            long constant = immediate.getLong(simulator);
+            return (registers, lineNumber) -> condition.test(registers[a], constant) ? target : lineNumber + 1;
+        }
+        return (registers, lineNumber) -> condition.test(left.get(registers), right.get(registers)) ? target
+                : lineNumber + 1;
+    }
+
+    /**
+     * Gets the register an argument refers to, or -1 if it is not a register which bound lines may access.
+     */
+    private static int register(IAbstractTarget target) {
+        if (target instanceof RegisterInputOutput register && isAccessible(register.getRegisterNumber())) {
+            return register.getRegisterNumber();
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether bound lines may access the given register. The program counter and file identifier are only kept
+     * up to date by the interpreter.
+     */
+    private static boolean isAccessible(int register) {
+        return register != PC && register != FID;
+    }
+
+    /**
+     * Binds an argument which is read, or returns null if it cannot be bound.
+     */
+    private Operand operand(IAbstractTarget target) {
+        int register = register(target);
+        if (register >= 0) {
+            return registers -> registers[register];
+        } else if (target instanceof ImmediateInput immediate) {
+            long constant = immediate.getLong(simulator);
+            return registers -> constant;
+        } else if (target instanceof DereferenceInputOutput dereference) {
+            int base = dereference.getRegisterNumber();
+            int offset = dereference.getOffset();
+            if (isAccessible(base)) {
+                return registers -> memory.readWord((int) registers[base] + offset);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Binds an argument which is written, or returns null if it cannot be bound.
+     */
+    private Destination destination(IAbstractTarget target) {
+        int register = register(target);
+        if (register == 0) {
+            return (registers, value) -> {
+            };
+        } else if (register > 0) {
+            return truncate ? (registers, value) -> registers[register] = (int) value
+                    : (registers, value) -> registers[register] = value;
+        } else if (target instanceof DereferenceInputOutput dereference) {
+            int base = dereference.getRegisterNumber();
+            int offset = dereference.getOffset();
+            if (isAccessible(base)) {
+                return (registers, value) -> simulator.transformMemory((int) registers[base] + offset, value);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * An argument bound to be read.
+     */
+    @FunctionalInterface
+    private interface Operand {
+        long get(long[] registers) throws SimulationException;
+    }
+
+    /**
+     * An argument bound to be written.
+     */
+    @FunctionalInterface
+    private interface Destination {
+        void set(long[] registers, long value) throws SimulationException;
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.ezasm.simulation.closure;
+
+/**
+ * The closures bound to the lines of a single file.
+ *
+ * @param closures   the closure of each line, with each closure fused with the next where possible.
+ * @param lineCounts the number of lines each closure runs without the interpreter: two for fused closures, one for
+ *                   other converted lines and zero for lines run by the interpreter, which counts them itself.
+ */
+public record ClosureFile(LineClosure[] closures, int[] lineCounts) {
+}
@@ -0,0 +1,27 @@
+package com.ezasm.simulation.closure;
+
+import com.ezasm.simulation.exception.SimulationException;
+
+/**
+ * A single line bound ahead of time to its operands, operating directly on the values of the registers.
+ */
+@FunctionalInterface
+public interface LineClosure {
+
+    /**
+     * Returned by a line which was run by the interpreter, in which case the program counter register holds the line to
+     * continue from.
+     */
+    int RESUME_FROM_PC = -1;
+
+    /**
+     * Runs the line. The program counter register is not updated by lines which are not run by the interpreter.
+     *
+     * @param registers  the values of the registers, indexed by reference number.
+     * @param lineNumber the number of the line within its file.
+     * @return the line to continue from, or {@link #RESUME_FROM_PC}.
+     * @throws SimulationException if there is an error running the line.
+     */
+    int execute(long[] registers, int lineNumber) throws SimulationException;
+
+}
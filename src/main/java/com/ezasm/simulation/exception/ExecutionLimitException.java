@@ -0,0 +1,25 @@
+package com.ezasm.simulation.exception;
+
+/**
+ * Represents a program being stopped for exceeding a limit placed on its execution rather than for an error of its own.
+ * Each limit is reported with its own exit status.
+ */
+public abstract class ExecutionLimitException extends SimulationException {
+
+    /**
+     * Basic constructor of the exception with the given message.
+     *
+     * @param message the message to send.
+     */
+    protected ExecutionLimitException(String message) {
+        super(message);
+    }
+
+    /**
+     * Gets the status the program exits with when stopped for exceeding the limit.
+     *
+     * @return the exit status.
+     */
+    public abstract int getExitStatus();
+
+}
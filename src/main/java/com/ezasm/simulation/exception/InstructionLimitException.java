@@ -0,0 +1,27 @@
+package com.ezasm.simulation.exception;
+
+/**
+ * Represents a program being stopped for running more lines than it was allowed to.
+ */
+public class InstructionLimitException extends ExecutionLimitException {
+
+    /**
+     * The status a program stopped for running too many lines exits with.
+     */
+    public static final int EXIT_STATUS = 125;
+
+    /**
+     * Constructs the exception with the given limit.
+     *
+     * @param limit the number of lines the program was allowed to run.
+     */
+    public InstructionLimitException(long limit) {
+        super(String.format("Instruction limit of %d exceeded", limit));
+    }
+
+    @Override
+    public int getExitStatus() {
+        return EXIT_STATUS;
+    }
+
+}
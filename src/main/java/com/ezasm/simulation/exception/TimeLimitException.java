@@ -0,0 +1,27 @@
+package com.ezasm.simulation.exception;
+
+/**
+ * Represents a program being stopped for running longer than it was allowed to.
+ */
+public class TimeLimitException extends ExecutionLimitException {
+
+    /**
+     * The status a program stopped for running too long exits with, matching that of the timeout command.
+     */
+    public static final int EXIT_STATUS = 124;
+
+    /**
+     * Constructs the exception with the given limit.
+     *
+     * @param milliseconds the time the program was allowed to run for in milliseconds.
+     */
+    public TimeLimitException(long milliseconds) {
+        super(String.format("Time limit of %d ms exceeded", milliseconds));
+    }
+
+    @Override
+    public int getExitStatus() {
+        return EXIT_STATUS;
+    }
+
+}
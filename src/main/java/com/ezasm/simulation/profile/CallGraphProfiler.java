@@ -0,0 +1,318 @@
+package com.ezasm.simulation.profile;
+
+import com.ezasm.instructions.DispatchInstruction;
+import com.ezasm.instructions.implementation.FunctionInstructions;
+import com.ezasm.parsing.Line;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Attributes the lines run by a program to the functions they were run in. The profiler keeps a shadow call stack which
+ * is pushed upon every {@code call} or {@code jal} and popped upon every {@code return}, and counts each line run and
+ * the time spent towards the frame on top of it. A function is named by the label the call landed after, and lines run
+ * outside any call are attributed to the file they are in.
+ * <p>
+ * Frames are kept as a tree of call paths, so the same function called from different places is counted separately
+ * until reported. The exclusive counts of a function are those of the frames of the function, and the inclusive counts
+ * are those of the frames of the function and every frame called from them, counting recursive calls only once.
+ * <p>
+ * Like every profiler the shadow call stack follows forward execution only, so undoing a call or return leaves it out
+ * of step with the program; the command line only attaches it in windowless mode, where lines are never undone.
+ */
+public class CallGraphProfiler implements Profiler {
+
+    private static final byte OTHER = 0;
+    private static final byte CALL = 1;
+    private static final byte RETURN = 2;
+
+    private final File foldedStacks;
+    private final List<String> functionNames;
+    private final List<Frame> frames;
+
+    // What each line of the linked program does to the call stack, and the function entered by a call landing on it
+    private byte[] kinds = new byte[0];
+    private int[] entries = new int[0];
+    private int[] rootFunctions = new int[0];
+
+    // The number of frames of each function on the call stack
+    private int[] active = new int[0];
+    private Frame current;
+    private boolean entering;
+    private long switchedAt;
+
+    /**
+     * A function and the counts attributed to it.
+     *
+     * @param function              the name of the function.
+     * @param calls                 the number of times the function was called.
+     * @param inclusiveInstructions the number of lines run within the function and the functions it called.
+     * @param exclusiveInstructions the number of lines run within the function itself.
+     * @param inclusiveNanos        the time spent within the function and the functions it called in nanoseconds.
+     * @param exclusiveNanos        the time spent within the function itself in nanoseconds.
+     */
+    public record FunctionProfile(String function, long calls, long inclusiveInstructions, long exclusiveInstructions,
+            long inclusiveNanos, long exclusiveNanos) {
+    }
+
+    /**
+     * A frame of the shadow call stack: a function called along a particular call path.
+     */
+    private static final class Frame {
+
+        private final int function;
+        private final Frame parent;
+        private final boolean outermost;
+        private final Map<Integer, Frame> children = new HashMap<>();
+        private long calls;
+        private long instructions;
+        private long nanos;
+
+        // The counts of the frame and every frame called from it, gathered upon reporting
+        private long inclusiveInstructions;
+        private long inclusiveNanos;
+
+        Frame(int function, Frame parent, boolean outermost) {
+            this.function = function;
+            this.parent = parent;
+            this.outermost = outermost;
+        }
+    }
+
+    /**
+     * Constructs a call graph profiler which only writes its report.
+     */
+    public CallGraphProfiler() {
+        this(null);
+    }
+
+    /**
+     * Constructs a call graph profiler which also exports the lines run in each call path as folded stacks whenever it
+     * writes its report.
+     *
+     * @param foldedStacks the file to write folded stacks to, or null to not export them.
+     */
+    public CallGraphProfiler(File foldedStacks) {
+        this.foldedStacks = foldedStacks;
+        this.functionNames = new ArrayList<>();
+        this.frames = new ArrayList<>();
+    }
+
+    @Override
+    public void link(Line[] lines, int[] fileOffsets, String[] fileNames) {
+        functionNames.clear();
+        Map<String, Integer> functionIds = new HashMap<>();
+        kinds = new byte[lines.length];
+        entries = new int[lines.length];
+        rootFunctions = new int[lines.length];
+        for (int fileId = 0; fileId < fileOffsets.length; ++fileId) {
+            int start = fileOffsets[fileId];
+            int end = fileId + 1 < fileOffsets.length ? fileOffsets[fileId + 1] : lines.length;
+            int function = functionId(functionIds, fileNames[fileId]);
+            for (int index = start; index < end; ++index) {
+                Line line = lines[index];
+                // A call lands on the label it names and runs from the line after it
+                entries[index] = function;
+                if (line.isLabel()) {
+                    function = functionId(functionIds, line.getLabel());
+                } else {
+                    kinds[index] = kind(line.getInstruction().target());
+                }
+                rootFunctions[index] = function;
+            }
+        }
+        active = new int[functionNames.size()];
+        reset();
+    }
+
+    private int functionId(Map<String, Integer> functionIds, String name) {
+        return functionIds.computeIfAbsent(name, key -> {
+            functionNames.add(key);
+            return functionNames.size() - 1;
+        });
+    }
+
+    private static byte kind(DispatchInstruction instruction) {
+        if (instruction.parent() != FunctionInstructions.class) {
+            return OTHER;
+        }
+        return switch (instruction.invocationTarget().getName()) {
+        case "call", "jal" -> CALL;
+        case "_return" -> RETURN;
+        default -> OTHER;
+        };
+    }
+
+    @Override
+    public void count(int index) {
+        if (current == null) {
+            current = new Frame(rootFunctions[index], null, true);
+            current.calls = 1;
+            active[current.function]++;
+            frames.add(current);
+            switchedAt = System.nanoTime();
+        } else if (entering) {
+            enter(entries[index]);
+        }
+        entering = false;
+        current.instructions++;
+        if (kinds[index] == CALL) {
+            entering = true;
+        } else if (kinds[index] == RETURN && current.parent != null) {
+            switchFrame();
+            active[current.function]--;
+            current = current.parent;
+        }
+    }
+
+    private void enter(int function) {
+        switchFrame();
+        Frame frame = current.children.get(function);
+        if (frame == null) {
+            frame = new Frame(function, current, active[function] == 0);
+            current.children.put(function, frame);
+            frames.add(frame);
+        }
+        frame.calls++;
+        active[function]++;
+        current = frame;
+    }
+
+    /**
+     * Charges the time since the last change of frame to the current frame.
+     */
+    private void switchFrame() {
+        long now = System.nanoTime();
+        current.nanos += now - switchedAt;
+        switchedAt = now;
+    }
+
+    @Override
+    public void reset() {
+        frames.clear();
+        Arrays.fill(active, 0);
+        current = null;
+        entering = false;
+    }
+
+    /**
+     * Gets the counts attributed to each function which was run, the function with the most lines run inclusively
+     * first. Time spent in the current frame up to now is charged to it first.
+     *
+     * @return the counts of each function.
+     */
+    public List<FunctionProfile> getFunctionProfiles() {
+        if (current != null) {
+            switchFrame();
+        }
+        // Frames are created after their parent, so visiting them in reverse gathers each subtree before its parent
+        for (int i = frames.size() - 1; i >= 0; --i) {
+            Frame frame = frames.get(i);
+            frame.inclusiveInstructions += frame.instructions;
+            frame.inclusiveNanos += frame.nanos;
+            if (frame.parent != null) {
+                frame.parent.inclusiveInstructions += frame.inclusiveInstructions;
+                frame.parent.inclusiveNanos += frame.inclusiveNanos;
+            }
+        }
+
+        int functions = functionNames.size();
+        long[] calls = new long[functions];
+        long[] inclusiveInstructions = new long[functions];
+        long[] exclusiveInstructions = new long[functions];
+        long[] inclusiveNanos = new long[functions];
+        long[] exclusiveNanos = new long[functions];
+        boolean[] run = new boolean[functions];
+        for (Frame frame : frames) {
+            int function = frame.function;
+            run[function] = true;
+            calls[function] += frame.calls;
+            exclusiveInstructions[function] += frame.instructions;
+            exclusiveNanos[function] += frame.nanos;
+            // Frames of a function called from within itself are already part of the outermost frame
+            if (frame.outermost) {
+                inclusiveInstructions[function] += frame.inclusiveInstructions;
+                inclusiveNanos[function] += frame.inclusiveNanos;
+            }
+            frame.inclusiveInstructions = 0;
+            frame.inclusiveNanos = 0;
+        }
+
+        List<FunctionProfile> profiles = new ArrayList<>();
+        for (int function = 0; function < functions; ++function) {
+            if (run[function]) {
+                profiles.add(new FunctionProfile(functionNames.get(function), calls[function],
+                        inclusiveInstructions[function], exclusiveInstructions[function], inclusiveNanos[function],
+                        exclusiveNanos[function]));
+            }
+        }
+        profiles.sort(Comparator.comparingLong(FunctionProfile::inclusiveInstructions).reversed());
+        return profiles;
+    }
+
+    /**
+     * Writes the number of lines run in each call path as folded stacks, the format read by flame graph tools: one call
+     * path per line, its functions outermost first separated by semicolons, followed by a space and the count.
+     *
+     * @param out the stream to write the folded stacks to.
+     */
+    public void writeFoldedStacks(PrintStream out) {
+        Deque<String> path = new ArrayDeque<>();
+        for (Frame frame : frames) {
+            if (frame.instructions == 0) {
+                continue;
+            }
+            path.clear();
+            for (Frame caller = frame; caller != null; caller = caller.parent) {
+                path.addFirst(functionNames.get(caller.function));
+            }
+            out.print(String.join(";", path));
+            out.print(' ');
+            out.println(frame.instructions);
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes a report of the counts attributed to each function, and exports the folded stacks if the profiler was
+     * given a file to write them to.
+     *
+     * @param out        the stream to write the report to.
+     * @param maxEntries the greatest number of functions to report.
+     */
+    @Override
+    public void report(PrintStream out, int maxEntries) {
+        List<FunctionProfile> profiles = getFunctionProfiles();
+        long total = 0;
+        for (Frame frame : frames) {
+            total += frame.instructions;
+        }
+        out.printf("** Call graph: %d lines run **%n", total);
+        out.printf("%12s %7s %12s %7s %10s %10s %9s  %s%n", "inclusive", "share", "exclusive", "share", "incl ms",
+                "excl ms", "calls", "function");
+        for (FunctionProfile profile : profiles.subList(0, Math.min(maxEntries, profiles.size()))) {
+            out.printf("%12d %6.2f%% %12d %6.2f%% %10.3f %10.3f %9d  %s%n", profile.inclusiveInstructions(),
+                    LineProfiler.percent(profile.inclusiveInstructions(), total), profile.exclusiveInstructions(),
+                    LineProfiler.percent(profile.exclusiveInstructions(), total), profile.inclusiveNanos() / 1e6,
+                    profile.exclusiveNanos() / 1e6, profile.calls(), profile.function());
+        }
+        if (foldedStacks != null) {
+            try (PrintStream folded = new PrintStream(foldedStacks)) {
+                writeFoldedStacks(folded);
+            } catch (FileNotFoundException e) {
+                out.printf("** Unable to write folded stacks to %s **%n", foldedStacks.getPath());
+            }
+        }
+        out.flush();
+    }
+
+}
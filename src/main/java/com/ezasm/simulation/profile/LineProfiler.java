@@ -0,0 +1,186 @@
+package com.ezasm.simulation.profile;
+
+import com.ezasm.parsing.Line;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts how many times each line of a program is run. The counts are kept in a single array indexed by the position of
+ * each line in the linked program, so counting a line is one array increment; the counts per instruction are only
+ * gathered from the counts per line once they are asked for.
+ */
+public class LineProfiler implements Profiler {
+
+    private Line[] lines = new Line[0];
+    private int[] fileOffsets = new int[0];
+    private String[] fileNames = new String[0];
+    private long[] counts = new long[0];
+
+    /**
+     * A line of the program and the number of times it was run.
+     *
+     * @param fileId     the identifier of the file the line is in.
+     * @param file       the name of the file the line is in.
+     * @param lineNumber the program counter of the line within its file.
+     * @param line       the line.
+     * @param count      the number of times the line was run.
+     */
+    public record HotSpot(int fileId, String file, int lineNumber, Line line, long count) {
+
+        /**
+         * Gets the location of the line as the file name and the one-based source line number, or the program counter
+         * of the line if its source line is not known.
+         *
+         * @return the location of the line.
+         */
+        public String location() {
+            int sourceLine = line.getSourceLine();
+            return sourceLine >= 0 ? String.format("%s:%d", file, sourceLine + 1)
+                    : String.format("%s@%d", file, lineNumber);
+        }
+    }
+
+    @Override
+    public void link(Line[] lines, int[] fileOffsets, String[] fileNames) {
+        this.lines = lines;
+        this.fileOffsets = fileOffsets;
+        this.fileNames = fileNames;
+        this.counts = new long[lines.length];
+    }
+
+    @Override
+    public void count(int index) {
+        counts[index]++;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(counts, 0);
+    }
+
+    /**
+     * Gets the number of times the given line was run.
+     *
+     * @param fileId     the identifier of the file the line is in.
+     * @param lineNumber the program counter of the line within its file.
+     * @return the number of times the line was run.
+     */
+    public long getCount(int fileId, int lineNumber) {
+        return counts[fileOffsets[fileId] + lineNumber];
+    }
+
+    /**
+     * Gets the number of lines run in total.
+     *
+     * @return the number of lines run in total.
+     */
+    public long getTotal() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Gets every line which was run, the most run first.
+     *
+     * @return the lines which were run.
+     */
+    public List<HotSpot> getHotSpots() {
+        return hotSpots(lines, fileOffsets, fileNames, counts);
+    }
+
+    /**
+     * Gets every line of a linked program with a nonzero count, the greatest count first.
+     *
+     * @param lines       the lines of every file laid out one after another.
+     * @param fileOffsets the index of the first line of each file by file identifier.
+     * @param fileNames   the name of each file by file identifier.
+     * @param counts      the count of each line by index.
+     * @return the lines with a nonzero count.
+     */
+    static List<HotSpot> hotSpots(Line[] lines, int[] fileOffsets, String[] fileNames, long[] counts) {
+        List<HotSpot> hotSpots = new ArrayList<>();
+        for (int fileId = 0; fileId < fileOffsets.length; ++fileId) {
+            int end = fileId + 1 < fileOffsets.length ? fileOffsets[fileId + 1] : lines.length;
+            for (int index = fileOffsets[fileId]; index < end; ++index) {
+                if (counts[index] > 0) {
+                    hotSpots.add(new HotSpot(fileId, fileNames[fileId], index - fileOffsets[fileId], lines[index],
+                            counts[index]));
+                }
+            }
+        }
+        hotSpots.sort(Comparator.comparingLong(HotSpot::count).reversed());
+        return hotSpots;
+    }
+
+    /**
+     * Gets the number of times each instruction was run, the most run first. Labels are not counted.
+     *
+     * @return the number of runs by instruction mnemonic.
+     */
+    public Map<String, Long> getInstructionCounts() {
+        Map<String, Long> byInstruction = new HashMap<>();
+        for (int index = 0; index < counts.length; ++index) {
+            if (counts[index] > 0 && !lines[index].isLabel()) {
+                byInstruction.merge(lines[index].getInstruction().text(), counts[index], Long::sum);
+            }
+        }
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        byInstruction.entrySet().stream().sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEachOrdered(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    /**
+     * Writes a report of the most run lines and of the number of times each instruction was run.
+     *
+     * @param out        the stream to write the report to.
+     * @param maxEntries the greatest number of lines to report.
+     */
+    @Override
+    public void report(PrintStream out, int maxEntries) {
+        long total = getTotal();
+        out.printf("** Profile: %d lines run **%n", total);
+        reportHotSpots(out, "runs", getHotSpots(), total, maxEntries);
+        out.printf("%12s %7s  %s%n", "runs", "share", "instruction");
+        for (Map.Entry<String, Long> entry : getInstructionCounts().entrySet()) {
+            out.printf("%12d %6.2f%%  %s%n", entry.getValue(), percent(entry.getValue(), total), entry.getKey());
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes a table of the lines with the greatest counts.
+     *
+     * @param out        the stream to write the table to.
+     * @param unit       what the lines were counted by.
+     * @param hotSpots   the lines, the greatest count first.
+     * @param total      the sum of the counts of every line.
+     * @param maxEntries the greatest number of lines to write.
+     */
+    static void reportHotSpots(PrintStream out, String unit, List<HotSpot> hotSpots, long total, int maxEntries) {
+        out.printf("%12s %7s  %-24s %s%n", unit, "share", "location", "line");
+        for (HotSpot hotSpot : hotSpots.subList(0, Math.min(maxEntries, hotSpots.size()))) {
+            out.printf("%12d %6.2f%%  %-24s %s%n", hotSpot.count(), percent(hotSpot.count(), total), hotSpot.location(),
+                    describe(hotSpot.line()));
+        }
+    }
+
+    static double percent(long count, long total) {
+        return total == 0 ? 0 : count * 100.0 / total;
+    }
+
+    private static String describe(Line line) {
+        return line.isLabel() ? line.getLabel() + ":" : line.getInstruction().text();
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.ezasm.simulation.profile;
+
+import com.ezasm.parsing.Line;
+
+import java.io.File;
+import java.io.PrintStream;
+
+/**
+ * A profiler which is told of every line run from the program counter. A profiler is attached to a simulator with
+ * {@link com.ezasm.simulation.Simulator#setProfiler(Profiler)} and is linked to the program whenever the simulator lays
+ * it out, which clears what it has counted.
+ */
+public interface Profiler {
+
+    /**
+     * The number of entries reported by default.
+     */
+    int DEFAULT_REPORT_LINES = 20;
+
+    /**
+     * Links the profiler to the layout of a program and clears what it has counted.
+     *
+     * @param lines       the lines of every file laid out one after another.
+     * @param fileOffsets the index of the first line of each file by file identifier.
+     * @param fileNames   the name of each file by file identifier.
+     */
+    void link(Line[] lines, int[] fileOffsets, String[] fileNames);
+
+    /**
+     * Counts a run of the line at the given index of the linked program, just before the line is run.
+     *
+     * @param index the index of the line.
+     */
+    void count(int index);
+
+    /**
+     * Clears what has been counted without unlinking the program.
+     */
+    void reset();
+
+    /**
+     * Writes a report of what has been counted.
+     *
+     * @param out        the stream to write the report to.
+     * @param maxEntries the greatest number of entries to report in each table.
+     */
+    void report(PrintStream out, int maxEntries);
+
+    /**
+     * Gets the name a file is reported by.
+     *
+     * @param path the path of the file, or null if the lines were not read from a file.
+     * @return the name of the file.
+     */
+    static String fileName(String path) {
+        return path == null ? "<main>" : new File(path).getName();
+    }
+
+}
@@ -0,0 +1,203 @@
+package com.ezasm.simulation.profile;
+
+import com.ezasm.parsing.Line;
+import com.ezasm.simulation.Simulator;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Estimates where a program spends its time by sampling it from a background thread instead of counting every line. At
+ * a fixed interval the thread reads the line the simulator is on and its call depth with
+ * {@link Simulator#samplePosition()} and {@link Simulator#sampleCallDepth()}, and adds a sample to the histogram of
+ * each. The thread running the program does no extra work for the sampler, so sampling suits runs which are too long to
+ * count every line of. A sampler is attached to a simulator with {@link Simulator#setSampler(SamplingProfiler)}, which
+ * runs it for as long as the simulator is running a program and links it to the program whenever the simulator lays it
+ * out, which clears the samples.
+ */
+public class SamplingProfiler {
+
+    /**
+     * The default time between samples in microseconds.
+     */
+    public static final long DEFAULT_INTERVAL_MICROS = 1000;
+
+    private final long intervalNanos;
+
+    private Line[] lines = new Line[0];
+    private int[] fileOffsets = new int[0];
+    private String[] fileNames = new String[0];
+    private long[] samples = new long[0];
+    private long[] depthSamples = new long[0];
+
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * Constructs a sampler which samples at the default interval.
+     */
+    public SamplingProfiler() {
+        this(DEFAULT_INTERVAL_MICROS);
+    }
+
+    /**
+     * Constructs a sampler which samples at the given interval.
+     *
+     * @param intervalMicros the time between samples in microseconds.
+     */
+    public SamplingProfiler(long intervalMicros) {
+        this.intervalNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(1, intervalMicros));
+    }
+
+    /**
+     * Links the sampler to the layout of a program and clears the samples.
+     *
+     * @param lines       the lines of every file laid out one after another.
+     * @param fileOffsets the index of the first line of each file by file identifier.
+     * @param fileNames   the name of each file by file identifier.
+     */
+    public void link(Line[] lines, int[] fileOffsets, String[] fileNames) {
+        this.lines = lines;
+        this.fileOffsets = fileOffsets;
+        this.fileNames = fileNames;
+        this.samples = new long[lines.length];
+        this.depthSamples = new long[0];
+    }
+
+    /**
+     * Clears the samples without unlinking the program.
+     */
+    public void reset() {
+        Arrays.fill(samples, 0);
+        depthSamples = new long[0];
+    }
+
+    /**
+     * Starts sampling the given simulator on a background thread. Does nothing if the sampler is already sampling.
+     *
+     * @param simulator the simulator to sample.
+     */
+    public synchronized void start(Simulator simulator) {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(() -> sampleUntilStopped(simulator), "EzASM sampler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops sampling and waits for the background thread to finish, after which the samples may be read.
+     */
+    public synchronized void stop() {
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        thread = null;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sampleUntilStopped(Simulator simulator) {
+        long next = System.nanoTime() + intervalNanos;
+        while (running) {
+            LockSupport.parkNanos(next - System.nanoTime());
+            if (!running) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (now - next < 0) {
+                // Woken early without being stopped
+                continue;
+            }
+            // Skip samples which were missed rather than taking them all at once
+            next = Math.max(next + intervalNanos, now + intervalNanos / 2);
+            sample(simulator.samplePosition(), simulator.sampleCallDepth());
+        }
+    }
+
+    /**
+     * Adds a sample of the given position and call depth.
+     *
+     * @param index     the index of the line in the linked program, or a negative number if the simulator was not on a
+     *                  line.
+     * @param callDepth the call depth.
+     */
+    void sample(int index, int callDepth) {
+        if (index < 0 || index >= samples.length) {
+            return;
+        }
+        samples[index]++;
+        if (callDepth >= depthSamples.length) {
+            depthSamples = Arrays.copyOf(depthSamples, callDepth + 1);
+        }
+        depthSamples[callDepth]++;
+    }
+
+    /**
+     * Gets the number of samples taken of a line of the program.
+     *
+     * @return the number of samples.
+     */
+    public long getTotal() {
+        long total = 0;
+        for (long count : samples) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Gets every line which was sampled, the most sampled first.
+     *
+     * @return the lines which were sampled, counted by their samples.
+     */
+    public List<LineProfiler.HotSpot> getHotSpots() {
+        return LineProfiler.hotSpots(lines, fileOffsets, fileNames, samples);
+    }
+
+    /**
+     * Gets the number of samples taken at each call depth.
+     *
+     * @return the number of samples by call depth.
+     */
+    public long[] getDepthSamples() {
+        return depthSamples.clone();
+    }
+
+    /**
+     * Writes a report of the most sampled lines and of the number of samples taken at each call depth.
+     *
+     * @param out        the stream to write the report to.
+     * @param maxEntries the greatest number of lines to report.
+     */
+    public void report(PrintStream out, int maxEntries) {
+        long total = getTotal();
+        out.printf("** Samples: %d samples every %d us **%n", total, TimeUnit.NANOSECONDS.toMicros(intervalNanos));
+        LineProfiler.reportHotSpots(out, "samples", getHotSpots(), total, maxEntries);
+        out.printf("%12s %7s  %s%n", "samples", "share", "call depth");
+        for (int depth = 0; depth < depthSamples.length; ++depth) {
+            if (depthSamples[depth] > 0) {
+                out.printf("%12d %6.2f%%  %d%n", depthSamples[depth], LineProfiler.percent(depthSamples[depth], total),
+                        depth);
+            }
+        }
+        out.flush();
+    }
+
+}
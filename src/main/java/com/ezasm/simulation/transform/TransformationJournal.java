@@ -0,0 +1,220 @@
+package com.ezasm.simulation.transform;
+
+import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.exception.SimulationException;
+
+/**
+ * Records the transformations applied to a simulation so that they can be undone. Each transformation is stored as a
+ * kind, a target (a register number or an address) and the value the target held before it was transformed. The entries
+ * are kept in parallel primitive arrays and grouped into steps, one per executed line, so that recording a step
+ * allocates nothing beyond the occasional growth of the arrays. The arrays are ring buffers: only the most recent steps
+ * are kept, and the oldest steps are discarded to make room for new ones.
+ */
+public final class TransformationJournal {
+
+    /**
+     * A write to the register numbered by the target.
+     */
+    public static final byte REGISTER = 0;
+
+    /**
+     * A write to the word of memory at the target address.
+     */
+    public static final byte MEMORY = 1;
+
+    /**
+     * A move of the heap pointer.
+     */
+    public static final byte HEAP_POINTER = 2;
+
+    /**
+     * A move of the input cursor by reading from the input stream.
+     */
+    public static final byte INPUT_CURSOR = 3;
+
+    /**
+     * A change of the call depth by calling or returning from a function.
+     */
+    public static final byte CALL_DEPTH = 4;
+
+    /**
+     * The average number of transformations per step kept before the oldest steps are discarded.
+     */
+    private static final int ENTRIES_PER_STEP = 4;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int maxSteps;
+    private final long maxEntries;
+
+    // Entries and step starts are addressed by ever-increasing indices which are masked into the arrays
+    private byte[] kinds;
+    private long[] targets;
+    private long[] previousValues;
+    private long entryHead;
+    private long entryTail;
+
+    private long[] stepStarts;
+    private long stepHead;
+    private long stepTail;
+
+    // Whether the current step recorded more transformations than can be kept
+    private boolean overflowed;
+
+    /**
+     * Constructs an empty journal which keeps at most the given number of steps.
+     *
+     * @param maxSteps the maximum number of steps to keep.
+     */
+    public TransformationJournal(int maxSteps) {
+        if (maxSteps < 1) {
+            throw new IllegalArgumentException("The journal must keep at least one step");
+        }
+        this.maxSteps = maxSteps;
+        this.maxEntries = (long) maxSteps * ENTRIES_PER_STEP;
+        kinds = new byte[INITIAL_CAPACITY];
+        targets = new long[INITIAL_CAPACITY];
+        previousValues = new long[INITIAL_CAPACITY];
+        stepStarts = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Begins a new step. Every transformation recorded until the next step begins is undone together. If the journal is
+     * full then the oldest step is discarded.
+     */
+    public void beginStep() {
+        overflowed = false;
+        if (stepHead - stepTail == maxSteps) {
+            discardOldestStep();
+        }
+        if (stepHead - stepTail == stepStarts.length) {
+            growSteps();
+        }
+        stepStarts[(int) (stepHead++ & (stepStarts.length - 1))] = entryHead;
+    }
+
+    /**
+     * Records a transformation of the given kind in the current step. If no step has begun then one is started. If the
+     * current step alone records more transformations than can be kept then the whole journal is discarded, as none of
+     * it could be undone past this step.
+     *
+     * @param kind          the kind of target that was transformed.
+     * @param target        the register number or address that was transformed.
+     * @param previousValue the value held by the target before it was transformed.
+     */
+    public void record(byte kind, long target, long previousValue) {
+        if (overflowed) {
+            return;
+        }
+        if (stepHead == stepTail) {
+            beginStep();
+        }
+        while (entryHead - entryTail == maxEntries) {
+            if (stepHead - stepTail == 1) {
+                clear();
+                overflowed = true;
+                return;
+            }
+            discardOldestStep();
+        }
+        if (entryHead - entryTail == kinds.length) {
+            growEntries();
+        }
+        int index = (int) (entryHead++ & (kinds.length - 1));
+        kinds[index] = kind;
+        targets[index] = target;
+        previousValues[index] = previousValue;
+    }
+
+    /**
+     * Discards the oldest step kept.
+     */
+    private void discardOldestStep() {
+        stepTail++;
+        entryTail = stepHead == stepTail ? entryHead : stepStarts[(int) (stepTail & (stepStarts.length - 1))];
+    }
+
+    /**
+     * Doubles the capacity of the entry arrays.
+     */
+    private void growEntries() {
+        int oldMask = kinds.length - 1;
+        int newMask = kinds.length * 2 - 1;
+        byte[] newKinds = new byte[newMask + 1];
+        long[] newTargets = new long[newMask + 1];
+        long[] newPreviousValues = new long[newMask + 1];
+        for (long i = entryTail; i < entryHead; ++i) {
+            newKinds[(int) (i & newMask)] = kinds[(int) (i & oldMask)];
+            newTargets[(int) (i & newMask)] = targets[(int) (i & oldMask)];
+            newPreviousValues[(int) (i & newMask)] = previousValues[(int) (i & oldMask)];
+        }
+        kinds = newKinds;
+        targets = newTargets;
+        previousValues = newPreviousValues;
+    }
+
+    /**
+     * Doubles the capacity of the step array.
+     */
+    private void growSteps() {
+        int oldMask = stepStarts.length - 1;
+        int newMask = stepStarts.length * 2 - 1;
+        long[] newStepStarts = new long[newMask + 1];
+        for (long i = stepTail; i < stepHead; ++i) {
+            newStepStarts[(int) (i & newMask)] = stepStarts[(int) (i & oldMask)];
+        }
+        stepStarts = newStepStarts;
+    }
+
+    /**
+     * Undoes the most recent step by restoring the previous value of every target it transformed, latest first.
+     *
+     * @param simulator the simulator to restore.
+     * @return true if a step was undone, false if the journal was empty.
+     * @throws SimulationException if an error occurs restoring a target.
+     */
+    public boolean undoStep(Simulator simulator) throws SimulationException {
+        if (stepHead == stepTail) {
+            return false;
+        }
+        long start = stepStarts[(int) (--stepHead & (stepStarts.length - 1))];
+        int mask = kinds.length - 1;
+        for (long i = entryHead - 1; i >= start; --i) {
+            int index = (int) (i & mask);
+            long previousValue = previousValues[index];
+            switch (kinds[index]) {
+            case REGISTER ->
+                simulator.getRegisters().getRegister((int) targets[index]).setLongWithGuiCallback(previousValue);
+            case MEMORY -> simulator.getMemory().writeWord((int) targets[index], previousValue);
+            case HEAP_POINTER -> simulator.getMemory().setHeapPointer((int) previousValue);
+            case INPUT_CURSOR -> simulator.getStreams().moveCursor(previousValue);
+            case CALL_DEPTH -> simulator.setCallDepth((int) previousValue);
+            default -> throw new IllegalStateException("Unknown transformation kind " + kinds[index]);
+            }
+        }
+        entryHead = start;
+        overflowed = false;
+        return true;
+    }
+
+    /**
+     * Gets the number of steps which can be undone.
+     *
+     * @return the number of steps which can be undone.
+     */
+    public int steps() {
+        return (int) (stepHead - stepTail);
+    }
+
+    /**
+     * Discards every recorded step.
+     */
+    public void clear() {
+        entryHead = 0;
+        entryTail = 0;
+        stepHead = 0;
+        stepTail = 0;
+        overflowed = false;
+    }
+
+}
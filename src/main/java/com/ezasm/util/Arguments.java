@@ -2,11 +2,26 @@ package com.ezasm.util;
 
 import com.ezasm.gui.settings.Config;
 import com.ezasm.gui.Window;
+import com.ezasm.simulation.Engine;
 import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.SimulatorPool;
 import com.ezasm.simulation.Memory;
+import com.ezasm.simulation.profile.CallGraphProfiler;
+import com.ezasm.simulation.profile.LineProfiler;
+import com.ezasm.simulation.profile.SamplingProfiler;
 import org.apache.commons.cli.*;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Methods to handle the program arguments and begin the program correspondingly.
@@ -37,6 +52,10 @@ public class Arguments {
         options.addOption(memoryOption);
         memoryOption.setArgName("memory size");
 
+        Option pagedMemoryOption = new Option("p", "paged-memory", false,
+                "Allocates memory in pages as it is written instead of all at once\n(default: disabled)");
+        options.addOption(pagedMemoryOption);
+
         Option wordSizeOption = new Option("s", "word-size", true, "The size in bytes of a word\n(4 or 8, default: 4)");
         options.addOption(wordSizeOption);
         wordSizeOption.setArgName("word size");
@@ -49,6 +68,78 @@ public class Arguments {
         options.addOption(outputOption);
         outputOption.setArgName("output file path");
 
+        Option engineOption = new Option("e", "engine", true,
+                "The engine used to run code files in windowless mode\n(interpreter, closure or bytecode, default: interpreter)");
+        options.addOption(engineOption);
+        engineOption.setArgName("engine");
+
+        Option maxInstructionsOption = new Option(null, "max-instructions", true,
+                "The greatest number of lines a program may run in windowless mode before it is stopped with exit status 125\n(default: no limit)");
+        options.addOption(maxInstructionsOption);
+        maxInstructionsOption.setArgName("lines");
+
+        Option timeoutOption = new Option(null, "timeout", true,
+                "The longest time in milliseconds a program may run for in windowless mode before it is stopped with exit status 124\n(default: no limit)");
+        options.addOption(timeoutOption);
+        timeoutOption.setArgName("milliseconds");
+
+        Option profileOption = new Option(null, "profile", false,
+                "Counts how many times each line and instruction runs, reporting the hot spots to standard error on exit in windowless mode and as a heatmap in the editor gutter otherwise\n(default: disabled)");
+        options.addOption(profileOption);
+
+        Option callGraphOption = new Option(null, "call-graph", true,
+                "Attributes the lines run and the time spent to each function called, reporting them to standard error on exit and writing folded stacks for flame graph tools to a file; windowless mode only\n(default: disabled)");
+        options.addOption(callGraphOption);
+        callGraphOption.setArgName("folded stacks file path");
+
+        Option sampleOption = new Option(null, "sample", false,
+                "Samples the line being run and the call depth on a background thread, reporting the most sampled lines to standard error on exit; cheap enough for long runs; windowless mode only\n(default: disabled)");
+        options.addOption(sampleOption);
+
+        Option sampleIntervalOption = new Option(null, "sample-interval", true,
+                "The time in microseconds between samples\n(default: 1000)");
+        options.addOption(sampleIntervalOption);
+        sampleIntervalOption.setArgName("microseconds");
+
+        Option batchOption = new Option("b", "batch", true,
+                "Runs every program listed in a manifest concurrently and reports their results, one program per line followed by optional input and expected output files\n(default: disabled)");
+        options.addOption(batchOption);
+        batchOption.setArgName("manifest file path");
+
+        Option threadsOption = new Option("t", "threads", true,
+                "The greatest number of programs run at once in batch and server modes, on platform threads or virtual threads alike\n(default: the number of processors)");
+        options.addOption(threadsOption);
+        threadsOption.setArgName("threads");
+
+        Option virtualThreadsOption = new Option(null, "virtual-threads", false,
+                "Runs each program on its own virtual thread in batch mode, still no more than --threads at once; requires Java 21 or later\n(default: disabled)");
+        options.addOption(virtualThreadsOption);
+
+        Option benchmarkOption = new Option(null, "benchmark", true,
+                "Measures the instructions per second and the bytes allocated per run of every program listed in a manifest, one at a time\n(default: disabled)");
+        options.addOption(benchmarkOption);
+        benchmarkOption.setArgName("manifest file path");
+
+        Option baselineOption = new Option(null, "baseline", true,
+                "A report of an earlier benchmark run to compare against, exiting with status 1 if any program regressed\n(default: none)");
+        options.addOption(baselineOption);
+        baselineOption.setArgName("baseline file path");
+
+        Option thresholdOption = new Option(null, "threshold", true,
+                "The percentage by which a benchmark may be worse than its baseline before it is a regression\n(default: 10)");
+        options.addOption(thresholdOption);
+        thresholdOption.setArgName("percent");
+
+        Option serverOption = new Option(null, "server", true,
+                "Runs a server which runs the programs sent to it, listening on a localhost port or a Unix domain socket path\n(default: disabled)");
+        options.addOption(serverOption);
+        serverOption.setArgName("port or socket path");
+
+        Option connectOption = new Option(null, "connect", true,
+                "Sends the code file to a server to run instead of running it here, with the same input and output; only the code file is sent, so it may not import other files\n(default: disabled)");
+        options.addOption(connectOption);
+        connectOption.setArgName("port or socket path");
+
         CommandLineParser parser = new DefaultParser();
         CommandLine commandLine = null;
 
@@ -94,6 +185,8 @@ public class Arguments {
                     errorArgs(options, "Memory size must be positive");
                 } else if (memorySize < wordSize) {
                     errorArgs(options, "Memory must be at least 1 word");
+                } else if (!Memory.isAddressable(wordSize, memorySize)) {
+                    errorArgs(options, "Memory size is too large to be addressed");
                 }
             } catch (Exception e) {
                 errorArgs(options, "Unable to parse given memory size");
@@ -102,7 +195,147 @@ public class Arguments {
             memorySize = Memory.DEFAULT_MEMORY_WORDS;
         }
 
-        Simulator sim = new Simulator(wordSize, memorySize);
+        Engine engine = Engine.INTERPRETER;
+        if (commandLine.hasOption(engineOption)) {
+            try {
+                engine = Engine.valueOf(commandLine.getOptionValue(engineOption).toUpperCase());
+            } catch (IllegalArgumentException e) {
+                errorArgs(options, "Engine must be interpreter, closure or bytecode");
+            }
+        }
+
+        long instructionLimit = 0;
+        if (commandLine.hasOption(maxInstructionsOption)) {
+            try {
+                instructionLimit = Long.parseLong(commandLine.getOptionValue(maxInstructionsOption));
+            } catch (NumberFormatException e) {
+                errorArgs(options, "Unable to parse given instruction limit");
+            }
+            if (instructionLimit < 1) {
+                errorArgs(options, "Instruction limit must be positive");
+            }
+        }
+
+        long timeLimit = 0;
+        if (commandLine.hasOption(timeoutOption)) {
+            try {
+                timeLimit = Long.parseLong(commandLine.getOptionValue(timeoutOption));
+            } catch (NumberFormatException e) {
+                errorArgs(options, "Unable to parse given timeout");
+            }
+            if (timeLimit < 1) {
+                errorArgs(options, "Timeout must be positive");
+            }
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (commandLine.hasOption(threadsOption)) {
+            try {
+                threads = Integer.parseInt(commandLine.getOptionValue(threadsOption));
+            } catch (NumberFormatException e) {
+                errorArgs(options, "Unable to parse given number of threads");
+            }
+            if (threads < 1) {
+                errorArgs(options, "Number of threads must be positive");
+            }
+        }
+
+        boolean profiling = Arrays.stream(new Option[] { profileOption, callGraphOption, sampleOption })
+                .anyMatch(commandLine::hasOption);
+        if (profiling && Arrays.stream(new Option[] { serverOption, connectOption, benchmarkOption, batchOption })
+                .anyMatch(commandLine::hasOption)) {
+            errorArgs(options, "Profilers can only be used when running a single code file");
+        }
+        if (!commandLine.hasOption(windowlessOption)
+                && (commandLine.hasOption(callGraphOption) || commandLine.hasOption(sampleOption))) {
+            errorArgs(options, "The call graph and sampling profilers can only be used in windowless mode");
+        }
+
+        if (commandLine.hasOption(serverOption)) {
+            if (commandLine.getArgs().length > 0) {
+                errorArgs(options, "Server mode takes its code files from its clients");
+            }
+            SimulatorPool pool = new SimulatorPool(wordSize, memorySize, commandLine.hasOption(pagedMemoryOption),
+                    engine, threads);
+            pool.setLimits(instructionLimit, timeLimit);
+            pool.fill();
+            runServer(new SimulationServer(pool), commandLine.getOptionValue(serverOption), threads);
+            return;
+        }
+
+        if (commandLine.hasOption(connectOption)) {
+            if (commandLine.getArgs().length != 1) {
+                errorArgs(options, "A code file must be given to send to the server");
+            }
+            runOnServer(commandLine.getOptionValue(connectOption), commandLine.getArgs()[0],
+                    commandLine.getOptionValue(inputOption), commandLine.getOptionValue(outputOption));
+            return;
+        }
+
+        if (commandLine.hasOption(benchmarkOption)) {
+            if (commandLine.getArgs().length > 0 || commandLine.hasOption(inputOption)) {
+                errorArgs(options, "Benchmark mode takes its code and input files from the manifest");
+            }
+            double threshold = BenchmarkRunner.DEFAULT_THRESHOLD;
+            if (commandLine.hasOption(thresholdOption)) {
+                try {
+                    threshold = Double.parseDouble(commandLine.getOptionValue(thresholdOption)) / 100;
+                } catch (NumberFormatException e) {
+                    errorArgs(options, "Unable to parse given threshold");
+                }
+                if (threshold < 0) {
+                    errorArgs(options, "Threshold must not be negative");
+                }
+            }
+            SimulatorPool pool = new SimulatorPool(wordSize, memorySize, commandLine.hasOption(pagedMemoryOption),
+                    engine, 1);
+            pool.setLimits(instructionLimit, timeLimit);
+            runBenchmark(
+                    new BenchmarkRunner(pool, BenchmarkRunner.DEFAULT_WARMUP_RUNS,
+                            BenchmarkRunner.DEFAULT_MEASURED_RUNS),
+                    commandLine.getOptionValue(benchmarkOption), commandLine.getOptionValue(baselineOption),
+                    commandLine.getOptionValue(outputOption), threshold);
+            return;
+        }
+
+        if (commandLine.hasOption(batchOption)) {
+            if (commandLine.getArgs().length > 0 || commandLine.hasOption(inputOption)) {
+                errorArgs(options, "Batch mode takes its code and input files from the manifest");
+            }
+            SimulatorPool pool = new SimulatorPool(wordSize, memorySize, commandLine.hasOption(pagedMemoryOption),
+                    engine, threads);
+            pool.setLimits(instructionLimit, timeLimit);
+            runBatch(new BatchRunner(pool), commandLine.getOptionValue(batchOption),
+                    commandLine.getOptionValue(outputOption), threads, commandLine.hasOption(virtualThreadsOption));
+            return;
+        }
+
+        Simulator sim = new Simulator(wordSize, memorySize, commandLine.hasOption(pagedMemoryOption));
+        sim.setEngine(engine);
+        sim.setInstructionLimit(instructionLimit);
+        sim.setTimeLimit(timeLimit);
+        long sampleInterval = SamplingProfiler.DEFAULT_INTERVAL_MICROS;
+        if (commandLine.hasOption(sampleIntervalOption)) {
+            try {
+                sampleInterval = Long.parseLong(commandLine.getOptionValue(sampleIntervalOption));
+            } catch (NumberFormatException e) {
+                errorArgs(options, "Unable to parse given sampling interval");
+            }
+            if (sampleInterval < 1) {
+                errorArgs(options, "Sampling interval must be positive");
+            }
+        }
+
+        if (Arrays.stream(new Option[] { profileOption, callGraphOption, sampleOption }).filter(commandLine::hasOption)
+                .count() > 1) {
+            errorArgs(options, "Only one profiler may be used at once");
+        } else if (commandLine.hasOption(profileOption)) {
+            sim.setProfiler(new LineProfiler());
+        } else if (commandLine.hasOption(callGraphOption)) {
+            sim.setProfiler(new CallGraphProfiler(new File(commandLine.getOptionValue(callGraphOption))));
+        } else if (commandLine.hasOption(sampleOption)) {
+            sim.setSampler(new SamplingProfiler(sampleInterval));
+        }
         String filepath = "";
 
         if (commandLine.getArgs().length > 1) {
@@ -140,6 +373,124 @@ public class Arguments {
         }
     }
 
+    /**
+     * Runs the programs listed in a manifest and exits, with a status of zero if every program passed and one
+     * otherwise.
+     *
+     * @param runner         the batch runner.
+     * @param manifestPath   the path to the manifest.
+     * @param reportPath     the path to write the results report to, or null to write it to standard output.
+     * @param threads        the greatest number of programs to run at once.
+     * @param virtualThreads whether to run each program on its own virtual thread.
+     */
+    private static void runBatch(BatchRunner runner, String manifestPath, String reportPath, int threads,
+            boolean virtualThreads) {
+        List<BatchRunner.Entry> entries;
+        PrintStream report = SystemStreams.out;
+        try {
+            entries = BatchRunner.readManifest(new File(manifestPath));
+            if (reportPath != null) {
+                report = new PrintStream(new FileOutputStream(reportPath), false);
+            }
+        } catch (IOException e) {
+            SystemStreams.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        boolean passed = false;
+        ExecutorService executor = null;
+        try {
+            executor = BatchRunner.newExecutor(threads, virtualThreads);
+            passed = runner.runAll(entries, executor, threads, report);
+        } catch (UnsupportedOperationException | InterruptedException e) {
+            SystemStreams.err.println(e.getMessage());
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            report.flush();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Measures the programs listed in a manifest and exits, with a status of zero if every program passed and none
+     * regressed from the baseline and one otherwise.
+     *
+     * @param runner       the benchmark runner.
+     * @param manifestPath the path to the manifest.
+     * @param baselinePath the path to the baseline to compare against, or null to not compare.
+     * @param reportPath   the path to write the measurements report to, or null to write it to standard output.
+     * @param threshold    the fraction by which a measurement may be worse than its baseline.
+     */
+    private static void runBenchmark(BenchmarkRunner runner, String manifestPath, String baselinePath,
+            String reportPath, double threshold) {
+        PrintStream report = SystemStreams.out;
+        try {
+            Map<String, BenchmarkRunner.Measurement> baseline = baselinePath == null ? Map.of()
+                    : BenchmarkRunner.readBaseline(new File(baselinePath));
+            if (reportPath != null) {
+                report = new PrintStream(new FileOutputStream(reportPath), false);
+            }
+            List<BenchmarkRunner.Measurement> measurements = runner.measureAll(new File(manifestPath), report);
+            report.flush();
+
+            boolean passed = true;
+            for (BenchmarkRunner.Measurement measurement : measurements) {
+                if (!measurement.passed()) {
+                    SystemStreams.err.printf("%s: failed\n", measurement.program());
+                    passed = false;
+                }
+            }
+            for (BenchmarkRunner.Regression regression : BenchmarkRunner.compare(measurements, baseline, threshold)) {
+                SystemStreams.err.println(regression);
+                passed = false;
+            }
+            System.exit(passed ? 0 : 1);
+        } catch (IOException e) {
+            SystemStreams.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     *
+     * @param server  the server.
+     * @param address the port number or socket path to listen on.
+     * @param threads the greatest number of requests to run at once.
+     */
+    private static void runServer(SimulationServer server, String address, int threads) {
+        try {
+            server.serve(SimulationServer.open(SimulationServer.address(address)), threads);
+        } catch (IOException e) {
+            SystemStreams.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Sends a code file to a server to run and exits with the exit status of the program.
+     *
+     * @param address    the port number or socket path of the server.
+     * @param filePath   the code file.
+     * @param inputPath  the file to send as input, or null to send standard input.
+     * @param outputPath the file to write the output to, or null to write it to standard output.
+     */
+    private static void runOnServer(String address, String filePath, String inputPath, String outputPath) {
+        try (InputStream input = inputPath == null ? SystemStreams.in : new FileInputStream(inputPath);
+                OutputStream output = outputPath == null ? SystemStreams.out : new FileOutputStream(outputPath)) {
+            long exitCode = SimulationServer.request(SimulationServer.address(address),
+                    FileIO.readFile(new File(filePath)), input, output, SystemStreams.err);
+            output.flush();
+            System.exit((int) exitCode);
+        } catch (IOException e) {
+            SystemStreams.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
     /**
      * Exit the program while displaying a message.
      *
@@ -0,0 +1,281 @@
+package com.ezasm.util;
+
+import com.ezasm.parsing.Lexer;
+import com.ezasm.parsing.ParseException;
+import com.ezasm.simulation.Registers;
+import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.SimulatorPool;
+import com.ezasm.simulation.exception.InstructionLimitException;
+import com.ezasm.simulation.exception.SimulationException;
+import com.ezasm.simulation.exception.TimeLimitException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs many programs concurrently within a single JVM, each on its own simulator, and reports the result of each as it
+ * completes. The programs are listed in a manifest with one program per line, optionally followed by a file to read
+ * input from and a file containing the expected output, separated by whitespace. A '-' stands for no file, blank lines
+ * and lines starting with '#' are ignored, and relative paths are resolved against the directory of the manifest.
+ */
+public class BatchRunner {
+
+    /**
+     * The header of the results report. Each result is reported on a line of tab separated columns.
+     */
+    public static final String REPORT_HEADER = "program\tstatus\texit code\toutput\tinstructions\tmilliseconds\tmessage";
+
+    /**
+     * A program listed in a manifest.
+     *
+     * @param program  the code file.
+     * @param input    the file to read input from, or null to read no input.
+     * @param expected the file containing the expected output, or null if the output is not checked.
+     */
+    public record Entry(File program, File input, File expected) {
+    }
+
+    /**
+     * The outcome of running a program.
+     */
+    public enum Status {
+        /**
+         * The program ran to completion.
+         */
+        OK,
+        /**
+         * The program or one of its files could not be read or parsed.
+         */
+        PARSE_ERROR,
+        /**
+         * The program stopped with an error while running.
+         */
+        SIMULATION_ERROR,
+        /**
+         * The program was stopped for running more lines than it was allowed to.
+         */
+        INSTRUCTION_LIMIT,
+        /**
+         * The program was stopped for running longer than it was allowed to.
+         */
+        TIME_LIMIT
+    }
+
+    /**
+     * The result of running a program.
+     *
+     * @param entry        the program which was run.
+     * @param status       the outcome of running the program.
+     * @param exitCode     the value of the return register when the program stopped.
+     * @param outputMatch  whether the output matched the expected output, or null if it was not checked.
+     * @param instructions the number of lines run.
+     * @param nanos        the wall time taken to parse and run the program in nanoseconds.
+     * @param runNanos     the wall time taken to run the program once it was parsed and linked in nanoseconds.
+     * @param message      the error message, or an empty string if there was no error.
+     */
+    public record Result(Entry entry, Status status, long exitCode, Boolean outputMatch, long instructions, long nanos,
+            long runNanos, String message) {
+
+        /**
+         * Returns true if the program ran to completion and its output matched the expected output if there was one.
+         *
+         * @return true if the program passed, false otherwise.
+         */
+        public boolean passed() {
+            return status == Status.OK && !Boolean.FALSE.equals(outputMatch);
+        }
+
+        /**
+         * Formats the result as a line of the results report.
+         *
+         * @return the tab separated columns of the result.
+         */
+        public String toReportLine() {
+            String output = outputMatch == null ? "-" : outputMatch ? "match" : "mismatch";
+            return String.format("%s\t%s\t%d\t%s\t%d\t%.3f\t%s", entry.program().getPath(), status.name().toLowerCase(),
+                    exitCode, output, instructions, nanos / 1e6, message.replaceAll("\\s+", " "));
+        }
+    }
+
+    private final SimulatorPool pool;
+
+    /**
+     * Constructs a batch runner which runs each program on a simulator from the given pool.
+     *
+     * @param pool the pool of simulators to run programs on.
+     */
+    public BatchRunner(SimulatorPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Reads the programs listed in a manifest.
+     *
+     * @param manifest the manifest file.
+     * @return the programs listed, in order.
+     * @throws IOException if the manifest cannot be read or a line of it has more than three columns.
+     */
+    public static List<Entry> readManifest(File manifest) throws IOException {
+        File directory = manifest.getAbsoluteFile().getParentFile();
+        List<Entry> entries = new ArrayList<>();
+        List<String> lines = Files.readAllLines(manifest.toPath());
+        for (int i = 0; i < lines.size(); ++i) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split("\\s+");
+            if (columns.length > 3) {
+                throw new IOException(
+                        String.format("Line %d of manifest %s has more than three columns", i + 1, manifest.getPath()));
+            }
+            entries.add(new Entry(resolve(directory, columns[0]),
+                    columns.length > 1 ? resolve(directory, columns[1]) : null,
+                    columns.length > 2 ? resolve(directory, columns[2]) : null));
+        }
+        return entries;
+    }
+
+    private static File resolve(File directory, String path) {
+        if (path.equals("-")) {
+            return null;
+        }
+        File file = new File(path);
+        return file.isAbsolute() ? file : new File(directory, path);
+    }
+
+    /**
+     * Creates an executor to run programs on. An executor of virtual threads starts every program at once, so how many
+     * of them run at a time is left to {@link #runAll(List, ExecutorService, int, PrintStream)}.
+     *
+     * @param threads        the number of platform threads, ignored if using virtual threads.
+     * @param virtualThreads whether to run each program on its own virtual thread.
+     * @return the executor.
+     * @throws UnsupportedOperationException if virtual threads are requested but not supported by the runtime.
+     */
+    public static ExecutorService newExecutor(int threads, boolean virtualThreads) {
+        if (!virtualThreads) {
+            return Executors.newFixedThreadPool(threads);
+        }
+        // Virtual threads are only available from Java 21, so they are looked up when running on a newer runtime
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        }
+    }
+
+    /**
+     * Runs every program on the executor, writing the result of each to the report as it completes. No more than the
+     * given number of programs run at once whatever the executor, which bounds the number of simulators taken from the
+     * pool.
+     *
+     * @param entries     the programs to run.
+     * @param executor    the executor to run the programs on.
+     * @param concurrency the greatest number of programs to run at once.
+     * @param report      the stream to write the results report to.
+     * @return true if every program passed, false otherwise.
+     * @throws InterruptedException if interrupted while waiting for the programs to complete.
+     */
+    public boolean runAll(List<Entry> entries, ExecutorService executor, int concurrency, PrintStream report)
+            throws InterruptedException {
+        report.println(REPORT_HEADER);
+        Semaphore running = new Semaphore(concurrency);
+        List<Future<Result>> results = new ArrayList<>();
+        for (Entry entry : entries) {
+            results.add(executor.submit(() -> {
+                Result result;
+                running.acquire();
+                try {
+                    result = run(entry);
+                } finally {
+                    running.release();
+                }
+                synchronized (report) {
+                    report.println(result.toReportLine());
+                    report.flush();
+                }
+                return result;
+            }));
+        }
+
+        boolean passed = true;
+        for (Future<Result> result : results) {
+            try {
+                passed &= result.get().passed();
+            } catch (ExecutionException e) {
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    /**
+     * Runs a single program on a simulator from the pool.
+     *
+     * @param entry the program to run.
+     * @return the result of running the program.
+     */
+    public Result run(Entry entry) {
+        long start = System.nanoTime();
+        Simulator simulator = pool.acquire();
+        try {
+            return run(entry, simulator, start);
+        } finally {
+            pool.release(simulator);
+        }
+    }
+
+    private Result run(Entry entry, Simulator simulator, long start) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        simulator.getStreams().setOutputStream(output);
+
+        Status status = Status.OK;
+        String message = "";
+        Boolean outputMatch = null;
+        long runNanos = 0;
+        try (InputStream input = entry.input() == null ? new ByteArrayInputStream(new byte[0])
+                : new FileInputStream(entry.input())) {
+            simulator.getStreams().setInputStream(input);
+            simulator.addLines(Lexer.parseLines(FileIO.readFile(entry.program())), entry.program());
+            long runStart = System.nanoTime();
+            try {
+                simulator.executeProgramFromPC();
+            } catch (InstructionLimitException e) {
+                status = Status.INSTRUCTION_LIMIT;
+                message = e.getMessage();
+            } catch (TimeLimitException e) {
+                status = Status.TIME_LIMIT;
+                message = e.getMessage();
+            } catch (SimulationException e) {
+                status = Status.SIMULATION_ERROR;
+                message = e.getMessage();
+            }
+            runNanos = System.nanoTime() - runStart;
+            if (entry.expected() != null) {
+                outputMatch = Arrays.equals(output.toByteArray(), Files.readAllBytes(entry.expected().toPath()));
+            }
+        } catch (ParseException | IOException e) {
+            status = Status.PARSE_ERROR;
+            message = e.getMessage();
+        }
+
+        return new Result(entry, status, simulator.getRegisters().getRegister(Registers.R0).getLong(), outputMatch,
+                simulator.getInstructionCount(), System.nanoTime() - start, runNanos, message == null ? "" : message);
+    }
+
+}
@@ -0,0 +1,225 @@
+package com.ezasm.util;
+
+import com.ezasm.simulation.SimulatorPool;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the programs listed in a manifest one at a time and compares the measurements against a baseline recorded by
+ * an earlier run. Each program is run a few times to warm up the simulator and then measured over several more runs by
+ * the instructions per second of its fastest run, timing only the run itself and not reading, parsing and linking the
+ * program, and by the bytes allocated by its leanest run. Allocation is counted on the thread running the program, so
+ * unlike the heap usage of the JVM it does not depend on when garbage is collected or on what other threads allocate.
+ * The report of a run has the same format as a baseline, so recording a baseline is a matter of keeping a report.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * The header of the measurements report. Each measurement is reported on a line of tab separated columns.
+     */
+    public static final String REPORT_HEADER = "program\tpassed\tinstructions\tinstructions per second\tallocated bytes";
+
+    /**
+     * The default fraction by which a measurement may be worse than its baseline before it is a regression.
+     */
+    public static final double DEFAULT_THRESHOLD = 0.1;
+
+    /**
+     * The default number of times each program is run before it is measured.
+     */
+    public static final int DEFAULT_WARMUP_RUNS = 3;
+
+    /**
+     * The default number of times each program is run while it is measured.
+     */
+    public static final int DEFAULT_MEASURED_RUNS = 5;
+
+    /**
+     * The measurements of a program.
+     *
+     * @param program               the path of the program relative to the manifest.
+     * @param passed                whether every run of the program passed.
+     * @param instructions          the number of lines run by a single run of the program.
+     * @param instructionsPerSecond the number of lines run per second by the fastest run of the program.
+     * @param allocatedBytes        the number of bytes allocated by the run of the program which allocated the least,
+     *                              or -1 if the JVM does not count allocations.
+     */
+    public record Measurement(String program, boolean passed, long instructions, double instructionsPerSecond,
+            long allocatedBytes) {
+
+        /**
+         * Formats the measurement as a line of the measurements report.
+         *
+         * @return the tab separated columns of the measurement.
+         */
+        public String toReportLine() {
+            return String.format("%s\t%b\t%d\t%.0f\t%d", program, passed, instructions, instructionsPerSecond,
+                    allocatedBytes);
+        }
+    }
+
+    /**
+     * A measurement which is worse than its baseline by more than the threshold.
+     *
+     * @param program  the path of the program relative to the manifest.
+     * @param metric   the name of the measurement.
+     * @param baseline the baseline value.
+     * @param current  the measured value.
+     */
+    public record Regression(String program, String metric, double baseline, double current) {
+
+        @Override
+        public String toString() {
+            return String.format("%s: %s regressed from %.0f to %.0f (%+.1f%%)", program, metric, baseline, current,
+                    (current - baseline) / baseline * 100);
+        }
+    }
+
+    private final BatchRunner runner;
+    private final int warmupRuns;
+    private final int measuredRuns;
+
+    /**
+     * Constructs a benchmark runner which runs each program on a simulator from the given pool.
+     *
+     * @param pool         the pool of simulators to run programs on.
+     * @param warmupRuns   the number of times each program is run before it is measured.
+     * @param measuredRuns the number of times each program is run while it is measured.
+     */
+    public BenchmarkRunner(SimulatorPool pool, int warmupRuns, int measuredRuns) {
+        this.runner = new BatchRunner(pool);
+        this.warmupRuns = warmupRuns;
+        this.measuredRuns = Math.max(1, measuredRuns);
+    }
+
+    /**
+     * Measures every program listed in a manifest in turn, writing each measurement to the report as it completes.
+     *
+     * @param manifest the manifest file.
+     * @param report   the stream to write the measurements report to.
+     * @return the measurements, in the order of the manifest.
+     * @throws IOException if the manifest cannot be read.
+     */
+    public List<Measurement> measureAll(File manifest, PrintStream report) throws IOException {
+        Path directory = manifest.getAbsoluteFile().getParentFile().toPath();
+        report.println(REPORT_HEADER);
+        List<Measurement> measurements = new ArrayList<>();
+        for (BatchRunner.Entry entry : BatchRunner.readManifest(manifest)) {
+            Measurement measurement = measure(directory.relativize(entry.program().toPath()).toString(), entry);
+            report.println(measurement.toReportLine());
+            report.flush();
+            measurements.add(measurement);
+        }
+        return measurements;
+    }
+
+    /**
+     * Measures a single program.
+     *
+     * @param name  the name to report the program by.
+     * @param entry the program to measure.
+     * @return the measurements of the program.
+     */
+    public Measurement measure(String name, BatchRunner.Entry entry) {
+        boolean passed = true;
+        for (int i = 0; i < warmupRuns; ++i) {
+            passed &= runner.run(entry).passed();
+        }
+
+        long instructions = 0;
+        long fastest = Long.MAX_VALUE;
+        long leanest = Long.MAX_VALUE;
+        for (int i = 0; i < measuredRuns; ++i) {
+            long allocatedBefore = allocatedBytes();
+            BatchRunner.Result result = runner.run(entry);
+            long allocated = allocatedBytes() - allocatedBefore;
+            passed &= result.passed();
+            instructions = result.instructions();
+            fastest = Math.min(fastest, result.runNanos());
+            leanest = Math.min(leanest, allocated);
+        }
+        return new Measurement(name, passed, instructions, instructions * 1e9 / Math.max(1, fastest),
+                allocatedBytes() < 0 ? -1 : leanest);
+    }
+
+    /**
+     * Gets the number of bytes allocated by the current thread so far.
+     *
+     * @return the number of bytes, or -1 if the JVM does not count allocations.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean allocations
+                && allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled()) {
+            return allocations.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the measurements of a report recorded as a baseline.
+     *
+     * @param baseline the report file.
+     * @return the measurements by program.
+     * @throws IOException if the report cannot be read or a line of it is malformed.
+     */
+    public static Map<String, Measurement> readBaseline(File baseline) throws IOException {
+        Map<String, Measurement> measurements = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(baseline.toPath());
+        for (int i = 1; i < lines.size(); ++i) {
+            if (lines.get(i).isBlank()) {
+                continue;
+            }
+            String[] columns = lines.get(i).split("\t");
+            try {
+                measurements.put(columns[0], new Measurement(columns[0], Boolean.parseBoolean(columns[1]),
+                        Long.parseLong(columns[2]), Double.parseDouble(columns[3]), Long.parseLong(columns[4])));
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                throw new IOException(String.format("Line %d of baseline %s is malformed", i + 1, baseline.getPath()));
+            }
+        }
+        return measurements;
+    }
+
+    /**
+     * Compares measurements against their baseline. A program regresses if it runs fewer instructions per second or
+     * allocates more bytes than its baseline by more than the threshold. Programs without a baseline are not compared,
+     * and neither are allocations which either side did not count.
+     *
+     * @param measurements the measurements.
+     * @param baseline     the baseline measurements by program.
+     * @param threshold    the fraction by which a measurement may be worse than its baseline.
+     * @return the regressions, in the order of the measurements.
+     */
+    public static List<Regression> compare(List<Measurement> measurements, Map<String, Measurement> baseline,
+            double threshold) {
+        List<Regression> regressions = new ArrayList<>();
+        for (Measurement measurement : measurements) {
+            Measurement base = baseline.get(measurement.program());
+            if (base == null) {
+                continue;
+            }
+            if (measurement.instructionsPerSecond() < base.instructionsPerSecond() * (1 - threshold)) {
+                regressions.add(new Regression(measurement.program(), "instructions per second",
+                        base.instructionsPerSecond(), measurement.instructionsPerSecond()));
+            }
+            if (measurement.allocatedBytes() >= 0 && base.allocatedBytes() >= 0
+                    && measurement.allocatedBytes() > base.allocatedBytes() * (1 + threshold)) {
+                regressions.add(new Regression(measurement.program(), "allocated bytes", base.allocatedBytes(),
+                        measurement.allocatedBytes()));
+            }
+        }
+        return regressions;
+    }
+
+}
@@ -1,12 +1,14 @@
 package com.ezasm.util;
 
-import com.ezasm.instructions.implementation.TerminalInstructions;
 import com.ezasm.parsing.Lexer;
 import com.ezasm.parsing.Line;
 import com.ezasm.parsing.ParseException;
 import com.ezasm.simulation.Simulator;
 import com.ezasm.simulation.Registers;
+import com.ezasm.simulation.exception.ExecutionLimitException;
 import com.ezasm.simulation.exception.SimulationException;
+import com.ezasm.simulation.profile.Profiler;
+import com.ezasm.simulation.profile.SamplingProfiler;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -106,11 +108,13 @@ public class CommandLineInterface {
      * Begins the simulation. Starts reading CLI input or reads and executes from the given file.
      */
     public void startSimulation() {
+        // The CLI can never step back, so no history is recorded
+        simulator.setHistoryEnabled(false);
         if (inputStream != null) {
-            TerminalInstructions.streams().setInputStream(inputStream);
+            simulator.getStreams().setInputStream(inputStream);
         }
         if (outputStream != null) {
-            TerminalInstructions.streams().setOutputStream(outputStream);
+            simulator.getStreams().setOutputStream(outputStream);
         }
         if (cli) {
             runFromCliInput();
@@ -144,15 +148,31 @@ public class CommandLineInterface {
     }
 
     /**
-     * Uses the simulation thread to run the code from the file.
+     * Uses the simulation thread to run the code from the file. Exits with the value of the return register, or with
+     * the status of the limit which stopped the program. If the simulator is profiling or sampling, the profile or
+     * samples are reported to standard error before exiting, however the program ended.
      */
     private void runLinesFromBeginning() {
+        int exitStatus;
         try {
             simulator.executeProgramFromPC();
+            exitStatus = (int) simulator.getRegisters().getRegister(Registers.R0).getLong();
+        } catch (ExecutionLimitException e) {
+            SystemStreams.err.println(e.getMessage());
+            exitStatus = e.getExitStatus();
         } catch (SimulationException e) {
             SystemStreams.err.println(e.getMessage());
+            exitStatus = (int) simulator.getRegisters().getRegister(Registers.R0).getLong();
+        }
+        Profiler profiler = simulator.getProfiler();
+        if (profiler != null) {
+            profiler.report(SystemStreams.err, Profiler.DEFAULT_REPORT_LINES);
+        }
+        SamplingProfiler sampler = simulator.getSampler();
+        if (sampler != null) {
+            sampler.report(SystemStreams.err, Profiler.DEFAULT_REPORT_LINES);
         }
-        System.exit((int) simulator.getRegisters().getRegister(Registers.R0).getLong());
+        System.exit(exitStatus);
     }
 
 }
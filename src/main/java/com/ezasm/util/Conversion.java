@@ -1,7 +1,5 @@
 package com.ezasm.util;
 
-import com.ezasm.simulation.Memory;
-
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 
@@ -13,14 +11,15 @@ public class Conversion {
     /**
      * Converts a long into its corresponding bytes.
      *
-     * @param data the long to convert.
+     * @param data     the long to convert.
+     * @param wordSize the number of bytes to convert to.
      * @return the byte data representation of the long.
      */
-    public static byte[] longToBytes(long data) {
-        if (Memory.wordSize() == 4) {
-            return ByteBuffer.wrap(new byte[Memory.wordSize()]).putInt((int) data).array();
-        } else if (Memory.wordSize() == 8) {
-            return ByteBuffer.wrap(new byte[Memory.wordSize()]).putLong(data).array();
+    public static byte[] longToBytes(long data, int wordSize) {
+        if (wordSize == 4) {
+            return ByteBuffer.wrap(new byte[wordSize]).putInt((int) data).array();
+        } else if (wordSize == 8) {
+            return ByteBuffer.wrap(new byte[wordSize]).putLong(data).array();
         }
         return null;
     }
@@ -43,14 +42,15 @@ public class Conversion {
     /**
      * Converts a double into its corresponding bytes.
      *
-     * @param data the double to convert.
+     * @param data     the double to convert.
+     * @param wordSize the number of bytes to convert to.
      * @return the byte data representation of the double.
      */
-    public static byte[] doubleToBytes(double data) {
-        if (Memory.wordSize() == 4) {
-            return ByteBuffer.wrap(new byte[Memory.wordSize()]).putFloat((float) data).array();
-        } else if (Memory.wordSize() == 8) {
-            return ByteBuffer.wrap(new byte[Memory.wordSize()]).putDouble(data).array();
+    public static byte[] doubleToBytes(double data, int wordSize) {
+        if (wordSize == 4) {
+            return ByteBuffer.wrap(new byte[wordSize]).putFloat((float) data).array();
+        } else if (wordSize == 8) {
+            return ByteBuffer.wrap(new byte[wordSize]).putDouble(data).array();
         }
         return null;
     }
@@ -65,7 +65,7 @@ public class Conversion {
         if (data.length == 4) {
             return ByteBuffer.wrap(data).getFloat();
         } else if (data.length == 8) {
-            return ByteBuffer.wrap(data).getLong();
+            return ByteBuffer.wrap(data).getDouble();
         }
         return 0;
     }
@@ -43,9 +43,10 @@ public class FileIO {
         if (!file.exists() || !file.canRead()) {
             throw new IOException(String.format("Could not load specified file %s", file.getPath()));
         }
-        BufferedReader reader = new BufferedReader(new FileReader(file));
         StringBuilder sb = new StringBuilder();
-        reader.lines().forEachOrdered(line -> sb.append(line).append(LINE_SEPARATOR));
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            reader.lines().forEachOrdered(line -> sb.append(line).append(LINE_SEPARATOR));
+        }
         return sb.toString();
     }
 
@@ -0,0 +1,19 @@
+package com.ezasm.util;
+
+/**
+ * A predicate of two longs. The primitive specialization of {@link java.util.function.BiPredicate} for longs, which the
+ * JDK does not provide.
+ */
+@FunctionalInterface
+public interface LongBiPredicate {
+
+    /**
+     * Evaluates this predicate on the given longs.
+     *
+     * @param left  the first long.
+     * @param right the second long.
+     * @return true if the longs match the predicate, false otherwise.
+     */
+    boolean test(long left, long right);
+
+}
@@ -1,7 +1,5 @@
 package com.ezasm.util;
 
-import com.ezasm.simulation.Memory;
-
 import java.util.Arrays;
 
 /**
@@ -34,19 +32,21 @@ public final class RawData {
     /**
      * Construct an instance of the data representation given an integer to store in it.
      *
-     * @param l the integer to base the data on.
+     * @param l        the integer to base the data on.
+     * @param wordSize the number of bytes to represent.
      */
-    public RawData(long l) {
-        data = Conversion.longToBytes(l);
+    public RawData(long l, int wordSize) {
+        data = Conversion.longToBytes(l, wordSize);
     }
 
     /**
      * Construct an instance of the data representation given float to store in it.
      *
-     * @param d the float to base the data on.
+     * @param d        the float to base the data on.
+     * @param wordSize the number of bytes to represent.
      */
-    public RawData(double d) {
-        data = Conversion.doubleToBytes(d);
+    public RawData(double d, int wordSize) {
+        data = Conversion.doubleToBytes(d, wordSize);
     }
 
     /**
@@ -86,13 +86,13 @@ public final class RawData {
     }
 
     /**
-     * Converts the integer value contained in the data to a 0-padded hexadecimal string that will be (5 * memory size /
-     * 4 + 3) characters long. The value representing 31 in an 8-byte word would turn into 0x0000_0000_0000_001F.
+     * Converts the integer value contained in the data to a 0-padded hexadecimal string that will be (5 * data size / 4
+     * + 3) characters long. The value representing 31 in an 8-byte word would turn into 0x0000_0000_0000_001F.
      *
      * @return the hexadecimal formatted string.
      */
     public String toHexString() {
-        String output = String.format("%0" + (Memory.wordSize() * 2) + 'x', intValue()).toUpperCase();
+        String output = String.format("%0" + (data.length * 2) + 'x', intValue()).toUpperCase();
         StringBuilder sb = new StringBuilder("0x");
         for (int i = 0; i < output.length(); ++i) {
             sb.append(output.charAt(i));
@@ -0,0 +1,382 @@
+package com.ezasm.util;
+
+import com.ezasm.instructions.implementation.ImportInstructions;
+import com.ezasm.parsing.Lexer;
+import com.ezasm.parsing.Line;
+import com.ezasm.parsing.ParseException;
+import com.ezasm.simulation.Registers;
+import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.SimulatorPool;
+import com.ezasm.simulation.exception.ExecutionLimitException;
+import com.ezasm.simulation.exception.SimulationException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A long-lived server which runs programs sent to it on simulators kept warm between requests, so that every request
+ * benefits from a JIT-compiled simulator instead of paying for JVM startup. The server listens on a localhost port or a
+ * Unix domain socket, and runs each request on a simulator taken from a pool and reset once the request is over.
+ * <p>
+ * A connection carries any number of requests one after another, and is closed if the next request does not arrive in
+ * full within the read timeout. A request is the program source and then its input, each sent as a 4-byte big-endian
+ * length followed by that many bytes, at most {@link #MAX_BLOCK_BYTES}. Only the source of a single file is sent, so a
+ * program which imports other files is rejected. The response is a sequence of frames, each a single byte kind, a
+ * 4-byte big-endian length and that many bytes: {@link #STDOUT} frames carry the output of the program as it is
+ * written, {@link #STDERR} frames carry error messages, and a single {@link #EXIT} frame carrying the 8-byte exit
+ * status ends the response: the value of the return register, or the status of the limit which stopped the program.
+ */
+public class SimulationServer {
+
+    /**
+     * The kind of frame carrying output written by the program.
+     */
+    public static final byte STDOUT = 'O';
+
+    /**
+     * The kind of frame carrying an error message.
+     */
+    public static final byte STDERR = 'E';
+
+    /**
+     * The kind of frame ending a response, carrying the exit status of the program.
+     */
+    public static final byte EXIT = 'X';
+
+    /**
+     * The greatest number of bytes in a block of a request or response.
+     */
+    public static final int MAX_BLOCK_BYTES = 16 << 20;
+
+    /**
+     * The file the program of each request is treated as being read from. Requests are a single file, so imports are
+     * rejected rather than resolved against the files of the server.
+     */
+    private static final File REQUEST_FILE = new File("request.ez");
+
+    /**
+     * The default longest time to wait for a request in milliseconds.
+     */
+    public static final long DEFAULT_READ_TIMEOUT_MILLIS = 30_000;
+
+    private final SimulatorPool pool;
+    private final long readTimeoutMillis;
+
+    /**
+     * Constructs a server which runs programs on simulators from the given pool with the default read timeout.
+     *
+     * @param pool the pool of simulators to run programs on.
+     */
+    public SimulationServer(SimulatorPool pool) {
+        this(pool, DEFAULT_READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Constructs a server which runs programs on simulators from the given pool.
+     *
+     * @param pool              the pool of simulators to run programs on.
+     * @param readTimeoutMillis the longest time to wait for the next request on a connection in milliseconds, after
+     *                          which the connection is closed.
+     */
+    public SimulationServer(SimulatorPool pool, long readTimeoutMillis) {
+        this.pool = pool;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    /**
+     * Gets the address described by the given text: a port number on localhost, or otherwise the path of a Unix domain
+     * socket.
+     *
+     * @param address the port number or socket path.
+     * @return the address.
+     */
+    public static SocketAddress address(String address) {
+        if (address.matches("\\d+")) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+        }
+        return UnixDomainSocketAddress.of(address);
+    }
+
+    /**
+     * Opens a server socket bound to the given address. A stale Unix domain socket left at the path by a previous
+     * server is replaced.
+     *
+     * @param address the address to bind to.
+     * @return the bound server socket.
+     * @throws IOException if the socket cannot be bound.
+     */
+    public static ServerSocketChannel open(SocketAddress address) throws IOException {
+        if (address instanceof UnixDomainSocketAddress unix) {
+            Path path = unix.getPath();
+            if (Files.exists(path) && !Files.isRegularFile(path) && !Files.isDirectory(path)) {
+                Files.delete(path);
+            }
+            ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            server.bind(address);
+            return server;
+        }
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(address);
+        return server;
+    }
+
+    /**
+     * Accepts connections until the server socket is closed. Each connection is read on a thread of its own, while no
+     * more than the given number of requests are run at once, so an idle connection does not hold up the others.
+     *
+     * @param server  the bound server socket.
+     * @param threads the greatest number of requests run at once, and so of simulators in use at once.
+     * @throws IOException if there is an error accepting a connection.
+     */
+    public void serve(ServerSocketChannel server, int threads) throws IOException {
+        ExecutorService connections = Executors.newCachedThreadPool();
+        ScheduledExecutorService timeouts = Executors.newSingleThreadScheduledExecutor();
+        Semaphore running = new Semaphore(threads);
+        try {
+            while (true) {
+                SocketChannel connection = server.accept();
+                connections.execute(() -> handle(connection, timeouts, running));
+            }
+        } catch (ClosedChannelException ignored) {
+        } finally {
+            // Interrupting the connection threads closes their connections
+            connections.shutdownNow();
+            timeouts.shutdownNow();
+        }
+    }
+
+    /**
+     * Handles every request on a connection until the client closes it or the read timeout passes.
+     *
+     * @param connection the connection.
+     * @param timeouts   the executor closing connections whose read timeout passed.
+     * @param running    the permits to run a request.
+     */
+    private void handle(SocketChannel connection, ScheduledExecutorService timeouts, Semaphore running) {
+        try (connection) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(connection)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(connection)));
+            while (true) {
+                // Channel streams ignore socket timeouts, so the connection is closed from outside instead
+                ScheduledFuture<?> timeout = timeouts.schedule(() -> close(connection), readTimeoutMillis,
+                        TimeUnit.MILLISECONDS);
+                byte[] source;
+                byte[] input;
+                try {
+                    source = readBlock(in);
+                    input = readBlock(in);
+                } catch (EOFException e) {
+                    return;
+                } finally {
+                    timeout.cancel(false);
+                }
+                running.acquire();
+                try {
+                    run(new String(source, StandardCharsets.UTF_8), input, out);
+                } finally {
+                    running.release();
+                }
+            }
+        } catch (IOException ignored) {
+            // The client went away or timed out
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void close(SocketChannel connection) {
+        try {
+            connection.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Runs a single program on a simulator from the pool, writing the response frames to the given stream. An
+     * unexpected exception from the simulator is reported as an error like any other rather than dropping the
+     * connection.
+     *
+     * @param source the program source.
+     * @param input  the input of the program.
+     * @param out    the stream to write the response to.
+     * @throws IOException if the response cannot be written.
+     */
+    private void run(String source, byte[] input, DataOutputStream out) throws IOException {
+        Simulator simulator = pool.acquire();
+        try {
+            simulator.getStreams().setInputStream(new ByteArrayInputStream(input));
+            simulator.getStreams().setOutputStream(new FrameOutputStream(STDOUT, out));
+            long exitStatus;
+            try {
+                List<Line> lines = Lexer.parseLines(source);
+                rejectImports(lines);
+                simulator.addLines(lines, REQUEST_FILE);
+                simulator.executeProgramFromPC();
+                exitStatus = simulator.getRegisters().getRegister(Registers.R0).getLong();
+            } catch (ParseException | SimulationException | RuntimeException e) {
+                String text = e instanceof RuntimeException ? e.toString() : e.getMessage();
+                byte[] message = (text + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+                writeFrame(out, STDERR, message, 0, message.length);
+                exitStatus = e instanceof ExecutionLimitException limit ? limit.getExitStatus()
+                        : simulator.getRegisters().getRegister(Registers.R0).getLong();
+            }
+            synchronized (out) {
+                out.writeByte(EXIT);
+                out.writeInt(Long.BYTES);
+                out.writeLong(exitStatus);
+                out.flush();
+            }
+        } finally {
+            pool.release(simulator);
+        }
+    }
+
+    /**
+     * Rejects a program which imports other files, as only the source of the main file is sent with a request.
+     *
+     * @param lines the lines of the program.
+     * @throws ParseException if a line imports another file.
+     */
+    private static void rejectImports(List<Line> lines) throws ParseException {
+        for (Line line : lines) {
+            if (!line.isLabel() && line.getInstruction().target().parent() == ImportInstructions.class) {
+                throw new ParseException("Programs run on a server cannot import other files");
+            }
+        }
+    }
+
+    /**
+     * Reads a block of bytes preceded by its length.
+     *
+     * @param in the stream to read from.
+     * @return the bytes read.
+     * @throws IOException if the stream ends before the whole block or the length is negative or greater than
+     *                     {@link #MAX_BLOCK_BYTES}.
+     */
+    public static byte[] readBlock(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_BLOCK_BYTES) {
+            throw new IOException("Invalid block length " + length);
+        }
+        byte[] block = in.readNBytes(length);
+        if (block.length != length) {
+            throw new EOFException(String.format("Block ended after %d of %d bytes", block.length, length));
+        }
+        return block;
+    }
+
+    /**
+     * Writes a block of bytes preceded by its length.
+     *
+     * @param out   the stream to write to.
+     * @param block the bytes to write.
+     * @throws IOException if the block cannot be written.
+     */
+    public static void writeBlock(DataOutputStream out, byte[] block) throws IOException {
+        out.writeInt(block.length);
+        out.write(block);
+    }
+
+    private static void writeFrame(DataOutputStream out, byte kind, byte[] bytes, int offset, int length)
+            throws IOException {
+        synchronized (out) {
+            out.writeByte(kind);
+            out.writeInt(length);
+            out.write(bytes, offset, length);
+        }
+    }
+
+    /**
+     * Sends a program to a server and copies its response to the given streams.
+     *
+     * @param address the address of the server.
+     * @param source  the program source.
+     * @param input   the input of the program.
+     * @param stdout  the stream to copy the output of the program to.
+     * @param stderr  the stream to copy error messages to.
+     * @return the exit status of the program.
+     * @throws IOException if there is an error communicating with the server.
+     */
+    public static long request(SocketAddress address, String source, InputStream input, OutputStream stdout,
+            OutputStream stderr) throws IOException {
+        try (SocketChannel connection = SocketChannel.open(address)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(connection)));
+            writeBlock(out, source.getBytes(StandardCharsets.UTF_8));
+            writeBlock(out, input.readAllBytes());
+            out.flush();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(connection)));
+            while (true) {
+                byte kind = in.readByte();
+                byte[] frame = readBlock(in);
+                switch (kind) {
+                case STDOUT -> stdout.write(frame);
+                case STDERR -> stderr.write(frame);
+                case EXIT -> {
+                    stdout.flush();
+                    stderr.flush();
+                    return new DataInputStream(new ByteArrayInputStream(frame)).readLong();
+                }
+                default -> throw new IOException("Unknown frame kind " + kind);
+                }
+            }
+        }
+    }
+
+    /**
+     * An output stream which sends everything written to it as frames of a single kind.
+     */
+    private static class FrameOutputStream extends OutputStream {
+
+        private final byte kind;
+        private final DataOutputStream out;
+
+        FrameOutputStream(byte kind, DataOutputStream out) {
+            this.kind = kind;
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            writeFrame(out, kind, b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+
+}
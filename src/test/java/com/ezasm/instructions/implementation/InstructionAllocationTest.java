@@ -0,0 +1,57 @@
+package com.ezasm.instructions.implementation;
+
+import com.ezasm.parsing.Lexer;
+import com.ezasm.parsing.ParseException;
+import com.ezasm.simulation.Memory;
+import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.exception.SimulationException;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstructionAllocationTest {
+
+    private static final String LOOP = """
+            loop:
+            add $t0 $t0 1
+            sub $t1 $t1 $t0
+            mul $t2 $t0 3
+            xor $t3 $t3 $t2
+            slt $t4 $t0 $t1
+            seq $t5 $t4 0
+            blt $t0 1000000000 loop
+            """;
+
+    private static final int WARM_UP_LINES = 200_000;
+    private static final int MEASURED_LINES = 100_000;
+
+    @Test
+    public void TestArithmeticComparisonAndBranchDoNotAllocate() throws ParseException, SimulationException {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Simulator simulator = new Simulator(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS);
+        simulator.addLines(Lexer.parseLines(LOOP), new File("test.ez"));
+        simulator.setHistoryEnabled(false);
+        for (int i = 0; i < WARM_UP_LINES; ++i) {
+            simulator.executeLineFromPC();
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < MEASURED_LINES; ++i) {
+            simulator.executeLineFromPC();
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        // Allow for the odd allocation outside the lines themselves, but not one per line
+        assertTrue(allocated < MEASURED_LINES, String.format("%d lines allocated %d bytes", MEASURED_LINES, allocated));
+    }
+
+}
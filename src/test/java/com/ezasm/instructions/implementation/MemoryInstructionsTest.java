@@ -9,7 +9,6 @@ import com.ezasm.instructions.targets.input.ImmediateInput;
 import com.ezasm.instructions.targets.inputoutput.IAbstractInputOutput;
 import com.ezasm.instructions.targets.inputoutput.RegisterInputOutput;
 import com.ezasm.simulation.Simulator;
-import com.ezasm.util.RawData;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -21,14 +20,14 @@ public class MemoryInstructionsTest {
         Simulator sim = new Simulator(8, 16);
         MemoryInstructions memoryInstructions = new MemoryInstructions(sim);
         IAbstractInputOutput register = new RegisterInputOutput("t0");
-        IAbstractInput immediateTwo = new ImmediateInput(new RawData(2));
+        IAbstractInput immediateTwo = new ImmediateInput(2);
 
         long bytesBefore = sim.getRegisters().getRegister("t0").getLong();
-        memoryInstructions.alloc(register, immediateTwo).apply();
+        memoryInstructions.alloc(register, immediateTwo);
         long bytesAfter = sim.getRegisters().getRegister("t0").getLong();
         assertEquals(bytesBefore + sim.getMemory().initialHeapPointer(), bytesAfter);
 
-        memoryInstructions.alloc(register, immediateTwo).apply();
+        memoryInstructions.alloc(register, immediateTwo);
         long bytesAfterSecondCall = sim.getRegisters().getRegister("t0").getLong();
         assertEquals(bytesAfter + 2, bytesAfterSecondCall);
 
@@ -42,11 +41,11 @@ public class MemoryInstructionsTest {
 
         IAbstractInputOutput register = new RegisterInputOutput(Registers.T0);
 
-        IAbstractInput aiimmediateTwo = new ImmediateInput(new RawData(2));
+        IAbstractInput aiimmediateTwo = new ImmediateInput(2);
 
-        memoryInstructions.alloc(register, aiimmediateTwo).apply();
+        memoryInstructions.alloc(register, aiimmediateTwo);
         DereferenceInputOutput d = new DereferenceInputOutput(Registers.T0, 0);
-        memoryInstructions.store(aiimmediateTwo, d).apply();
+        memoryInstructions.store(aiimmediateTwo, d);
 
         assertEquals(2, sim.getMemory().read((int) register.get(sim).intValue(), 8).intValue());
 
@@ -60,14 +59,14 @@ public class MemoryInstructionsTest {
 
         IAbstractInputOutput t0Register = new RegisterInputOutput(Registers.T0);
 
-        IAbstractInput immediateTwo = new ImmediateInput(new RawData(2));
+        IAbstractInput immediateTwo = new ImmediateInput(2);
 
         IAbstractInputOutput loadOut = new RegisterInputOutput(Registers.T1);
 
-        mi.alloc(t0Register, immediateTwo).apply();
+        mi.alloc(t0Register, immediateTwo);
         DereferenceInputOutput d = new DereferenceInputOutput(Registers.T0, 0);
-        mi.store(immediateTwo, d).apply();
-        mi.load(loadOut, d).apply();
+        mi.store(immediateTwo, d);
+        mi.load(loadOut, d);
 
         assertEquals(2, loadOut.get(sim).intValue());
     }
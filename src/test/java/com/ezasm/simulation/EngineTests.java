@@ -0,0 +1,32 @@
+package com.ezasm.simulation;
+
+import com.ezasm.parsing.Lexer;
+import com.ezasm.parsing.ParseException;
+
+import java.io.File;
+
+/**
+ * Loads programs for the tests which compare an engine with the interpreter.
+ */
+public final class EngineTests {
+
+    private EngineTests() {
+    }
+
+    /**
+     * Loads a program into a new simulator which runs it with the given engine and without history.
+     *
+     * @param program the text of the program.
+     * @param engine  the engine to run the program with.
+     * @return the simulator.
+     * @throws ParseException if the program cannot be parsed.
+     */
+    public static Simulator load(String program, Engine engine) throws ParseException {
+        Simulator simulator = new Simulator(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS);
+        simulator.addLines(Lexer.parseLines(program), new File("test.ez"));
+        simulator.setHistoryEnabled(false);
+        simulator.setEngine(engine);
+        return simulator;
+    }
+
+}
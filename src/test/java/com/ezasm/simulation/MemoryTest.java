@@ -0,0 +1,131 @@
+package com.ezasm.simulation;
+
+import com.ezasm.simulation.exception.ReadOutOfBoundsException;
+import com.ezasm.simulation.exception.SimulationException;
+import com.ezasm.simulation.exception.WriteOutOfBoundsException;
+import com.ezasm.simulation.exception.WriteToReadOnlyException;
+import com.ezasm.util.RawData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryTest {
+
+    private static final int[] WORD_SIZES = { 4, 8 };
+
+    @Test
+    public void TestWordsRoundTripAtEachWordSize() throws SimulationException {
+        for (int wordSize : WORD_SIZES) {
+            for (boolean paged : new boolean[] { false, true }) {
+                Memory memory = new Memory(wordSize, 0x1000, paged);
+                int address = memory.initialHeapPointer();
+                long[] values = { 0, 1, -1, 0x7FFF_FFFF, Integer.MIN_VALUE, wordSize == 8 ? Long.MAX_VALUE : 42 };
+                for (long value : values) {
+                    memory.writeWord(address, value);
+                    assertEquals(value, memory.readWord(address));
+                }
+
+                memory.writeWord(address, 0x1_0000_0002L);
+                assertEquals(wordSize == 8 ? 0x1_0000_0002L : 2, memory.readWord(address));
+
+                for (double value : new double[] { 0, 1.5, -2.25, 1024.125 }) {
+                    memory.writeDouble(address + wordSize, value);
+                    assertEquals(value, memory.readDouble(address + wordSize));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void TestWordsMatchTheBytePath() throws SimulationException {
+        for (int wordSize : WORD_SIZES) {
+            Memory memory = new Memory(wordSize, 0x1000);
+            int address = memory.initialHeapPointer();
+
+            memory.writeWord(address, -123_456);
+            assertEquals(new RawData(-123_456, wordSize), memory.read(address));
+            memory.writeDouble(address, 3.5);
+            assertEquals(new RawData(3.5, wordSize), memory.read(address));
+
+            memory.write(address, new RawData(0x0102_0304, wordSize));
+            assertEquals(0x0102_0304, memory.readWord(address));
+            memory.write(address, new RawData(-0.75, wordSize));
+            assertEquals(-0.75, memory.readDouble(address));
+        }
+    }
+
+    @Test
+    public void TestWordsOutOfBoundsThrow() throws SimulationException {
+        for (int wordSize : WORD_SIZES) {
+            Memory memory = new Memory(wordSize, 0x1000);
+            int last = memory.size() - wordSize;
+
+            memory.writeWord(last, 7);
+            assertEquals(7, memory.readWord(last));
+            assertThrows(ReadOutOfBoundsException.class, () -> memory.readWord(last + 1));
+            assertThrows(ReadOutOfBoundsException.class, () -> memory.readDouble(memory.size()));
+            assertThrows(ReadOutOfBoundsException.class, () -> memory.readWord(-wordSize));
+            assertThrows(ReadOutOfBoundsException.class, () -> memory.readWord(0));
+            assertThrows(WriteOutOfBoundsException.class, () -> memory.writeWord(last + 1, 0));
+            assertThrows(WriteOutOfBoundsException.class, () -> memory.writeDouble(-1, 0));
+            assertThrows(WriteToReadOnlyException.class, () -> memory.writeWord(0, 0));
+            assertThrows(WriteToReadOnlyException.class,
+                    () -> memory.writeDouble(memory.initialHeapPointer() - wordSize * 2, 0));
+        }
+    }
+
+    @Test
+    public void TestPagedMemoryReadsZeroBeforeWrite() throws SimulationException {
+        Memory memory = new Memory(8, 0x10_0000, true);
+        int address = memory.initialHeapPointer() + 5 * Memory.PAGE_SIZE;
+
+        assertEquals(0, memory.readWord(address));
+        memory.writeWord(address, 0x1234_5678_9ABC_DEF0L);
+        assertEquals(0x1234_5678_9ABC_DEF0L, memory.readWord(address));
+        assertEquals(0, memory.readWord(address + Memory.PAGE_SIZE));
+    }
+
+    @Test
+    public void TestPagedMemoryMatchesContiguousMemory() throws SimulationException {
+        Memory contiguous = new Memory(4, 0x1000, false);
+        Memory paged = new Memory(4, 0x1000, true);
+        int base = contiguous.initialHeapPointer();
+        int[] addresses = { base, base + 4, base + Memory.PAGE_SIZE - 2, base + Memory.PAGE_SIZE - 1,
+                base + 3 * Memory.PAGE_SIZE + 3 };
+
+        for (int i = 0; i < addresses.length; ++i) {
+            contiguous.writeWord(addresses[i], -i * 0x0101_0101L);
+            paged.writeWord(addresses[i], -i * 0x0101_0101L);
+        }
+        for (int address : addresses) {
+            assertEquals(contiguous.readWord(address), paged.readWord(address));
+            assertEquals(contiguous.read(address, 12), paged.read(address, 12));
+        }
+
+        paged.write(base + Memory.PAGE_SIZE - 1, new RawData(new byte[] { 1, 2, 3, 4 }));
+        assertEquals(0x0102_0304, paged.readWord(base + Memory.PAGE_SIZE - 1));
+    }
+
+    @Test
+    public void TestPagedMemoryReset() throws SimulationException {
+        Memory memory = new Memory(4, 0x1000, true);
+        int address = memory.initialHeapPointer();
+
+        memory.writeWord(address, 42);
+        memory.reset();
+        assertEquals(0, memory.readWord(address));
+    }
+
+    @Test
+    public void TestResetClearsWrittenPages() throws SimulationException {
+        Memory memory = new Memory(4, 0x1000, false);
+        int address = memory.initialHeapPointer() + Memory.PAGE_SIZE - 2;
+
+        memory.writeWord(address, -1);
+        memory.write(address + 2 * Memory.PAGE_SIZE, new RawData(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+        memory.reset();
+        assertEquals(0, memory.readWord(address));
+        assertEquals(RawData.emptyBytes(8), memory.read(address + 2 * Memory.PAGE_SIZE, 8));
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.ezasm.simulation;
+
+import com.ezasm.parsing.Lexer;
+import com.ezasm.parsing.ParseException;
+import com.ezasm.simulation.exception.SimulationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulatorPoolTest {
+
+    @Test
+    public void TestReleasedSimulatorIsReset() throws ParseException, SimulationException {
+        SimulatorPool pool = new SimulatorPool(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS, true,
+                Engine.CLOSURE, 1);
+        pool.fill();
+        assertEquals(1, pool.idleCount());
+
+        Simulator first = pool.acquire();
+        assertEquals(0, pool.idleCount());
+        first.addLines(Lexer.parseLines("""
+                alloc $s0 8
+                store 7 0($s0)
+                push 5
+                done:
+                move $t0 9
+                """), new File("first.ez"));
+        first.executeProgramFromPC();
+        long heapAddress = first.getRegisters().getRegister("$s0").getLong();
+        pool.release(first);
+
+        Simulator second = pool.acquire();
+        assertSame(first, second);
+        assertEquals(0, second.getInstructionCount());
+        assertEquals(0, second.getRegisters().getRegister("$t0").getLong());
+        assertEquals(second.getMemory().initialStackPointer(), second.getRegisters().getRegister("$sp").getLong());
+        assertEquals(0, second.getMemory().readWord((int) heapAddress));
+        assertEquals(second.getMemory().initialHeapPointer(), second.getMemory().currentHeapPointer());
+
+        // Labels of the previous program are gone
+        assertThrows(ParseException.class, () -> second.addLines(Lexer.parseLines("""
+                j done
+                """), new File("second.ez")));
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.ezasm.simulation;
+
+import com.ezasm.parsing.Lexer;
+import com.ezasm.parsing.Line;
+import com.ezasm.parsing.ParseException;
+import com.ezasm.simulation.exception.InstructionLimitException;
+import com.ezasm.simulation.exception.SimulationException;
+import com.ezasm.simulation.exception.TimeLimitException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulatorTest {
+
+    @TempDir
+    Path directory;
+
+    private Simulator load(String mainFile) throws IOException, ParseException {
+        File file = directory.resolve(mainFile).toFile();
+        Simulator simulator = new Simulator(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS);
+        simulator.addLines(Lexer.parseLines(Files.readString(file.toPath())), file);
+        return simulator;
+    }
+
+    @Test
+    public void TestLinkImportsFiles() throws IOException, ParseException, SimulationException {
+        Files.writeString(directory.resolve("main.ez"), """
+                import "lib.ez"
+                move $a0 5
+                call triple
+                add $t0 $r0 1
+                """);
+        Files.writeString(directory.resolve("lib.ez"), """
+                import "./main.ez"
+                triple:
+                mul $r0 $a0 3
+                return
+                """);
+
+        Simulator simulator = load("main.ez");
+        simulator.executeProgramFromPC();
+        assertEquals(16, simulator.getRegisters().getRegister("$t0").getLong());
+        assertEquals(Simulator.MAIN_FILE_IDENTIFIER, simulator.getRegisters().getRegister(Registers.FID).getLong());
+    }
+
+    @Test
+    public void TestLinkReportsMissingImport() throws IOException {
+        Files.writeString(directory.resolve("main.ez"), """
+                import "missing.ez"
+                """);
+
+        assertThrows(ParseException.class, () -> load("main.ez"));
+    }
+
+    @Test
+    public void TestLinkReportsUndefinedLabel() throws IOException {
+        Files.writeString(directory.resolve("main.ez"), """
+                add $t0 $t0 1
+                blt $t0 10 undefined
+                """);
+
+        ParseException e = assertThrows(ParseException.class, () -> load("main.ez"));
+        assertTrue(e.getMessage().contains("undefined"));
+    }
+
+    @Test
+    public void TestSimulatorsWithDifferentWordSizesShareLines() throws ParseException, SimulationException {
+        List<Line> lines = Lexer.parseLines("""
+                add $t0 2147483647 1
+                addf $t1 1.5 2.25
+                """);
+        Simulator four = new Simulator(4, Memory.DEFAULT_MEMORY_WORDS);
+        Simulator eight = new Simulator(8, Memory.DEFAULT_MEMORY_WORDS);
+        four.addLines(lines, directory.resolve("main.ez").toFile());
+        eight.addLines(lines, directory.resolve("main.ez").toFile());
+        four.executeProgramFromPC();
+        eight.executeProgramFromPC();
+
+        assertEquals(Integer.MIN_VALUE, four.getRegisters().getRegister("$t0").getLong());
+        assertEquals(2147483648L, eight.getRegisters().getRegister("$t0").getLong());
+        assertEquals(3.75, four.getRegisters().getRegister("$t1").getDouble());
+        assertEquals(3.75, eight.getRegisters().getRegister("$t1").getDouble());
+    }
+
+    @Test
+    public void TestSimulatorsRunConcurrently() throws Exception {
+        List<Line> lines = Lexer.parseLines("""
+                move $t0 0
+                loop:
+                add $t0 $t0 1
+                blt $t0 1000 loop
+                mul $t1 $t0 4294967296
+                printi $t1
+                """);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> outputs = new ArrayList<>();
+            for (int i = 0; i < 16; ++i) {
+                int wordSize = i % 2 == 0 ? 4 : 8;
+                outputs.add(executor.submit(() -> {
+                    Simulator simulator = new Simulator(wordSize, Memory.DEFAULT_MEMORY_WORDS);
+                    ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    simulator.getStreams().setOutputStream(output);
+                    simulator.addLines(lines, directory.resolve("main.ez").toFile());
+                    simulator.executeProgramFromPC();
+                    return output.toString();
+                }));
+            }
+            for (int i = 0; i < outputs.size(); ++i) {
+                assertEquals(i % 2 == 0 ? "0" : "4294967296000", outputs.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void TestLimitsStopInfiniteLoopsOnEveryEngine() throws ParseException, SimulationException {
+        List<Line> lines = Lexer.parseLines("""
+                loop:
+                add $t0 $t0 1
+                j loop
+                """);
+        for (Engine engine : Engine.values()) {
+            Simulator simulator = new Simulator(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS);
+            simulator.setHistoryEnabled(false);
+            simulator.setEngine(engine);
+            simulator.addLines(lines, directory.resolve("main.ez").toFile());
+
+            simulator.setInstructionLimit(3000);
+            assertThrows(InstructionLimitException.class, simulator::executeProgramFromPC, engine.name());
+            long count = simulator.getInstructionCount();
+            assertTrue(count >= 3000 && count <= 3003, engine.name());
+
+            simulator.setInstructionLimit(0);
+            simulator.setTimeLimit(50);
+            TimeLimitException e = assertThrows(TimeLimitException.class, simulator::executeProgramFromPC);
+            assertEquals(TimeLimitException.EXIT_STATUS, e.getExitStatus());
+        }
+    }
+
+    @Test
+    public void TestLimitsAllowProgramsWhichFinishWithinThem() throws ParseException, SimulationException {
+        Simulator simulator = new Simulator(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS);
+        simulator.addLines(Lexer.parseLines("""
+                loop:
+                add $t0 $t0 1
+                blt $t0 1000 loop
+                """), directory.resolve("main.ez").toFile());
+        simulator.setInstructionLimit(2001);
+        simulator.setTimeLimit(60_000);
+        simulator.executeProgramFromPC();
+        assertEquals(2001, simulator.getInstructionCount());
+    }
+
+}
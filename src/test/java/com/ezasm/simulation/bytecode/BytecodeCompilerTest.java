@@ -0,0 +1,67 @@
+package com.ezasm.simulation.bytecode;
+
+import com.ezasm.parsing.ParseException;
+import com.ezasm.simulation.Engine;
+import com.ezasm.simulation.EngineTests;
+import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.exception.SimulationException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BytecodeCompilerTest {
+
+    private static final String PROGRAM = """
+            alloc $s0 8
+            move $t0 0
+            move $t1 1
+            loop:
+            add $t2 $t0 $t1
+            move $t0 $t1
+            move $t1 $t2
+            mul $t3 $t3 31
+            add $t3 $t3 $t2
+            store $t3 0($s0)
+            inc $t4 $t4
+            sll $t5 $t4 3
+            srl $t6 $t5 1
+            mod $t7 $t2 7
+            div $t8 $t3 3
+            xor $t9 $t9 $t3
+            not $s1 $t9
+            slt $s2 $t4 20
+            sge $s3 $t4 20
+            add $zero $t4 1
+            blt $t4 60 loop
+            load $s4 0($s0)
+            jump end
+            move $s5 1
+            end:
+            """;
+
+    @Test
+    public void TestCompiledMatchesInterpreted() throws ParseException, SimulationException {
+        Simulator interpreted = EngineTests.load(PROGRAM, Engine.INTERPRETER);
+        interpreted.executeProgramFromPC();
+        Simulator compiled = EngineTests.load(PROGRAM, Engine.BYTECODE);
+        compiled.executeProgramFromPC();
+
+        assertTrue(compiled.isDone());
+        assertArrayEquals(interpreted.getRegisters().values(), compiled.getRegisters().values());
+        assertEquals(interpreted.getInstructionCount(), compiled.getInstructionCount());
+        assertEquals(0, compiled.getRegisters().getRegister("$s5").getLong());
+    }
+
+    @Test
+    public void TestDivisionByZeroFallsBack() throws ParseException {
+        Simulator simulator = EngineTests.load("""
+                move $t0 10
+                div $t1 $t0 $zero
+                """, Engine.BYTECODE);
+
+        assertThrows(SimulationException.class, simulator::executeProgramFromPC);
+        assertEquals(1, simulator.getRegisters().getRegister("$pc").getLong());
+        assertEquals(2, simulator.getInstructionCount());
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.ezasm.simulation.closure;
+
+import com.ezasm.parsing.ParseException;
+import com.ezasm.simulation.Engine;
+import com.ezasm.simulation.EngineTests;
+import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.exception.SimulationException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClosureCompilerTest {
+
+    private static final String PROGRAM = """
+            alloc $s0 80
+            move $t0 0
+            loop:
+            mul $t1 $t0 $t0
+            sll $t2 $t0 2
+            add $t2 $t2 $s0
+            store $t1 0($t2)
+            load $t3 0($t2)
+            call accumulate
+            add $t0 $t0 1
+            slt $t5 $t0 10
+            bne $t5 0 loop
+            jump end
+            move $s1 1
+            accumulate:
+            add $t4 $t4 $t3
+            return
+            end:
+            """;
+
+    @Test
+    public void TestClosuresMatchInterpreted() throws ParseException, SimulationException {
+        Simulator interpreted = EngineTests.load(PROGRAM, Engine.INTERPRETER);
+        interpreted.executeProgramFromPC();
+        Simulator closures = EngineTests.load(PROGRAM, Engine.CLOSURE);
+        closures.executeProgramFromPC();
+
+        assertTrue(closures.isDone());
+        assertEquals(285, closures.getRegisters().getRegister("$t4").getLong());
+        assertEquals(0, closures.getRegisters().getRegister("$s1").getLong());
+        assertArrayEquals(interpreted.getRegisters().values(), closures.getRegisters().values());
+        assertEquals(interpreted.getInstructionCount(), closures.getInstructionCount());
+    }
+
+    @Test
+    public void TestFusedLineFailureStopsOnFailingLine() throws ParseException {
+        Simulator simulator = EngineTests.load("""
+                move $t0 -64
+                load $t1 0($t0)
+                """, Engine.CLOSURE);
+
+        assertThrows(SimulationException.class, simulator::executeProgramFromPC);
+        assertEquals(-64, simulator.getRegisters().getRegister("$t0").getLong());
+        assertEquals(1, simulator.getRegisters().getRegister("$pc").getLong());
+    }
+
+    @Test
+    public void TestDivisionByZeroCountedOnce() throws ParseException {
+        // Division by zero as a line of its own, as the second line of a fused pair, and as the first
+        String[] programs = { """
+                div $t1 $t0 $zero
+                """, """
+                move $t0 10
+                div $t1 $t0 $zero
+                """, """
+                move $t0 10
+                div $t1 $t0 $zero
+                move $t2 1
+                """ };
+        for (String program : programs) {
+            Simulator interpreted = EngineTests.load(program, Engine.INTERPRETER);
+            assertThrows(SimulationException.class, interpreted::executeProgramFromPC);
+            Simulator closures = EngineTests.load(program, Engine.CLOSURE);
+            assertThrows(SimulationException.class, closures::executeProgramFromPC);
+
+            assertEquals(interpreted.getRegisters().getRegister("$pc").getLong(),
+                    closures.getRegisters().getRegister("$pc").getLong());
+            assertEquals(interpreted.getInstructionCount(), closures.getInstructionCount());
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.ezasm.simulation.profile;
+
+import com.ezasm.parsing.Lexer;
+import com.ezasm.parsing.ParseException;
+import com.ezasm.simulation.Engine;
+import com.ezasm.simulation.Memory;
+import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.exception.SimulationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CallGraphProfilerTest {
+
+    @Test
+    public void TestProfilerAttributesRecursiveCalls() throws ParseException, SimulationException {
+        Simulator simulator = new Simulator(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS);
+        simulator.setHistoryEnabled(false);
+        simulator.setEngine(Engine.CLOSURE);
+        CallGraphProfiler profiler = new CallGraphProfiler();
+        simulator.setProfiler(profiler);
+        simulator.addLines(Lexer.parseLines("""
+                move $a0 3
+                call down
+                exit 0
+                down:
+                beq $a0 0 down_done
+                sub $a0 $a0 1
+                call down
+                down_done:
+                return
+                """), new File("recurse.ez"));
+        simulator.executeProgramFromPC();
+
+        List<CallGraphProfiler.FunctionProfile> profiles = profiler.getFunctionProfiles();
+        assertEquals(2, profiles.size());
+        CallGraphProfiler.FunctionProfile main = profiles.get(0);
+        assertEquals("recurse.ez", main.function());
+        assertEquals(20, main.inclusiveInstructions());
+        assertEquals(3, main.exclusiveInstructions());
+        CallGraphProfiler.FunctionProfile down = profiles.get(1);
+        assertEquals("down", down.function());
+        assertEquals(4, down.calls());
+        assertEquals(17, down.inclusiveInstructions());
+        assertEquals(17, down.exclusiveInstructions());
+        assertTrue(down.inclusiveNanos() <= main.inclusiveNanos());
+
+        ByteArrayOutputStream folded = new ByteArrayOutputStream();
+        profiler.writeFoldedStacks(new PrintStream(folded));
+        assertEquals(List.of("recurse.ez 3", "recurse.ez;down 5", "recurse.ez;down;down 5",
+                "recurse.ez;down;down;down 5", "recurse.ez;down;down;down;down 2"), folded.toString().lines().toList());
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.ezasm.simulation.profile;
+
+import com.ezasm.parsing.Lexer;
+import com.ezasm.parsing.ParseException;
+import com.ezasm.simulation.Engine;
+import com.ezasm.simulation.Memory;
+import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.exception.SimulationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineProfilerTest {
+
+    @Test
+    public void TestProfilerCountsEachLineAndInstruction() throws ParseException, SimulationException {
+        Simulator simulator = new Simulator(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS);
+        simulator.setHistoryEnabled(false);
+        simulator.setEngine(Engine.BYTECODE);
+        LineProfiler profiler = new LineProfiler();
+        simulator.setProfiler(profiler);
+        simulator.addLines(Lexer.parseLines("""
+                # Sum the numbers below ten
+                move $t0 0
+
+                loop:
+                add $t1 $t1 $t0
+                add $t0 $t0 1
+                blt $t0 10 loop
+                """), new File("sum.ez"));
+        simulator.executeProgramFromPC();
+
+        assertEquals(45, simulator.getRegisters().getRegister("$t1").getLong());
+        assertEquals(simulator.getInstructionCount(), profiler.getTotal());
+        assertEquals(1, profiler.getCount(Simulator.MAIN_FILE_IDENTIFIER, 0));
+        assertEquals(1, profiler.getCount(Simulator.MAIN_FILE_IDENTIFIER, 1));
+        assertEquals(10, profiler.getCount(Simulator.MAIN_FILE_IDENTIFIER, 4));
+
+        List<LineProfiler.HotSpot> hotSpots = profiler.getHotSpots();
+        assertEquals(10, hotSpots.get(0).count());
+        assertEquals("sum.ez:7",
+                hotSpots.stream().filter(hotSpot -> hotSpot.lineNumber() == 4).findFirst().orElseThrow().location());
+
+        Map<String, Long> instructions = profiler.getInstructionCounts();
+        assertEquals(List.of("add", "blt", "move"), List.copyOf(instructions.keySet()));
+        assertEquals(20, instructions.get("add"));
+
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        profiler.report(new PrintStream(report), 2);
+        assertEquals(8, report.toString().lines().count());
+
+        simulator.resetData();
+        assertEquals(0, profiler.getTotal());
+    }
+
+    @Test
+    public void TestUndoingDoesNotCountReplayedLines() throws ParseException, SimulationException {
+        Simulator simulator = new Simulator(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS);
+        simulator.setHistoryLimit(4);
+        LineProfiler profiler = new LineProfiler();
+        simulator.setProfiler(profiler);
+        simulator.addLines(Lexer.parseLines("""
+                call count
+                exit 0
+                count:
+                add $t0 $t0 1
+                blt $t0 10 count
+                return
+                """), new File("count.ez"));
+        for (int i = 0; i < 12; ++i) {
+            simulator.executeLineFromPC();
+        }
+        assertEquals(12, profiler.getTotal());
+        assertEquals(12, simulator.getInstructionCount());
+        assertEquals(1, simulator.sampleCallDepth());
+
+        // Undoing past the most recent lines replays forward from a checkpoint
+        for (int i = 0; i < 11; ++i) {
+            assertTrue(simulator.undoLastTransformations());
+        }
+        assertEquals(12, profiler.getTotal());
+        assertEquals(12, simulator.getInstructionCount());
+        assertEquals(1, simulator.getSteps());
+        assertEquals(1, simulator.sampleCallDepth());
+        assertTrue(simulator.undoLastTransformations());
+        assertEquals(0, simulator.sampleCallDepth());
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.ezasm.simulation.profile;
+
+import com.ezasm.parsing.Lexer;
+import com.ezasm.parsing.ParseException;
+import com.ezasm.simulation.Engine;
+import com.ezasm.simulation.Memory;
+import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.exception.SimulationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SamplingProfilerTest {
+
+    @Test
+    public void TestSamplerFindsTheHotLoop() throws ParseException, SimulationException {
+        Simulator simulator = new Simulator(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS);
+        simulator.setHistoryEnabled(false);
+        simulator.setEngine(Engine.BYTECODE);
+        SamplingProfiler sampler = new SamplingProfiler(100);
+        simulator.setSampler(sampler);
+        simulator.addLines(Lexer.parseLines("""
+                call spin
+                exit 0
+                spin:
+                add $t0 $t0 1
+                blt $t0 3000000 spin
+                return
+                """), new File("spin.ez"));
+
+        assertEquals(0, simulator.samplePosition());
+        simulator.executeProgramFromPC();
+        assertEquals(-1, simulator.samplePosition());
+        assertEquals(0, simulator.sampleCallDepth());
+
+        long total = sampler.getTotal();
+        assertTrue(total > 0);
+        List<LineProfiler.HotSpot> hotSpots = sampler.getHotSpots();
+        assertTrue(hotSpots.get(0).lineNumber() >= 3);
+        long[] depths = sampler.getDepthSamples();
+        assertTrue(depths.length == 2 && depths[1] > 0);
+
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        sampler.report(new PrintStream(report), 1);
+        List<String> lines = report.toString().lines().toList();
+        assertTrue(lines.get(0).startsWith(String.format("** Samples: %d samples", total)));
+        assertEquals("spin.ez:" + (hotSpots.get(0).line().getSourceLine() + 1), lines.get(2).split("\\s+")[3]);
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.ezasm.simulation.transform;
+
+import com.ezasm.parsing.Lexer;
+import com.ezasm.parsing.ParseException;
+import com.ezasm.simulation.Memory;
+import com.ezasm.simulation.Simulator;
+import com.ezasm.simulation.exception.SimulationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransformationJournalTest {
+
+    private static final String PROGRAM = """
+            alloc $s0 16
+            store 7 0($s0)
+            move $t0 3
+            call function
+            add $t1 $t0 $t0
+            jump end
+            function:
+            push $t0
+            mul $t0 $t0 2
+            pop $t2
+            return
+            end:
+            """;
+
+    private static final String LOOP = """
+            alloc $s0 8
+            move $t0 0
+            loop:
+            add $t0 $t0 1
+            store $t0 0($s0)
+            push $t0
+            blt $t0 10 loop
+            """;
+
+    private static long[] registerValues(Simulator simulator) {
+        long[] values = new long[simulator.getRegisters().getRegisters().length];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = simulator.getRegisters().getLong(i);
+        }
+        return values;
+    }
+
+    private static Simulator load() throws ParseException {
+        return load(PROGRAM);
+    }
+
+    private static Simulator load(String program) throws ParseException {
+        Simulator simulator = new Simulator(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS);
+        simulator.addLines(Lexer.parseLines(program), new File("test.ez"));
+        return simulator;
+    }
+
+    @Test
+    public void TestUndoRestoresInitialState() throws ParseException, SimulationException {
+        Simulator simulator = load();
+        long[] initialRegisters = registerValues(simulator);
+        int initialHeapPointer = simulator.getMemory().currentHeapPointer();
+
+        simulator.executeProgramFromPC();
+        assertEquals(12, simulator.getRegisters().getRegister("$t1").getLong());
+        assertEquals(3, simulator.getRegisters().getRegister("$t2").getLong());
+        long address = simulator.getRegisters().getRegister("$s0").getLong();
+        assertEquals(7, simulator.getMemory().readWord((int) address));
+
+        while (simulator.undoLastTransformations()) {
+            // Undo every executed line
+        }
+
+        assertArrayEquals(initialRegisters, registerValues(simulator));
+        assertEquals(initialHeapPointer, simulator.getMemory().currentHeapPointer());
+        assertEquals(0, simulator.getMemory().readWord((int) address));
+    }
+
+    @Test
+    public void TestUndoSingleStep() throws ParseException, SimulationException {
+        Simulator simulator = load();
+        for (int i = 0; i < 4; ++i) {
+            simulator.executeLineFromPC();
+        }
+        long[] afterCall = registerValues(simulator);
+        simulator.executeLineFromPC();
+        simulator.executeLineFromPC();
+
+        assertTrue(simulator.undoLastTransformations());
+        assertTrue(simulator.undoLastTransformations());
+        assertArrayEquals(afterCall, registerValues(simulator));
+    }
+
+    @Test
+    public void TestHistoryDisabled() throws ParseException, SimulationException {
+        Simulator simulator = load();
+        simulator.setHistoryEnabled(false);
+
+        simulator.executeProgramFromPC();
+        assertEquals(12, simulator.getRegisters().getRegister("$t1").getLong());
+        assertFalse(simulator.undoLastTransformations());
+    }
+
+    @Test
+    public void TestJournalKeepsMostRecentSteps() throws SimulationException {
+        Simulator simulator = new Simulator(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS);
+        TransformationJournal journal = new TransformationJournal(2);
+        for (int i = 1; i <= 3; ++i) {
+            journal.beginStep();
+            journal.record(TransformationJournal.REGISTER, 10, i - 1);
+            simulator.getRegisters().setLong(10, i);
+        }
+
+        assertEquals(2, journal.steps());
+        assertTrue(journal.undoStep(simulator));
+        assertEquals(2, simulator.getRegisters().getLong(10));
+        assertTrue(journal.undoStep(simulator));
+        assertEquals(1, simulator.getRegisters().getLong(10));
+        assertFalse(journal.undoStep(simulator));
+    }
+
+    @Test
+    public void TestUndoPastHistoryLimit() throws ParseException, SimulationException {
+        Simulator simulator = load(LOOP);
+        simulator.setHistoryLimit(4);
+        int heapPointer = simulator.getMemory().currentHeapPointer();
+        int stackPointer = (int) simulator.getRegisters().getRegister("$sp").getLong();
+
+        List<long[]> registerStates = new ArrayList<>();
+        List<long[]> memoryStates = new ArrayList<>();
+        while (!simulator.isDone()) {
+            registerStates.add(registerValues(simulator));
+            memoryStates.add(new long[] { simulator.getMemory().readWord(heapPointer),
+                    simulator.getMemory().readWord(stackPointer - simulator.getMemory().wordSize()),
+                    simulator.getMemory().currentHeapPointer() });
+            simulator.executeLineFromPC();
+        }
+
+        for (int i = registerStates.size() - 1; i >= 0; --i) {
+            assertTrue(simulator.undoLastTransformations());
+            assertArrayEquals(registerStates.get(i), registerValues(simulator));
+            assertArrayEquals(memoryStates.get(i),
+                    new long[] { simulator.getMemory().readWord(heapPointer),
+                            simulator.getMemory().readWord(stackPointer - simulator.getMemory().wordSize()),
+                            simulator.getMemory().currentHeapPointer() });
+        }
+        assertFalse(simulator.undoLastTransformations());
+    }
+
+    @Test
+    public void TestUndoDoesNotReplayUnseekableInput() throws ParseException, SimulationException {
+        Simulator simulator = load("""
+                readi $t0
+                loop:
+                add $t1 $t1 1
+                blt $t1 5 loop
+                """);
+        simulator.setHistoryLimit(8);
+        simulator.getStreams().setInputStream(new ByteArrayInputStream("5 6".getBytes(StandardCharsets.UTF_8)));
+        while (!simulator.isDone()) {
+            simulator.executeLineFromPC();
+        }
+
+        // Undoing stops rather than replaying the read from the checkpoint before it
+        long steps = simulator.getSteps();
+        int undone = 0;
+        while (simulator.undoLastTransformations()) {
+            undone++;
+        }
+        assertTrue(undone > 0 && undone < steps);
+        assertEquals(steps - undone, simulator.getSteps());
+        assertEquals(5, simulator.getRegisters().getRegister("$t0").getLong());
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.ezasm.util;
+
+import com.ezasm.simulation.Engine;
+import com.ezasm.simulation.Memory;
+import com.ezasm.simulation.SimulatorPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchRunnerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void TestRunAllReportsEachProgram() throws IOException, InterruptedException {
+        Files.writeString(directory.resolve("double.ez"), """
+                readi $t0
+                mul $t1 $t0 2
+                printi $t1
+                move $r0 3
+                """);
+        Files.writeString(directory.resolve("broken.ez"), """
+                undefined $t0
+                """);
+        Files.writeString(directory.resolve("input.txt"), "21");
+        Files.writeString(directory.resolve("right.txt"), "42");
+        Files.writeString(directory.resolve("wrong.txt"), "41");
+        Files.writeString(directory.resolve("manifest.txt"), """
+                # program input expected
+                double.ez input.txt right.txt
+                double.ez input.txt wrong.txt
+
+                broken.ez
+                """);
+
+        List<BatchRunner.Entry> entries = BatchRunner.readManifest(directory.resolve("manifest.txt").toFile());
+        assertEquals(3, entries.size());
+        assertNull(entries.get(2).input());
+
+        BatchRunner runner = new BatchRunner(
+                new SimulatorPool(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS, true, Engine.CLOSURE, 2));
+        BatchRunner.Result passed = runner.run(entries.get(0));
+        assertTrue(passed.passed());
+        assertEquals(3, passed.exitCode());
+        assertEquals(4, passed.instructions());
+        assertFalse(runner.run(entries.get(1)).passed());
+        assertEquals(BatchRunner.Status.PARSE_ERROR, runner.run(entries.get(2)).status());
+
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        ExecutorService executor = BatchRunner.newExecutor(2, false);
+        try {
+            assertFalse(runner.runAll(entries, executor, 2, new PrintStream(report)));
+        } finally {
+            executor.shutdown();
+        }
+        List<String> lines = report.toString().lines().toList();
+        assertEquals(BatchRunner.REPORT_HEADER, lines.get(0));
+        assertEquals(4, lines.size());
+        assertEquals(1, lines.stream().filter(line -> line.contains("\tmatch\t")).count());
+        assertEquals(1, lines.stream().filter(line -> line.contains("\tmismatch\t")).count());
+    }
+
+}
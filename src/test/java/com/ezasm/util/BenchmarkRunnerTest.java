@@ -0,0 +1,78 @@
+package com.ezasm.util;
+
+import com.ezasm.simulation.Engine;
+import com.ezasm.simulation.Memory;
+import com.ezasm.simulation.SimulatorPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BenchmarkRunnerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void TestReportIsReadBackAsBaseline() throws IOException {
+        Files.createDirectory(directory.resolve("programs"));
+        Files.writeString(directory.resolve("programs/loop.ez"), """
+                loop:
+                add $t0 $t0 1
+                blt $t0 1000 loop
+                printi $t0
+                """);
+        Files.writeString(directory.resolve("expected.txt"), "1000");
+        Files.writeString(directory.resolve("manifest.txt"), """
+                programs/loop.ez - expected.txt
+                """);
+
+        BenchmarkRunner runner = new BenchmarkRunner(
+                new SimulatorPool(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS, true, Engine.CLOSURE, 1), 1,
+                2);
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        List<BenchmarkRunner.Measurement> measurements = runner.measureAll(directory.resolve("manifest.txt").toFile(),
+                new PrintStream(report));
+        assertEquals(1, measurements.size());
+        BenchmarkRunner.Measurement measurement = measurements.get(0);
+        assertTrue(measurement.passed());
+        assertEquals(2002, measurement.instructions());
+        assertTrue(measurement.instructionsPerSecond() > 0);
+        assertTrue(measurement.allocatedBytes() > 0);
+
+        Files.writeString(directory.resolve("baseline.tsv"), report.toString());
+        Map<String, BenchmarkRunner.Measurement> baseline = BenchmarkRunner
+                .readBaseline(directory.resolve("baseline.tsv").toFile());
+        BenchmarkRunner.Measurement recorded = baseline.get(Path.of("programs", "loop.ez").toString());
+        assertNotNull(recorded);
+        assertEquals(measurement.instructions(), recorded.instructions());
+        assertEquals(measurement.allocatedBytes(), recorded.allocatedBytes());
+    }
+
+    @Test
+    public void TestCompareFlagsRegressionsBeyondThreshold() {
+        Map<String, BenchmarkRunner.Measurement> baseline = Map.of( //
+                "fast.ez", new BenchmarkRunner.Measurement("fast.ez", true, 100, 1000, 5000), //
+                "lean.ez", new BenchmarkRunner.Measurement("lean.ez", true, 100, 1000, 5000));
+        List<BenchmarkRunner.Measurement> measurements = List.of(
+                new BenchmarkRunner.Measurement("fast.ez", true, 100, 850, 5400),
+                new BenchmarkRunner.Measurement("lean.ez", true, 100, 950, 6000),
+                new BenchmarkRunner.Measurement("new.ez", true, 100, 1, 1));
+
+        List<BenchmarkRunner.Regression> regressions = BenchmarkRunner.compare(measurements, baseline, 0.1);
+        assertEquals(2, regressions.size());
+        assertEquals("fast.ez", regressions.get(0).program());
+        assertEquals("instructions per second", regressions.get(0).metric());
+        assertEquals("lean.ez", regressions.get(1).program());
+        assertEquals("allocated bytes", regressions.get(1).metric());
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.ezasm.util;
+
+import com.ezasm.simulation.Engine;
+import com.ezasm.simulation.Memory;
+import com.ezasm.simulation.SimulatorPool;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationServerTest {
+
+    private static final String PROGRAM = """
+            readi $t0
+            mul $t1 $t0 2
+            printi $t1
+            move $r0 3
+            """;
+
+    @Test
+    public void TestRequestsShareWarmSimulator() throws IOException, InterruptedException {
+        SimulationServer server = new SimulationServer(
+                new SimulatorPool(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS, true, Engine.CLOSURE, 1));
+        ServerSocketChannel socket = SimulationServer.open(SimulationServer.address("0"));
+        SocketAddress address = socket.getLocalAddress();
+        Thread serving = new Thread(() -> {
+            try {
+                server.serve(socket, 1);
+            } catch (IOException ignored) {
+            }
+        });
+        serving.start();
+        try {
+            for (int i = 1; i <= 3; ++i) {
+                ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+                ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+                long exitCode = SimulationServer.request(address, PROGRAM,
+                        new ByteArrayInputStream(String.valueOf(i).getBytes(StandardCharsets.UTF_8)), stdout, stderr);
+                assertEquals(3, exitCode);
+                assertEquals(String.valueOf(2 * i), stdout.toString(StandardCharsets.UTF_8));
+                assertEquals(0, stderr.size());
+            }
+
+            ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+            long exitCode = SimulationServer.request(address, "undefined $t0\n", new ByteArrayInputStream(new byte[0]),
+                    new ByteArrayOutputStream(), stderr);
+            assertEquals(0, exitCode);
+            assertTrue(stderr.toString(StandardCharsets.UTF_8).contains("undefined"));
+
+            stderr = new ByteArrayOutputStream();
+            SimulationServer.request(address, "import \"secret.ez\"\n", new ByteArrayInputStream(new byte[0]),
+                    new ByteArrayOutputStream(), stderr);
+            assertTrue(stderr.toString(StandardCharsets.UTF_8).contains("cannot import"));
+        } finally {
+            socket.close();
+            serving.join();
+        }
+    }
+
+    @Test
+    public void TestIdleConnectionDoesNotHoldWorker() throws IOException, InterruptedException {
+        SimulationServer server = new SimulationServer(
+                new SimulatorPool(Memory.DEFAULT_WORD_SIZE, Memory.DEFAULT_MEMORY_WORDS, true, Engine.CLOSURE, 1), 200);
+        ServerSocketChannel socket = SimulationServer.open(SimulationServer.address("0"));
+        SocketAddress address = socket.getLocalAddress();
+        Thread serving = new Thread(() -> {
+            try {
+                server.serve(socket, 1);
+            } catch (IOException ignored) {
+            }
+        });
+        serving.start();
+        try (SocketChannel idle = SocketChannel.open(address)) {
+            ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+            long exitCode = SimulationServer.request(address, PROGRAM,
+                    new ByteArrayInputStream("4".getBytes(StandardCharsets.UTF_8)), stdout,
+                    new ByteArrayOutputStream());
+            assertEquals(3, exitCode);
+            assertEquals("8", stdout.toString(StandardCharsets.UTF_8));
+
+            // The server closes the idle connection once the read timeout passes
+            assertEquals(-1, idle.read(ByteBuffer.allocate(1)));
+        } finally {
+            socket.close();
+            serving.join();
+        }
+    }
+
+    @Test
+    public void TestTruncatedBlockIsRejected() {
+        byte[] truncated = { 0, 0, 0, 5, 'a', 'b' };
+        assertThrows(EOFException.class,
+                () -> SimulationServer.readBlock(new DataInputStream(new ByteArrayInputStream(truncated))));
+        byte[] oversized = { 0x7f, 0, 0, 0 };
+        assertThrows(IOException.class,
+                () -> SimulationServer.readBlock(new DataInputStream(new ByteArrayInputStream(oversized))));
+    }
+
+}